@@ -0,0 +1,154 @@
+package com.nitorcreations.collections;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Maps keys to values with asynchronous value functions, keeping at most {@code maxInFlight}
+ * calls in flight. A new call is started whenever a previous one completes, and the first
+ * failure completes the result exceptionally and cancels the calls in flight.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class AsyncMapping<K, V> {
+    private final Iterator<K> keys;
+    private final Function<K, CompletableFuture<V>> valueFn;
+    private final int maxInFlight;
+    private final int size;
+    private final Set<CompletableFuture<V>> pending = ConcurrentHashMap.newKeySet();
+    private final CompletableFuture<Map<K, V>> result = new CompletableFuture<>();
+    /** Counts the requests to start calls, so that only one thread starts them at a time */
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    // Guarded by this
+    private final Map<K, V> values;
+    private int inFlight;
+    private int completed;
+
+    private AsyncMapping(Set<K> keys, Function<K, CompletableFuture<V>> valueFn, int maxInFlight) {
+        this.keys = keys.iterator();
+        this.valueFn = valueFn;
+        this.maxInFlight = maxInFlight;
+        this.size = keys.size();
+        this.values = new HashMap<>(NMaps.capacityFor(size));
+    }
+
+    static <K, V> CompletableFuture<Map<K, V>> start(Set<K> keys, Function<K, CompletableFuture<V>> valueFn, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException(String.format("Maximum in flight must be positive: %d", maxInFlight));
+        }
+        final AsyncMapping<K, V> mapping = new AsyncMapping<>(keys, valueFn, maxInFlight);
+        if (mapping.size == 0) {
+            mapping.result.complete(mapping.values);
+            return mapping.result;
+        }
+        mapping.result.whenComplete((map, error) -> {
+            if (error != null) {
+                mapping.pending.forEach(future -> future.cancel(true));
+            }
+        });
+        mapping.drain();
+        return mapping.result;
+    }
+
+    private void drain() {
+        // Calls completing synchronously request a drain while one is running, which makes
+        // the running drain loop again instead of recursing
+        if (drainRequests.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            startAvailable();
+        } while (drainRequests.decrementAndGet() != 0);
+    }
+
+    private void startAvailable() {
+        while (true) {
+            final K key;
+            synchronized (this) {
+                if (result.isDone() || inFlight >= maxInFlight || !keys.hasNext()) {
+                    return;
+                }
+                key = keys.next();
+                inFlight++;
+            }
+            start(key);
+        }
+    }
+
+    private void start(K key) {
+        final CompletableFuture<V> future;
+        try {
+            future = Objects.requireNonNull(valueFn.apply(key));
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        pending.add(future);
+        if (result.isCompletedExceptionally()) {
+            future.cancel(true);
+        }
+        future.whenComplete((value, error) -> onComplete(key, future, value, error));
+    }
+
+    private void onComplete(K key, CompletableFuture<V> future, V value, Throwable error) {
+        pending.remove(future);
+        if (error != null) {
+            result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            return;
+        }
+        if (value == null) {
+            result.completeExceptionally(new NullPointerException(String.format("Null value for key %s", key)));
+            return;
+        }
+        final boolean done;
+        synchronized (this) {
+            values.put(key, value);
+            inFlight--;
+            done = ++completed == size;
+        }
+        if (done) {
+            result.complete(values);
+        } else {
+            drain();
+        }
+    }
+
+    /**
+     * Holds the executor for blocking value functions. Uses virtual threads when running on a
+     * JDK that has them, and a cached pool of daemon threads otherwise.
+     */
+    static final class BlockingExecutor {
+        static final Executor INSTANCE = create();
+
+        private BlockingExecutor() { /** prevent instantiation */}
+
+        private static Executor create() {
+            try {
+                final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (Executor) factory.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                final AtomicInteger threadCount = new AtomicInteger();
+                final ThreadFactory threadFactory = runnable -> {
+                    final Thread thread = new Thread(runnable, "nmaps-blocking-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+                return Executors.newCachedThreadPool(threadFactory);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.nitorcreations.collections;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * A Bloom filter in a bit array of {@code long} words. An element sets {@code k} bits chosen by double
+ * hashing of its 64-bit hash, and is possibly present if all of them are set. The number of
+ * bits and hashes are chosen for the expected number of elements and the desired false
+ * positive rate: about 9.6 bits per element for 1 %, and 14.4 bits for 0.1 %.
+ * <p>
+ * The filter is thread-safe: bits are set with compare-and-set, so the threads of a parallel
+ * stream can fill a single filter without building and merging copies of it. Filters of the
+ * same size and hash function can also be merged. Elements cannot be removed, see
+ * {@link CuckooFilter}.
+ *
+ * @param <T> the element type
+ * @see NSets#bloomFilter(Iterable, long, double)
+ */
+public final class BloomFilter<T> implements MembershipFilter<T> {
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final ToLongFunction<? super T> hashFn;
+    private final LongAdder setBits = new LongAdder();
+
+    /**
+     * @param expectedSize the expected number of elements
+     * @param falsePositiveRate the desired false positive rate at the expected number of elements
+     */
+    public BloomFilter(long expectedSize, double falsePositiveRate) {
+        this(expectedSize, falsePositiveRate, FilterHashing::hash64);
+    }
+
+    /**
+     * @param expectedSize the expected number of elements
+     * @param falsePositiveRate the desired false positive rate at the expected number of elements
+     * @param hashFn the 64-bit hash function of the elements
+     */
+    public BloomFilter(long expectedSize, double falsePositiveRate, ToLongFunction<? super T> hashFn) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException(String.format("Expected size must not be negative: %d", expectedSize));
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException(String.format("False positive rate must be between 0 and 1: %s", falsePositiveRate));
+        }
+        final long bits = Math.max(64, (long) Math.ceil(-Math.max(1, expectedSize) * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        if (bits > (long) Integer.MAX_VALUE * Long.SIZE) {
+            throw new IllegalArgumentException(String.format("Too many bits for a filter: %d", bits));
+        }
+        this.words = new AtomicLongArray((int) ((bits + 63) >>> 6));
+        this.bitCount = (long) words.length() * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / Math.max(1, expectedSize) * Math.log(2)));
+        this.hashFn = Objects.requireNonNull(hashFn);
+    }
+
+    /** The second hash of the double hashing, odd so that it never repeats a bit too soon */
+    private static long step(long hash) {
+        return FilterHashing.mix(hash ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+
+    @Override
+    public boolean mightContain(T element) {
+        final long hash = hashFn.applyAsLong(element);
+        final long step = step(hash);
+        long combined = hash;
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = (combined & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += step;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean put(T element) {
+        final long hash = hashFn.applyAsLong(element);
+        final long step = step(hash);
+        long combined = hash;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            final long bit = (combined & Long.MAX_VALUE) % bitCount;
+            if (setBit((int) (bit >>> 6), 1L << bit)) {
+                setBits.increment();
+                changed = true;
+            }
+            combined += step;
+        }
+        return changed;
+    }
+
+    /**
+     * @return whether the bit was clear
+     */
+    private boolean setBit(int index, long mask) {
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(index, word, word | mask));
+        return true;
+    }
+
+    /**
+     * Add the elements of the other filter to this one.
+     *
+     * @param other a filter of the same size and hash function
+     */
+    public void merge(BloomFilter<T> other) {
+        if (other.bitCount != bitCount || other.hashCount != hashCount) {
+            throw new IllegalArgumentException(String.format("Filters differ in size: %d bits and %d hashes != %d bits and %d hashes",
+                    bitCount, hashCount, other.bitCount, other.hashCount));
+        }
+        for (int i = 0; i < words.length(); i++) {
+            final long bits = other.words.get(i);
+            final long previous = words.getAndAccumulate(i, bits, (word, added) -> word | added);
+            setBits.add(Long.bitCount(bits & ~previous));
+        }
+    }
+
+    /**
+     * @return the number of bits of the filter
+     */
+    public long bitCount() {
+        return bitCount;
+    }
+
+    /**
+     * @return the number of bits set by an element
+     */
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * @return an estimate of the number of distinct elements added, from the fraction of set bits
+     */
+    public long approximateElementCount() {
+        return Math.round(-(double) bitCount / hashCount * Math.log1p(-(double) setBits.sum() / bitCount));
+    }
+
+    @Override
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) setBits.sum() / bitCount, hashCount);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BloomFilter{bits=%d, hashes=%d, approximateElementCount=%d}", bitCount, hashCount, approximateElementCount());
+    }
+}
@@ -0,0 +1,74 @@
+package com.nitorcreations.collections;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static com.nitorcreations.streams.NCollectors.entriesToMap;
+import static com.nitorcreations.streams.NMappers.entryOf;
+
+/**
+ * Factories of maps and sets like those of {@link NMaps} and {@link NSets}, but with the keys
+ * replaced by their canonical instances in an {@link InternPool} before insertion.
+ *
+ * @param <K> the key type
+ * @see NMaps#canonicalizing(InternPool)
+ */
+public final class CanonicalizingMaps<K> {
+    private final InternPool<K> pool;
+
+    CanonicalizingMaps(InternPool<K> pool) {
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    /**
+     * @param entries entries to collect to a map
+     * @param <V> the value type
+     * @return the new map
+     * @see NMaps#mapOfEntries(Map.Entry[])
+     */
+    @SafeVarargs
+    public final <V> Map<K, V> mapOfEntries(Map.Entry<K, V>... entries) {
+        return Arrays.stream(entries).collect(entriesToMap(pool));
+    }
+
+    /**
+     * @param keys the keys of the map
+     * @param values the values of the map
+     * @param <V> type of values
+     * @return the map containing the entries
+     * @see NMaps#mapOfLists(List, List)
+     */
+    public <V> Map<K, V> mapOfLists(List<K> keys, List<V> values) {
+        NMaps.checkSizes(keys.size(), values.size());
+        return IntStream.range(0, keys.size())
+                .mapToObj(i -> entryOf(keys.get(i), values.get(i)))
+                .collect(entriesToMap(pool));
+    }
+
+    /**
+     * @param keys the keys to map
+     * @param valueFn the function mapping keys to values
+     * @param <V> type of values
+     * @return the map
+     * @see NMaps#mapping(Set, Function)
+     */
+    public <V> Map<K, V> mapping(Set<K> keys, Function<K, V> valueFn) {
+        return keys.stream()
+                .map(k -> entryOf(k, valueFn.apply(k)))
+                .collect(entriesToMap(pool));
+    }
+
+    /**
+     * @param values the values to add to the set
+     * @return the set containing the values
+     * @see NSets#asSet(Iterable)
+     */
+    public Set<K> asSet(Iterable<K> values) {
+        return NSets.asSet(values, pool);
+    }
+}
@@ -0,0 +1,72 @@
+package com.nitorcreations.collections;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes keys and values of a map snapshot to bytes and decodes them back.
+ *
+ * @param <T> the type of the encoded values
+ * @see NMaps#writeSnapshot(java.util.Map, java.nio.file.Path, Codec, Codec)
+ * @see NMaps#mapSnapshot(java.nio.file.Path, Codec, Codec)
+ */
+public interface Codec<T> {
+    /** Encodes strings as UTF-8 */
+    Codec<String> UTF8 = new Codec<String>() {
+        @Override
+        public byte[] encode(String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer) {
+            if (buffer.hasArray()) {
+                return new String(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), StandardCharsets.UTF_8);
+            }
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /** Encodes longs as eight big-endian bytes */
+    Codec<Long> LONG = new Codec<Long>() {
+        @Override
+        public byte[] encode(Long value) {
+            return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer) {
+            return buffer.getLong(buffer.position());
+        }
+    };
+
+    /** Encodes integers as four big-endian bytes */
+    Codec<Integer> INTEGER = new Codec<Integer>() {
+        @Override
+        public byte[] encode(Integer value) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer) {
+            return buffer.getInt(buffer.position());
+        }
+    };
+
+    /**
+     * @param value the value to encode, never {@code null}
+     * @return the encoded bytes
+     */
+    byte[] encode(T value);
+
+    /**
+     * Decode a value from the remaining bytes of the buffer. The buffer may be a view of a
+     * memory-mapped file, so the implementation must not keep a reference to it.
+     *
+     * @param buffer the buffer positioned at the encoded bytes and limited to their end
+     * @return the decoded value
+     */
+    T decode(ByteBuffer buffer);
+}
@@ -0,0 +1,240 @@
+package com.nitorcreations.collections;
+
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * A cuckoo filter that also supports removing elements. An element is stored as a 16-bit
+ * fingerprint in one of two buckets of four fingerprints, and a bucket is a single
+ * {@code long} that is searched for a fingerprint with a few word-wide operations. When both
+ * buckets are full, fingerprints are kicked to their alternate buckets to make room. The filter
+ * takes about 2.1 bytes per element at its 95 % load limit, and its false positive rate stays
+ * below 0.013 %.
+ * <p>
+ * Elements must only be removed if they were added, otherwise another element may be removed.
+ * Adding an element twice stores it twice, and it must then be removed twice. Filters of the
+ * same size and hash function can be merged, e.g., when built by the threads of a parallel
+ * stream. Not thread-safe.
+ *
+ * @param <T> the element type
+ * @see NSets#cuckooFilter(Iterable, long)
+ */
+public final class CuckooFilter<T> implements MembershipFilter<T> {
+    private static final int SLOTS = 4;
+    private static final int FINGERPRINT_BITS = 16;
+    private static final long FINGERPRINT_MASK = (1L << FINGERPRINT_BITS) - 1;
+    private static final long LANES = 0x0001000100010001L;
+    private static final long HIGH_BITS = 0x8000800080008000L;
+    private static final double MAX_LOAD = 0.95;
+    private static final int MAX_KICKS = 500;
+
+    private final long[] buckets;
+    private final int mask;
+    private final ToLongFunction<? super T> hashFn;
+    private long size;
+    private boolean hasVictim;
+    private int victimIndex;
+    private long victimFingerprint;
+    private long random = 0x2545f4914f6cdd1dL;
+
+    /**
+     * @param expectedSize the expected number of elements
+     */
+    public CuckooFilter(long expectedSize) {
+        this(expectedSize, FilterHashing::hash64);
+    }
+
+    /**
+     * @param expectedSize the expected number of elements
+     * @param hashFn the 64-bit hash function of the elements
+     */
+    public CuckooFilter(long expectedSize, ToLongFunction<? super T> hashFn) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException(String.format("Expected size must not be negative: %d", expectedSize));
+        }
+        final long needed = Math.max(2, (long) Math.ceil(expectedSize / (SLOTS * MAX_LOAD)));
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException(String.format("Too many elements for a filter: %d", expectedSize));
+        }
+        this.buckets = new long[Integer.highestOneBit((int) needed - 1) << 1];
+        this.mask = buckets.length - 1;
+        this.hashFn = Objects.requireNonNull(hashFn);
+    }
+
+    private int indexOf(long hash) {
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private static long fingerprintOf(long hash) {
+        final long fingerprint = hash & FINGERPRINT_MASK;
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    /** The other bucket of a fingerprint, the same function maps it back */
+    private int alternateIndex(int index, long fingerprint) {
+        return (index ^ (int) (fingerprint * 0x5bd1e995L)) & mask;
+    }
+
+    private static boolean hasFingerprint(long bucket, long fingerprint) {
+        final long x = bucket ^ (fingerprint * LANES);
+        return ((x - LANES) & ~x & HIGH_BITS) != 0;
+    }
+
+    private boolean insertInto(int index, long fingerprint) {
+        final long bucket = buckets[index];
+        for (int shift = 0; shift < SLOTS * FINGERPRINT_BITS; shift += FINGERPRINT_BITS) {
+            if ((bucket >>> shift & FINGERPRINT_MASK) == 0) {
+                buckets[index] = bucket | fingerprint << shift;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean removeFrom(int index, long fingerprint) {
+        final long bucket = buckets[index];
+        for (int shift = 0; shift < SLOTS * FINGERPRINT_BITS; shift += FINGERPRINT_BITS) {
+            if ((bucket >>> shift & FINGERPRINT_MASK) == fingerprint) {
+                buckets[index] = bucket & ~(FINGERPRINT_MASK << shift);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean mightContain(T element) {
+        final long hash = hashFn.applyAsLong(element);
+        final long fingerprint = fingerprintOf(hash);
+        final int index = indexOf(hash);
+        final int alternate = alternateIndex(index, fingerprint);
+        return hasFingerprint(buckets[index], fingerprint) || hasFingerprint(buckets[alternate], fingerprint)
+                || hasVictim && victimFingerprint == fingerprint && (victimIndex == index || victimIndex == alternate);
+    }
+
+    /**
+     * Add the element to the filter.
+     *
+     * @param element the element to add
+     * @return {@code true}, as the filter always changes
+     * @throws IllegalStateException if the filter is full
+     */
+    @Override
+    public boolean put(T element) {
+        final long hash = hashFn.applyAsLong(element);
+        insert(indexOf(hash), fingerprintOf(hash));
+        return true;
+    }
+
+    private void insert(int index, long fingerprint) {
+        if (hasVictim) {
+            throw new IllegalStateException(String.format("Filter is full: %d elements", size));
+        }
+        size++;
+        if (insertInto(index, fingerprint)) {
+            return;
+        }
+        index = alternateIndex(index, fingerprint);
+        if (insertInto(index, fingerprint)) {
+            return;
+        }
+        for (int kick = 0; kick < MAX_KICKS; kick++) {
+            final int shift = (int) (nextRandom() & (SLOTS - 1)) * FINGERPRINT_BITS;
+            final long kicked = buckets[index] >>> shift & FINGERPRINT_MASK;
+            buckets[index] = buckets[index] & ~(FINGERPRINT_MASK << shift) | fingerprint << shift;
+            fingerprint = kicked;
+            index = alternateIndex(index, fingerprint);
+            if (insertInto(index, fingerprint)) {
+                return;
+            }
+        }
+        // keep the last kicked fingerprint aside, further inserts fail until space is freed
+        hasVictim = true;
+        victimIndex = index;
+        victimFingerprint = fingerprint;
+    }
+
+    private long nextRandom() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return random;
+    }
+
+    /**
+     * Remove the element from the filter. The element must have been added.
+     *
+     * @param element the element to remove
+     * @return {@code true} if a fingerprint of the element was found and removed
+     */
+    public boolean remove(T element) {
+        final long hash = hashFn.applyAsLong(element);
+        final long fingerprint = fingerprintOf(hash);
+        final int index = indexOf(hash);
+        final int alternate = alternateIndex(index, fingerprint);
+        if (removeFrom(index, fingerprint) || removeFrom(alternate, fingerprint)) {
+            size--;
+            if (hasVictim) {
+                hasVictim = false;
+                size--;
+                insert(victimIndex, victimFingerprint);
+            }
+            return true;
+        }
+        if (hasVictim && victimFingerprint == fingerprint && (victimIndex == index || victimIndex == alternate)) {
+            hasVictim = false;
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Add the elements of the other filter to this one.
+     *
+     * @param other a filter of the same size and hash function
+     * @throws IllegalStateException if the filter gets full
+     */
+    public void merge(CuckooFilter<T> other) {
+        if (other.buckets.length != buckets.length) {
+            throw new IllegalArgumentException(String.format("Filters differ in size: %d != %d buckets", buckets.length, other.buckets.length));
+        }
+        for (int index = 0; index < other.buckets.length; index++) {
+            final long bucket = other.buckets[index];
+            for (int shift = 0; shift < SLOTS * FINGERPRINT_BITS; shift += FINGERPRINT_BITS) {
+                final long fingerprint = bucket >>> shift & FINGERPRINT_MASK;
+                if (fingerprint != 0) {
+                    insert(index, fingerprint);
+                }
+            }
+        }
+        if (other.hasVictim) {
+            insert(other.victimIndex, other.victimFingerprint);
+        }
+    }
+
+    /**
+     * @return the number of elements in the filter
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the number of elements the filter holds at its load limit
+     */
+    public long capacity() {
+        return (long) (buckets.length * SLOTS * MAX_LOAD);
+    }
+
+    @Override
+    public double expectedFalsePositiveRate() {
+        final double load = (double) size / ((long) buckets.length * SLOTS);
+        return 1 - Math.pow(1 - 1.0 / FINGERPRINT_MASK, 2 * SLOTS * load);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CuckooFilter{buckets=%d, size=%d}", buckets.length, size);
+    }
+}
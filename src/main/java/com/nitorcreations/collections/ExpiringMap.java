@@ -0,0 +1,438 @@
+package com.nitorcreations.collections;
+
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import static com.nitorcreations.streams.NMappers.entryOf;
+
+/**
+ * A concurrent map whose entries expire a fixed time after they were written. With
+ * refresh-ahead, an entry is reloaded asynchronously with the value function shortly before it
+ * expires, so that readers keep seeing a value while the new one loads and reloads are spread
+ * over time instead of happening all at once.
+ * <p>
+ * Expired entries are never returned. They are removed, and refreshes are started, by a
+ * hierarchical timing wheel that is advanced as a side effect of reads and writes, so the cost
+ * is amortized over the operations without a background thread or per-entry timers. Call
+ * {@link #cleanUp()} to advance it explicitly when the map is idle. If a refresh fails, the old
+ * value is kept until it expires, and the next read after the refresh time retries.
+ * <p>
+ * The atomic operations of {@link ConcurrentMap} treat expired entries as absent. An update
+ * that leaves the value unchanged, such as {@code putIfAbsent} of a present key, keeps the
+ * expiry of the entry, while any other update starts a new time to live.
+ * <p>
+ * {@code null} keys and values are not supported.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @see NMaps#expiringMapping(Set, Function, Duration, Duration, Executor)
+ */
+public final class ExpiringMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final Function<K, V> valueFn;
+    private final long timeToLiveNanos;
+    private final long refreshAheadNanos;
+    private final Executor executor;
+    private final LongSupplier ticker;
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    private final TimerWheel<Node<K, V>> wheel;
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    ExpiringMap(Function<K, V> valueFn, long timeToLiveNanos, long refreshAheadNanos, Executor executor, LongSupplier ticker) {
+        if (timeToLiveNanos <= 0) {
+            throw new IllegalArgumentException(String.format("Time to live must be positive: %d ns", timeToLiveNanos));
+        }
+        if (refreshAheadNanos < 0 || refreshAheadNanos >= timeToLiveNanos) {
+            throw new IllegalArgumentException(String.format("Refresh ahead must be between zero and the time to live: %d ns", refreshAheadNanos));
+        }
+        this.valueFn = Objects.requireNonNull(valueFn);
+        this.timeToLiveNanos = timeToLiveNanos;
+        this.refreshAheadNanos = refreshAheadNanos;
+        this.executor = Objects.requireNonNull(executor);
+        this.ticker = ticker;
+        this.wheel = new TimerWheel<>(ticker.getAsLong());
+    }
+
+    /** An entry and its timer in the wheel */
+    static final class Node<K, V> extends TimerWheel.Timer {
+        final K key;
+        final V value;
+        final long expireAt;
+        final long refreshAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Node(K key, V value, long expireAt, long refreshAt) {
+            this.key = key;
+            this.value = value;
+            this.expireAt = expireAt;
+            this.refreshAt = refreshAt;
+        }
+    }
+
+    private boolean refreshes() {
+        return refreshAheadNanos > 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        final long now = ticker.getAsLong();
+        afterRead(now);
+        final Node<K, V> node = data.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (now - node.expireAt >= 0) {
+            if (data.remove(node.key, node)) {
+                expirations.increment();
+            }
+            return null;
+        }
+        if (refreshes() && now - node.refreshAt >= 0) {
+            refresh(node);
+        }
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associate the value with the key for the time to live of the map.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value of the key, or {@code null} if absent or expired
+     */
+    @Override
+    public V put(K key, V value) {
+        return put(key, value, timeToLiveNanos);
+    }
+
+    /**
+     * Associate the value with the key for the given time to live. With refresh-ahead, the entry
+     * is refreshed {@code refreshAhead} before it expires if the time to live is longer than that.
+     *
+     * @param key the key
+     * @param value the value
+     * @param timeToLive the time after which the entry expires
+     * @return the previous value of the key, or {@code null} if absent or expired
+     */
+    public V put(K key, V value, Duration timeToLive) {
+        final long nanos = timeToLive.toNanos();
+        if (nanos <= 0) {
+            throw new IllegalArgumentException(String.format("Time to live must be positive: %s", timeToLive));
+        }
+        return put(key, value, nanos);
+    }
+
+    private V put(K key, V value, long timeToLive) {
+        final long now = ticker.getAsLong();
+        final Node<K, V> node = newNode(Objects.requireNonNull(key), Objects.requireNonNull(value), now, timeToLive);
+        final Node<K, V> previous = data.put(key, node);
+        afterWrite(now, previous, node);
+        return previous == null || now - previous.expireAt >= 0 ? null : previous.value;
+    }
+
+    private Node<K, V> newNode(K key, V value, long now, long timeToLive) {
+        final long expireAt = now + timeToLive;
+        final long refreshAt = refreshes() && timeToLive > refreshAheadNanos ? expireAt - refreshAheadNanos : expireAt;
+        return new Node<>(key, value, expireAt, refreshAt);
+    }
+
+    @Override
+    public V remove(Object key) {
+        final long now = ticker.getAsLong();
+        final Node<K, V> previous = data.remove(key);
+        afterWrite(now, previous, null);
+        return previous == null || now - previous.expireAt >= 0 ? null : previous.value;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+        return change(key, (k, current) -> current != null ? current : value).previous;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object key, Object value) {
+        if (key == null || value == null) {
+            return false;
+        }
+        final Change<V> change = change((K) key, (k, current) -> value.equals(current) ? null : current);
+        return change.previous != null && change.current == null;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        final Change<V> change = change(key, (k, current) -> oldValue.equals(current) ? newValue : current);
+        return oldValue.equals(change.previous);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(value);
+        return change(key, (k, current) -> current != null ? value : null).previous;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        return change(key, (k, current) -> current != null ? current : mappingFunction.apply(k)).current;
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        return change(key, (k, current) -> current != null ? remappingFunction.apply(k, current) : null).current;
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction);
+        return change(key, remappingFunction).current;
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        return change(key, (k, current) -> current == null ? value : remappingFunction.apply(current, value)).current;
+    }
+
+    /** The values of a key before and after an atomic update, and the nodes it swapped */
+    private static final class Change<V> {
+        V previous;
+        V current;
+        Node<?, V> removed;
+        Node<?, V> added;
+    }
+
+    /**
+     * Atomically update the value of the key from its live value, or {@code null} if absent or
+     * expired. A {@code null} result removes the entry, and the live value returned unchanged
+     * keeps its node. The wheel is updated after the update, like for {@code put}.
+     */
+    @SuppressWarnings("unchecked")
+    private Change<V> change(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+        Objects.requireNonNull(key);
+        final long now = ticker.getAsLong();
+        final Change<V> change = new Change<>();
+        data.compute(key, (k, node) -> {
+            final boolean live = node != null && now - node.expireAt < 0;
+            change.previous = live ? node.value : null;
+            change.current = remapping.apply(k, change.previous);
+            if (live && change.current == node.value) {
+                return node;
+            }
+            change.removed = node;
+            change.added = change.current == null ? null : newNode(k, change.current, now, timeToLiveNanos);
+            return (Node<K, V>) change.added;
+        });
+        if (change.removed != null || change.added != null) {
+            afterWrite(now, (Node<K, V>) change.removed, (Node<K, V>) change.added);
+        }
+        return change;
+    }
+
+    @Override
+    public void clear() {
+        wheelLock.lock();
+        try {
+            data.clear();
+            wheel.clear();
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of entries, including expired entries that have not yet been removed
+     */
+    @Override
+    public int size() {
+        cleanUp();
+        return data.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Remove the expired entries and start the refreshes that are due.
+     */
+    public void cleanUp() {
+        final List<Node<K, V>> due;
+        wheelLock.lock();
+        try {
+            due = advance(ticker.getAsLong());
+        } finally {
+            wheelLock.unlock();
+        }
+        due.forEach(this::refresh);
+    }
+
+    /**
+     * @return the number of refreshes started
+     */
+    public long refreshCount() {
+        return refreshes.sum();
+    }
+
+    /**
+     * @return the number of entries removed because they expired
+     */
+    public long expirationCount() {
+        return expirations.sum();
+    }
+
+    private void afterRead(long now) {
+        if (wheelLock.tryLock()) {
+            final List<Node<K, V>> due;
+            try {
+                due = advance(now);
+            } finally {
+                wheelLock.unlock();
+            }
+            due.forEach(this::refresh);
+        }
+    }
+
+    private void afterWrite(long now, Node<K, V> previous, Node<K, V> node) {
+        final List<Node<K, V>> due;
+        wheelLock.lock();
+        try {
+            if (previous != null) {
+                wheel.unlink(previous);
+            }
+            if (node != null && data.get(node.key) == node) {
+                wheel.schedule(node, node.refreshAt);
+            }
+            due = advance(now);
+        } finally {
+            wheelLock.unlock();
+        }
+        due.forEach(this::refresh);
+    }
+
+    /**
+     * Advance the wheel, removing the expired entries and rescheduling the refreshed ones for
+     * their expiry. The refreshes are started by the caller after releasing the lock, so that a
+     * direct executor does not run them under it.
+     *
+     * @return the nodes to refresh
+     */
+    private List<Node<K, V>> advance(long now) {
+        final List<Node<K, V>> due = new ArrayList<>(0);
+        wheel.advance(now, node -> {
+            if (data.get(node.key) != node) {
+                return;
+            }
+            if (now - node.expireAt >= 0) {
+                if (data.remove(node.key, node)) {
+                    expirations.increment();
+                }
+            } else {
+                due.add(node);
+                wheel.schedule(node, node.expireAt);
+            }
+        });
+        return due;
+    }
+
+    private void refresh(Node<K, V> node) {
+        if (!node.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshes.increment();
+        executor.execute(() -> {
+            try {
+                final V value = valueFn.apply(node.key);
+                if (value != null) {
+                    final long now = ticker.getAsLong();
+                    final Node<K, V> refreshed = newNode(node.key, value, now, timeToLiveNanos);
+                    if (data.replace(node.key, node, refreshed)) {
+                        afterWrite(now, node, refreshed);
+                    }
+                }
+            } finally {
+                node.refreshing.set(false);
+            }
+        });
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                final long now = ticker.getAsLong();
+                final Iterator<Node<K, V>> nodes = data.values().iterator();
+                return new Iterator<Entry<K, V>>() {
+                    private Node<K, V> next;
+                    private Node<K, V> current;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (next == null && nodes.hasNext()) {
+                            final Node<K, V> node = nodes.next();
+                            if (now - node.expireAt < 0) {
+                                next = node;
+                            }
+                        }
+                        return next != null;
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        current = next;
+                        next = null;
+                        return entryOf(current.key, current.value);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (current == null) {
+                            throw new IllegalStateException();
+                        }
+                        if (data.remove(current.key, current)) {
+                            afterWrite(ticker.getAsLong(), current, null);
+                        }
+                        current = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ExpiringMap.this.size();
+            }
+        };
+    }
+}
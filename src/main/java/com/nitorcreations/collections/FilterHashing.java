@@ -0,0 +1,37 @@
+package com.nitorcreations.collections;
+
+/**
+ * The 64-bit hash codes of the membership filters. Strings and numbers are hashed from their
+ * contents to 64 bits, since the 32 bits of {@link Object#hashCode()} collide too often for
+ * filters of hundreds of millions of elements. Other objects are hashed from their hash code.
+ */
+final class FilterHashing {
+    private FilterHashing() { /** prevent instantiation */}
+
+    static long hash64(Object element) {
+        if (element instanceof CharSequence) {
+            final CharSequence chars = (CharSequence) element;
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < chars.length(); i++) {
+                h = (h ^ chars.charAt(i)) * 0x100000001b3L;
+            }
+            return mix(h);
+        }
+        if (element instanceof Long) {
+            return mix((Long) element);
+        }
+        if (element instanceof Number && !(element instanceof Double) && !(element instanceof Float)) {
+            return mix(((Number) element).longValue());
+        }
+        return mix(element == null ? 0 : element.hashCode());
+    }
+
+    /** The final avalanche of MurmurHash3 */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,115 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+import static com.nitorcreations.streams.NMappers.entryOf;
+
+/**
+ * A read-only view of the entries of a map that pass a predicate. Lookups test only the entry
+ * looked up, but {@code size()} tests every entry of the underlying map.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class FilteredMapView<K, V> extends AbstractMap<K, V> implements MapView<K, V> {
+    private final Map<K, V> source;
+    private final BiPredicate<? super K, ? super V> predicate;
+
+    FilteredMapView(Map<K, V> source, BiPredicate<? super K, ? super V> predicate) {
+        this.source = Objects.requireNonNull(source);
+        this.predicate = Objects.requireNonNull(predicate);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        final V value = source.get(key);
+        return (value != null || source.containsKey(key)) && test(key, value);
+    }
+
+    @Override
+    public V get(Object key) {
+        final V value = source.get(key);
+        return value != null && test(key, value) ? value : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean test(Object key, V value) {
+        return predicate.test((K) key, value);
+    }
+
+    @Override
+    public int size() {
+        final int[] size = {0};
+        forEach((key, value) -> size[0]++);
+        return size[0];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !entrySet().iterator().hasNext();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        source.forEach((key, value) -> {
+            if (predicate.test(key, value)) {
+                action.accept(key, value);
+            }
+        });
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                final Iterator<Entry<K, V>> entries = source.entrySet().iterator();
+                return new Iterator<Entry<K, V>>() {
+                    private Entry<K, V> next;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (next == null && entries.hasNext()) {
+                            final Entry<K, V> entry = entries.next();
+                            if (predicate.test(entry.getKey(), entry.getValue())) {
+                                next = entryOf(entry.getKey(), entry.getValue());
+                            }
+                        }
+                        return next != null;
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Entry<K, V> entry = next;
+                        next = null;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return FilteredMapView.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Map<K, V> materialize() {
+        final Map<K, V> copy = new HashMap<>();
+        forEach(copy::put);
+        return copy;
+    }
+}
@@ -0,0 +1,306 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static com.nitorcreations.streams.NMappers.entryOf;
+
+/**
+ * An immutable map for lookup tables that are built once and then only read. The keys are
+ * placed by a minimal perfect hash function (hash and displace), so that every key has a slot of
+ * its own in flat key and value arrays. A lookup takes one hash code, one seed and one slot read,
+ * and one {@code equals}, with no chains or probing.
+ * <p>
+ * Keys are hashed into buckets of about four keys, and the buckets are placed from the largest
+ * to the smallest by searching for a seed that sends all keys of the bucket to free slots.
+ * Buckets of a single key take the next free slot directly. Keys with identical hash codes
+ * cannot be told apart by any seed, so they are kept in a small overflow map.
+ * <p>
+ * Neither {@code null} keys nor {@code null} values are supported.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @see NMaps#freeze(Map)
+ */
+public final class FrozenMap<K, V> extends AbstractMap<K, V> {
+    private static final int KEYS_PER_BUCKET = 4;
+    private static final int MAX_SEED = 1 << 16;
+    /** The assumed size of a reference when estimating the memory use */
+    private static final int REFERENCE_BYTES = 4;
+
+    private final int[] seeds;
+    private final Object[] keys;
+    private final Object[] values;
+    private final Map<K, V> overflow;
+    private final int size;
+    private final long buildNanos;
+
+    FrozenMap(Map<K, V> map) {
+        final long start = System.nanoTime();
+        final int n = map.size();
+        final Object[] sourceKeys = new Object[n];
+        final Object[] sourceValues = new Object[n];
+        final int[] hashes = new int[n];
+        int j = 0;
+        for (Map.Entry<K, V> entry : map.entrySet()) {
+            sourceKeys[j] = Objects.requireNonNull(entry.getKey());
+            sourceValues[j] = Objects.requireNonNull(entry.getValue());
+            hashes[j] = hash(sourceKeys[j]);
+            j++;
+        }
+
+        final int slotCount = Math.max(1, n);
+        final int bucketCount = Math.max(1, (n + KEYS_PER_BUCKET - 1) / KEYS_PER_BUCKET);
+        this.seeds = new int[bucketCount];
+        this.keys = new Object[slotCount];
+        this.values = new Object[slotCount];
+        this.size = n;
+
+        // Group the keys by bucket with a counting sort
+        final int[] bucketStart = new int[bucketCount + 1];
+        for (int hash : hashes) {
+            bucketStart[reduce(hash, bucketCount) + 1]++;
+        }
+        for (int b = 0; b < bucketCount; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        final int[] members = new int[n];
+        final int[] fill = new int[bucketCount];
+        for (int i = 0; i < n; i++) {
+            final int b = reduce(hashes[i], bucketCount);
+            members[bucketStart[b] + fill[b]++] = i;
+        }
+
+        final Map<K, V> overflowEntries = new HashMap<>();
+        final BitSet taken = new BitSet(slotCount);
+        final int[] slots = new int[n];
+        int nextFree = 0;
+        for (int b : bucketsBySizeDescending(bucketStart, bucketCount)) {
+            final int from = bucketStart[b];
+            final int bucketSize = bucketStart[b + 1] - from;
+            if (bucketSize == 0) {
+                break;
+            }
+            if (bucketSize == 1) {
+                nextFree = taken.nextClearBit(nextFree);
+                seeds[b] = -nextFree - 1;
+                place(members[from], nextFree, sourceKeys, sourceValues, taken);
+                continue;
+            }
+            final int seed = hasEqualHashes(hashes, members, from, bucketSize) ? -1 : findSeed(hashes, members, from, bucketSize, taken, slots);
+            if (seed < 0) {
+                for (int i = from; i < from + bucketSize; i++) {
+                    putOverflow(overflowEntries, sourceKeys[members[i]], sourceValues[members[i]]);
+                }
+            } else {
+                seeds[b] = seed;
+                for (int i = 0; i < bucketSize; i++) {
+                    place(members[from + i], slots[i], sourceKeys, sourceValues, taken);
+                }
+            }
+        }
+        this.overflow = overflowEntries;
+        this.buildNanos = System.nanoTime() - start;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void putOverflow(Map<K, V> overflowEntries, Object key, Object value) {
+        overflowEntries.put((K) key, (V) value);
+    }
+
+    private void place(int member, int slot, Object[] sourceKeys, Object[] sourceValues, BitSet taken) {
+        keys[slot] = sourceKeys[member];
+        values[slot] = sourceValues[member];
+        taken.set(slot);
+    }
+
+    private int findSeed(int[] hashes, int[] members, int from, int bucketSize, BitSet taken, int[] slots) {
+        seeds:
+        for (int seed = 0; seed < MAX_SEED; seed++) {
+            for (int i = 0; i < bucketSize; i++) {
+                final int slot = reduce(mix(hashes[members[from + i]], seed), keys.length);
+                if (taken.get(slot)) {
+                    continue seeds;
+                }
+                for (int k = 0; k < i; k++) {
+                    if (slots[k] == slot) {
+                        continue seeds;
+                    }
+                }
+                slots[i] = slot;
+            }
+            return seed;
+        }
+        return -1;
+    }
+
+    private static boolean hasEqualHashes(int[] hashes, int[] members, int from, int bucketSize) {
+        for (int i = from + 1; i < from + bucketSize; i++) {
+            for (int k = from; k < i; k++) {
+                if (hashes[members[i]] == hashes[members[k]]) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int[] bucketsBySizeDescending(int[] bucketStart, int bucketCount) {
+        int maxSize = 0;
+        for (int b = 0; b < bucketCount; b++) {
+            maxSize = Math.max(maxSize, bucketStart[b + 1] - bucketStart[b]);
+        }
+        final int[] sizeStart = new int[maxSize + 2];
+        for (int b = 0; b < bucketCount; b++) {
+            sizeStart[maxSize - (bucketStart[b + 1] - bucketStart[b]) + 1]++;
+        }
+        for (int s = 0; s <= maxSize; s++) {
+            sizeStart[s + 1] += sizeStart[s];
+        }
+        final int[] order = new int[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            order[sizeStart[maxSize - (bucketStart[b + 1] - bucketStart[b])]++] = b;
+        }
+        return order;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    private static int mix(int hash, int seed) {
+        int h = hash ^ (seed * 0x9e3779b9);
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    /** Maps the hash uniformly to {@code [0, n)} without division */
+    private static int reduce(int hash, int n) {
+        return (int) (((hash & 0xffffffffL) * n) >>> 32);
+    }
+
+    private int slotOf(Object key) {
+        final int hash = hash(key);
+        final int seed = seeds[reduce(hash, seeds.length)];
+        return seed < 0 ? -seed - 1 : reduce(mix(hash, seed), keys.length);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        final int slot = slotOf(key);
+        final Object candidate = keys[slot];
+        if (candidate != null && (candidate == key || candidate.equals(key))) {
+            return (V) values[slot];
+        }
+        return overflow.isEmpty() ? null : overflow.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the time it took to build the map in nanoseconds
+     */
+    public long buildNanos() {
+        return buildNanos;
+    }
+
+    /**
+     * Estimate the memory used by the lookup structure per entry, not counting the keys and values
+     * themselves. Assumes compressed references of four bytes.
+     *
+     * @return the estimated bytes per entry
+     */
+    public double bytesPerEntry() {
+        if (size == 0) {
+            return 0;
+        }
+        final long bytes = 4L * seeds.length
+                + 2L * REFERENCE_BYTES * keys.length
+                + overflow.size() * 48L;
+        return (double) bytes / size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], (V) values[i]);
+            }
+        }
+        overflow.forEach(action);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                final Iterator<Entry<K, V>> overflowIterator = overflow.entrySet().iterator();
+                return new Iterator<Entry<K, V>>() {
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (i < keys.length && keys[i] == null) {
+                            i++;
+                        }
+                        return i < keys.length || overflowIterator.hasNext();
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        if (i < keys.length) {
+                            final Entry<K, V> entry = entryOf((K) keys[i], (V) values[i]);
+                            i++;
+                            return entry;
+                        }
+                        final Entry<K, V> entry = overflowIterator.next();
+                        return entryOf(entry.getKey(), entry.getValue());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * An immutable set in a single open-addressing table with linear probing. The table holds the
+ * elements themselves, so an element costs one or two array slots instead of the node and the
+ * table slot of a {@code HashSet}. The table is at most half full, which keeps the probe
+ * sequences short.
+ *
+ * @param <V> the element type
+ */
+final class ImmutableHashSet<V> extends AbstractSet<V> {
+    /** Stands for the {@code null} element, as {@code null} marks a free slot */
+    private static final Object NULL = new Object();
+
+    private final Object[] table;
+    private final int mask;
+    private final int size;
+
+    private ImmutableHashSet(Object[] table, int size) {
+        this.table = table;
+        this.mask = table.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * @param values the elements, duplicates are dropped and the array is not retained
+     * @param <V> the element type
+     * @return the set of the values
+     */
+    static <V> ImmutableHashSet<V> of(Object[] values) {
+        final Object[] table = new Object[Integer.highestOneBit(Math.max(2, values.length) * 2 - 1) << 1];
+        final int mask = table.length - 1;
+        int size = 0;
+        for (Object value : values) {
+            final Object element = value == null ? NULL : value;
+            int i = hash(element) & mask;
+            Object current;
+            while ((current = table[i]) != null && !current.equals(element)) {
+                i = (i + 1) & mask;
+            }
+            if (current == null) {
+                table[i] = element;
+                size++;
+            }
+        }
+        return new ImmutableHashSet<>(table, size);
+    }
+
+    private static int hash(Object element) {
+        final int h = element.hashCode() * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        final Object element = o == null ? NULL : o;
+        int i = hash(element) & mask;
+        Object current;
+        while ((current = table[i]) != null) {
+            if (current.equals(element)) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V unmask(Object element) {
+        return element == NULL ? null : (V) element;
+    }
+
+    @Override
+    public void forEach(Consumer<? super V> action) {
+        Objects.requireNonNull(action);
+        for (Object element : table) {
+            if (element != null) {
+                action.accept(unmask(element));
+            }
+        }
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (next < table.length && table[next] == null) {
+                    next++;
+                }
+                return next < table.length;
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return unmask(table[next++]);
+            }
+        };
+    }
+
+    @Override
+    public boolean add(V v) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends V> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super V> filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,113 @@
+package com.nitorcreations.collections;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded concurrent pool of canonical instances, e.g., for deduplicating the {@code String}
+ * keys of maps built from parsed input. {@link #intern(Object)} returns the pooled instance equal
+ * to the given one, so that equal keys share one instance and the duplicates can be collected.
+ * <p>
+ * Once the pool holds {@code maximumSize} instances, new instances are returned as they are
+ * without pooling them. The counts of the pool tell how many duplicates were replaced.
+ *
+ * @param <T> the type of the pooled instances
+ * @see NMaps#canonicalizing(InternPool)
+ */
+public final class InternPool<T> {
+    private final ConcurrentHashMap<T, T> pool = new ConcurrentHashMap<>();
+    private final int maximumSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /**
+     * @param maximumSize the maximum number of pooled instances
+     */
+    public InternPool(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException(String.format("Maximum size must be positive: %d", maximumSize));
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Return the pooled instance equal to the value, pooling the value if there is none and the
+     * pool is not full.
+     *
+     * @param value the value to canonicalize, may be {@code null}
+     * @return the canonical instance, or the value itself if it is not pooled
+     */
+    public T intern(T value) {
+        if (value == null) {
+            return null;
+        }
+        final T pooled = pool.get(value);
+        if (pooled != null) {
+            hits.increment();
+            return pooled;
+        }
+        if (pool.size() >= maximumSize) {
+            rejections.increment();
+            return value;
+        }
+        final T previous = pool.putIfAbsent(value, value);
+        if (previous != null) {
+            hits.increment();
+            return previous;
+        }
+        misses.increment();
+        return value;
+    }
+
+    /**
+     * @return the number of pooled instances
+     */
+    public int size() {
+        return pool.size();
+    }
+
+    /**
+     * @return the number of times a duplicate was replaced by the pooled instance, i.e., the
+     *         number of instances saved
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of times a new instance was pooled
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of times a new instance was not pooled because the pool was full
+     */
+    public long rejectionCount() {
+        return rejections.sum();
+    }
+
+    /**
+     * @return the ratio of replaced duplicates to all interned values, or {@code 0.0} if nothing
+     *         has been interned
+     */
+    public double hitRate() {
+        final long hitCount = hitCount();
+        final long requestCount = hitCount + missCount() + rejectionCount();
+        return requestCount == 0 ? 0.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * Remove all pooled instances. The counts are kept.
+     */
+    public void clear() {
+        pool.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("InternPool{size=%d, hits=%d, misses=%d, rejections=%d}", size(), hitCount(), missCount(), rejectionCount());
+    }
+}
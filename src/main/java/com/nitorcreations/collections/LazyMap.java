@@ -0,0 +1,116 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static com.nitorcreations.streams.NMappers.entryOf;
+
+/**
+ * A read-only map view of a key set where the value of each key is computed on first access and
+ * memoized. The value of a key is computed at most once, also under concurrent access. Values
+ * are computed outside the locks of the underlying map, so the value function may read other
+ * keys of the same map, e.g., for a memoized recursive definition; reading the key it is
+ * computing throws {@link IllegalStateException}. If the value function throws exception, the
+ * threads waiting for the same key get the same exception and the key is computed again on the
+ * next read.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class LazyMap<K, V> extends AbstractMap<K, V> {
+    private static final Object NULL_KEY = new Object();
+
+    private final Set<K> keys;
+    private final Function<K, V> valueFn;
+    // Keyed by masked keys, as the key set may contain null
+    private final ConcurrentHashMap<Object, Loading<V>> values = new ConcurrentHashMap<>();
+
+    LazyMap(Set<K> keys, Function<K, V> valueFn) {
+        this.keys = Collections.unmodifiableSet(keys);
+        this.valueFn = Objects.requireNonNull(valueFn);
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return keys.contains(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (!keys.contains(key)) {
+            return null;
+        }
+        return valueOf((K) key);
+    }
+
+    private V valueOf(K key) {
+        final Object masked = key == null ? NULL_KEY : key;
+        final Loading<V> loaded = values.get(masked);
+        if (loaded != null) {
+            return loaded.await(key);
+        }
+        final Loading<V> pending = new Loading<>();
+        final Loading<V> other = values.putIfAbsent(masked, pending);
+        if (other != null) {
+            return other.await(key);
+        }
+        try {
+            final V value = Objects.requireNonNull(valueFn.apply(key));
+            pending.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            values.remove(masked, pending);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return keys;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                final Iterator<K> iterator = keys.iterator();
+                return new Iterator<Entry<K, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        final K key = iterator.next();
+                        return entryOf(key, valueOf(key));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.size();
+            }
+        };
+    }
+}
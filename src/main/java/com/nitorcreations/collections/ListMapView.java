@@ -0,0 +1,166 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static com.nitorcreations.streams.NMappers.entryOf;
+
+/**
+ * A read-only map view over aligned lists of keys and values. The only structure built is an
+ * open-addressing index of {@code int}s from keys to list positions, about five bytes per entry,
+ * and {@code get} reads the value from the value list. Entry objects are created only when the
+ * entry set is iterated.
+ * <p>
+ * Lists without random access are copied once. The lists must not be structurally modified
+ * while the view is in use.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class ListMapView<K, V> extends AbstractMap<K, V> {
+    private static final float LOAD_FACTOR = 0.75f;
+    /** Marks a free slot, the slots hold the list index plus one */
+    private static final int FREE = 0;
+
+    private final List<K> keys;
+    private final List<V> values;
+    private final int[] index;
+
+    ListMapView(List<K> keys, List<V> values) {
+        this.keys = randomAccess(keys);
+        this.values = randomAccess(values);
+        this.index = new int[Math.max(1, (int) Math.ceil(this.keys.size() / LOAD_FACTOR))];
+        for (int i = 0; i < this.keys.size(); i++) {
+            final K key = this.keys.get(i);
+            final int slot = slotOf(key);
+            if (index[slot] != FREE) {
+                throw new IllegalStateException(String.format("Duplicate key %s", key));
+            }
+            index[slot] = i + 1;
+        }
+    }
+
+    private static <T> List<T> randomAccess(List<T> list) {
+        return list instanceof RandomAccess ? list : new ArrayList<>(list);
+    }
+
+    /**
+     * @return the slot holding the key, or the free slot where it would be inserted
+     */
+    private int slotOf(Object key) {
+        final int h = Objects.hashCode(key) * 0x9e3779b9;
+        int slot = (int) (((h & 0xffffffffL) * index.length) >>> 32);
+        int position;
+        while ((position = index[slot]) != FREE && !Objects.equals(keys.get(position - 1), key)) {
+            if (++slot == index.length) {
+                slot = 0;
+            }
+        }
+        return slot;
+    }
+
+    private int positionOf(Object key) {
+        return index[slotOf(key)] - 1;
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return positionOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        final int position = positionOf(key);
+        return position < 0 ? null : values.get(position);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        final int position = positionOf(key);
+        return position < 0 ? defaultValue : values.get(position);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.size(); i++) {
+            action.accept(keys.get(i), values.get(i));
+        }
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return Collections.unmodifiableList(keys).iterator();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return keys.size();
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableList(values);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < keys.size();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Entry<K, V> entry = entryOf(keys.get(i), values.get(i));
+                        i++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.size();
+            }
+        };
+    }
+}
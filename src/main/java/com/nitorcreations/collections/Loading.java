@@ -0,0 +1,39 @@
+package com.nitorcreations.collections;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The result of a load in progress, installed as a placeholder so the loader runs outside the
+ * locks of a concurrent map and the other threads getting the same key wait for its result.
+ *
+ * @param <T> the type of the result
+ */
+final class Loading<T> extends CompletableFuture<T> {
+    private final Thread loader = Thread.currentThread();
+
+    /**
+     * Wait for the result, rethrowing the exception of the loader as is.
+     *
+     * @param key the key being loaded
+     * @return the result
+     * @throws IllegalStateException if called by the loading thread itself
+     */
+    T await(Object key) {
+        if (loader == Thread.currentThread() && !isDone()) {
+            throw new IllegalStateException(String.format("Recursive load of key %s", key));
+        }
+        try {
+            return join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.nitorcreations.collections;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.nitorcreations.streams.NMappers.entryOf;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The differences between two maps: the entries added to and removed from the first map, and
+ * the keys whose value changed, with both values.
+ * <p>
+ * A diff created by {@link NMaps#diff(Map, Map)} is a set of live views that compare the maps
+ * as they are read, so reading only the added entries costs nothing for the others. A diff of
+ * two {@link PersistentMap}s is computed from their tries, skipping all structure they share.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @see NMaps#diff(Map, Map)
+ * @see NMaps#parallelDiff(Map, Map)
+ */
+public final class MapDiff<K, V> {
+    /** Marks a key missing from the second map */
+    private static final Object ABSENT = new Object();
+
+    private final Map<K, V> added;
+    private final Map<K, V> removed;
+    private final Map<K, Map.Entry<V, V>> changed;
+
+    private MapDiff(Map<K, V> added, Map<K, V> removed, Map<K, Map.Entry<V, V>> changed) {
+        this.added = added;
+        this.removed = removed;
+        this.changed = changed;
+    }
+
+    static <K, V> MapDiff<K, V> empty() {
+        return new MapDiff<>(Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    static <K, V> MapDiff<K, V> views(Map<K, V> before, Map<K, V> after) {
+        return new MapDiff<>(
+                new FilteredMapView<>(after, (key, value) -> !before.containsKey(key)),
+                new FilteredMapView<>(before, (key, value) -> !after.containsKey(key)),
+                new TransformedMapView<>(
+                        new FilteredMapView<>(before, (key, value) -> {
+                            final V other = after.get(key);
+                            return (other != null || after.containsKey(key)) && !Objects.equals(value, other);
+                        }),
+                        (key, value) -> entryOf(value, after.get(key))));
+    }
+
+    /**
+     * Compare the entries in parallel, collecting only the differences to lists, which unlike
+     * concurrent maps hold {@code null} keys and values, and copy them to the result maps.
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> MapDiff<K, V> parallel(Map<K, V> before, Map<K, V> after) {
+        final List<Map.Entry<Map.Entry<K, V>, Object>> differences = before.entrySet().parallelStream()
+                .map(entry -> {
+                    final V other = after.get(entry.getKey());
+                    final Object value = other != null || after.containsKey(entry.getKey()) ? other : ABSENT;
+                    return Objects.equals(entry.getValue(), value) ? null : entryOf(entryOf(entry.getKey(), entry.getValue()), value);
+                })
+                .filter(Objects::nonNull)
+                .collect(toList());
+        final List<Map.Entry<K, V>> additions = after.entrySet().parallelStream()
+                .filter(entry -> !before.containsKey(entry.getKey()))
+                .map(entry -> entryOf(entry.getKey(), entry.getValue()))
+                .collect(toList());
+        final MapDiff<K, V> diff = new MapDiff<>(new HashMap<>(), new HashMap<>(), new HashMap<>());
+        for (Map.Entry<Map.Entry<K, V>, Object> difference : differences) {
+            final Map.Entry<K, V> entry = difference.getKey();
+            if (difference.getValue() == ABSENT) {
+                diff.remove(entry.getKey(), entry.getValue());
+            } else {
+                diff.change(entry.getKey(), entry.getValue(), (V) difference.getValue());
+            }
+        }
+        additions.forEach(entry -> diff.add(entry.getKey(), entry.getValue()));
+        return diff;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> MapDiff<K, V> structural(PersistentMap<K, V> before, PersistentMap<K, V> after) {
+        final MapDiff<Object, Object> diff = new MapDiff<>(new HashMap<>(), new HashMap<>(), new HashMap<>());
+        PersistentMap.diff(before.root, after.root, 0, diff);
+        return (MapDiff<K, V>) (MapDiff<?, ?>) diff;
+    }
+
+    void add(K key, V value) {
+        added.put(key, value);
+    }
+
+    void remove(K key, V value) {
+        removed.put(key, value);
+    }
+
+    void change(K key, V before, V after) {
+        changed.put(key, entryOf(before, after));
+    }
+
+    /**
+     * @return the entries whose keys are only in the second map
+     */
+    public Map<K, V> added() {
+        return added;
+    }
+
+    /**
+     * @return the entries whose keys are only in the first map
+     */
+    public Map<K, V> removed() {
+        return removed;
+    }
+
+    /**
+     * @return the keys in both maps with different values, mapped to an entry of the value in
+     * the first map and the value in the second map
+     */
+    public Map<K, Map.Entry<V, V>> changed() {
+        return changed;
+    }
+
+    /**
+     * @return {@code true} if the maps have the same entries
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MapDiff{added=%s, removed=%s, changed=%s}", added, removed, changed);
+    }
+}
@@ -0,0 +1,335 @@
+package com.nitorcreations.collections;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.nitorcreations.streams.NMappers.entryOf;
+
+/**
+ * A read-only map served from a memory-mapped snapshot file. Opening the snapshot only maps the
+ * file, and keys and values are decoded on access, so the entries live off-heap and the map is
+ * available without deserializing the file.
+ * <p>
+ * The file starts with a header, followed by an open-addressing hash table of 8-byte slots and
+ * the records. A slot holds the file offset of its record and a 24-bit fragment of the key hash,
+ * so that most probes for other keys are rejected without reading the record. A record holds
+ * the lengths of the encoded key and value, followed by their bytes. The file is mapped in
+ * chunks of 1 GB, and records are padded so that none crosses a chunk boundary.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class MapSnapshot<K, V> extends AbstractMap<K, V> {
+    private static final int MAGIC = 0x4e4d534e;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final int SLOT_BYTES = 8;
+    private static final int FRAGMENT_BITS = 24;
+    private static final float LOAD_FACTOR = 0.75f;
+    static final int DEFAULT_CHUNK_SHIFT = 30;
+    /** A chunk must hold a record header, and a mapped buffer cannot exceed 2 GB */
+    private static final int MIN_CHUNK_SHIFT = 3;
+    private static final int MAX_CHUNK_SHIFT = 30;
+
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final ByteBuffer[] chunks;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final int size;
+    private final int mask;
+
+    private MapSnapshot(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        this.keyCodec = Objects.requireNonNull(keyCodec);
+        this.valueCodec = Objects.requireNonNull(valueCodec);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // read until the header is full or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException(String.format("Not a map snapshot: %s", path));
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException(String.format("Unsupported map snapshot version %d: %s", header.getInt(4), path));
+            }
+            final long entries = header.getLong(8);
+            final long capacity = header.getLong(16);
+            final int shift = header.getInt(24);
+            if (capacity < 4 || capacity > 1 << 30 || Long.bitCount(capacity) != 1
+                    || entries < 0 || entries >= capacity
+                    || shift < MIN_CHUNK_SHIFT || shift > MAX_CHUNK_SHIFT) {
+                throw new IOException(String.format("Not a map snapshot: %s", path));
+            }
+            this.size = (int) entries;
+            this.mask = (int) capacity - 1;
+            this.chunkShift = shift;
+            this.chunkMask = (1L << chunkShift) - 1;
+            if (HEADER_BYTES + (mask + 1L) * SLOT_BYTES > fileSize) {
+                throw new IOException(String.format("Truncated map snapshot: %s", path));
+            }
+            this.chunks = new ByteBuffer[(int) ((fileSize + chunkMask) >>> chunkShift)];
+            for (int i = 0; i < chunks.length; i++) {
+                final long start = (long) i << chunkShift;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(chunkMask + 1, fileSize - start));
+            }
+        }
+    }
+
+    static <K, V> MapSnapshot<K, V> open(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        return new MapSnapshot<>(path, keyCodec, valueCodec);
+    }
+
+    static <K, V> void write(Map<K, V> map, Path path, Codec<K> keyCodec, Codec<V> valueCodec, int chunkShift) throws IOException {
+        if (chunkShift < MIN_CHUNK_SHIFT || chunkShift > MAX_CHUNK_SHIFT) {
+            throw new IllegalArgumentException(String.format("Chunk shift must be between %d and %d: %d", MIN_CHUNK_SHIFT, MAX_CHUNK_SHIFT, chunkShift));
+        }
+        final long chunkSize = 1L << chunkShift;
+        final int capacity = tableCapacity(map.size());
+        final long[] table = new long[capacity];
+        final long dataStart = HEADER_BYTES + (long) capacity * SLOT_BYTES;
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                channel.position(dataStart);
+                final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+                long offset = dataStart;
+                for (Map.Entry<K, V> entry : map.entrySet()) {
+                    final byte[] key = keyCodec.encode(Objects.requireNonNull(entry.getKey()));
+                    final byte[] value = valueCodec.encode(Objects.requireNonNull(entry.getValue()));
+                    final long recordSize = RECORD_HEADER_BYTES + (long) key.length + value.length;
+                    if (recordSize > chunkSize) {
+                        throw new IllegalArgumentException(String.format("Entry of %d bytes does not fit in a chunk: %s", recordSize, entry.getKey()));
+                    }
+                    final long chunkEnd = (offset | (chunkSize - 1)) + 1;
+                    if (offset + recordSize > chunkEnd) {
+                        for (; offset < chunkEnd; offset++) {
+                            out.write(0);
+                        }
+                    }
+                    final long hash = hash(key);
+                    int slot = (int) hash & (capacity - 1);
+                    while (table[slot] != 0) {
+                        slot = (slot + 1) & (capacity - 1);
+                    }
+                    table[slot] = offset << FRAGMENT_BITS | fragment(hash);
+                    out.writeInt(key.length);
+                    out.writeInt(value.length);
+                    out.write(key);
+                    out.write(value);
+                    offset += recordSize;
+                }
+                out.flush();
+
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                        .putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(map.size())
+                        .putLong(capacity)
+                        .putInt(chunkShift);
+                header.clear();
+                writeFully(channel, header, 0);
+                final ByteBuffer slots = ByteBuffer.allocate(1 << 16);
+                long position = HEADER_BYTES;
+                for (long slot : table) {
+                    slots.putLong(slot);
+                    if (!slots.hasRemaining()) {
+                        slots.flip();
+                        position += writeFully(channel, slots, position);
+                        slots.clear();
+                    }
+                }
+                slots.flip();
+                writeFully(channel, slots, position);
+                channel.force(false);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException | Error e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        final int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + length - buffer.remaining());
+        }
+        return length;
+    }
+
+    private static int tableCapacity(int size) {
+        final long needed = Math.max(4L, (long) Math.ceil(size / (double) LOAD_FACTOR));
+        if (needed > 1 << 30) {
+            throw new IllegalArgumentException(String.format("Too many entries for a snapshot: %d", size));
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    /** 64-bit FNV-1a with a final avalanche */
+    private static long hash(byte[] bytes) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static long fragment(long hash) {
+        return hash >>> (Long.SIZE - FRAGMENT_BITS);
+    }
+
+    private long slotAt(int slot) {
+        final long position = HEADER_BYTES + (long) slot * SLOT_BYTES;
+        return chunks[(int) (position >>> chunkShift)].getLong((int) (position & chunkMask));
+    }
+
+    private ByteBuffer chunkOf(long offset) {
+        return chunks[(int) (offset >>> chunkShift)];
+    }
+
+    private ByteBuffer slice(ByteBuffer chunk, int from, int length) {
+        final ByteBuffer view = chunk.duplicate();
+        view.limit(from + length).position(from);
+        return view.slice();
+    }
+
+    /**
+     * @return the file offset of the record of the key, or {@code -1} if absent
+     */
+    @SuppressWarnings("unchecked")
+    private long recordOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        final byte[] encoded;
+        try {
+            encoded = keyCodec.encode((K) key);
+        } catch (ClassCastException e) {
+            return -1;
+        }
+        final long hash = hash(encoded);
+        final long fragment = fragment(hash);
+        int slot = (int) hash & mask;
+        long current;
+        while ((current = slotAt(slot)) != 0) {
+            if ((current & ((1L << FRAGMENT_BITS) - 1)) == fragment) {
+                final long offset = current >>> FRAGMENT_BITS;
+                if (keyEquals(offset, encoded)) {
+                    return offset;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(long offset, byte[] key) {
+        final ByteBuffer chunk = chunkOf(offset);
+        final int position = (int) (offset & chunkMask);
+        if (chunk.getInt(position) != key.length) {
+            return false;
+        }
+        final int from = position + RECORD_HEADER_BYTES;
+        for (int i = 0; i < key.length; i++) {
+            if (chunk.get(from + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private K keyAt(long offset) {
+        final ByteBuffer chunk = chunkOf(offset);
+        final int position = (int) (offset & chunkMask);
+        return keyCodec.decode(slice(chunk, position + RECORD_HEADER_BYTES, chunk.getInt(position)));
+    }
+
+    private V valueAt(long offset) {
+        final ByteBuffer chunk = chunkOf(offset);
+        final int position = (int) (offset & chunkMask);
+        final int keyLength = chunk.getInt(position);
+        return valueCodec.decode(slice(chunk, position + RECORD_HEADER_BYTES + keyLength, chunk.getInt(position + 4)));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return recordOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        final long offset = recordOf(key);
+        return offset < 0 ? null : valueAt(offset);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    private int slot = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (slot <= mask && slotAt(slot) == 0) {
+                            slot++;
+                        }
+                        return slot <= mask;
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final long offset = slotAt(slot++) >>> FRAGMENT_BITS;
+                        return entryOf(keyAt(offset), valueAt(offset));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
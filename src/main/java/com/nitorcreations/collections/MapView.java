@@ -0,0 +1,23 @@
+package com.nitorcreations.collections;
+
+import java.util.Map;
+
+/**
+ * A read-only view of another map that computes its entries on access. Changes to the
+ * underlying map are visible in the view.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @see NMaps#transformValues(Map, java.util.function.BiFunction)
+ * @see NMaps#filterKeys(Map, java.util.function.Predicate)
+ * @see NMaps#filterValues(Map, java.util.function.Predicate)
+ */
+public interface MapView<K, V> extends Map<K, V> {
+    /**
+     * Copy the current entries of the view to a new map, so that repeated reads do not compute
+     * them again. The copy is independent of the underlying map.
+     *
+     * @return a new map with the entries of the view
+     */
+    Map<K, V> materialize();
+}
@@ -0,0 +1,33 @@
+package com.nitorcreations.collections;
+
+/**
+ * A probabilistic set that answers whether an element is definitely absent or possibly present,
+ * in a fraction of the memory of the set itself. Use it to skip expensive lookups of elements
+ * that are not there.
+ *
+ * @param <T> the element type
+ * @see NSets#bloomFilter(Iterable, long, double)
+ * @see NSets#cuckooFilter(Iterable, long)
+ */
+public interface MembershipFilter<T> {
+    /**
+     * @param element the element
+     * @return {@code false} if the element was definitely not added, {@code true} if it may
+     * have been added
+     */
+    boolean mightContain(T element);
+
+    /**
+     * Add the element to the filter.
+     *
+     * @param element the element to add
+     * @return {@code true} if the filter changed
+     */
+    boolean put(T element);
+
+    /**
+     * @return the probability that {@link #mightContain(Object)} returns {@code true} for an
+     * element that was not added, given the elements added so far
+     */
+    double expectedFalsePositiveRate();
+}
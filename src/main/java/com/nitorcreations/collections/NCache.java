@@ -0,0 +1,459 @@
+package com.nitorcreations.collections;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A concurrent loading cache bounded by size and optionally by the time since an entry was
+ * loaded. Implements {@link Function} so it can be passed wherever a value function is expected,
+ * e.g., to {@link NMaps#mapping(java.util.Set, Function)}.
+ * <p>
+ * Entries are evicted by the W-TinyLFU policy: new entries enter a small LRU window, and an
+ * entry leaving the window is admitted to the main segmented LRU only if it has been accessed
+ * more often than the entry it would replace. Access frequencies are approximated by a compact
+ * count-min sketch that is periodically aged. This keeps frequently used entries in the cache
+ * even when a burst of one-off keys passes through it.
+ * <p>
+ * Reads of cached entries are lock-free. The access order is updated under a lock that readers
+ * only try to acquire, so under heavy contention some accesses are not recorded. Loading a key
+ * blocks other threads loading the same key, and the value of a key is loaded at most once per
+ * expiry. The loader runs outside the locks of the underlying map, so it may get other keys from
+ * the same cache; getting the key it is loading throws {@link IllegalStateException}. If the
+ * loader throws exception, the threads waiting for the same key get the same exception.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @see NMaps#caching(Function, int)
+ */
+public final class NCache<K, V> implements Function<K, V> {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int UNLINKED = 3;
+
+    private final Function<K, V> loader;
+    private final int maximumSize;
+    private final long expireAfterWriteNanos;
+    private final LongSupplier ticker;
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final ConcurrentHashMap<K, Loading<Node<K, V>>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // The eviction policy, guarded by policyLock
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessOrder<K, V> window = new AccessOrder<>();
+    private final AccessOrder<K, V> probation = new AccessOrder<>();
+    private final AccessOrder<K, V> protectedSegment = new AccessOrder<>();
+    private final int maximumWindowSize;
+    private final int maximumProtectedSize;
+    private int windowSize;
+    private int protectedSize;
+    private int linkedSize;
+
+    NCache(Function<K, V> loader, int maximumSize, long expireAfterWriteNanos, LongSupplier ticker) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException(String.format("Maximum size must be positive: %d", maximumSize));
+        }
+        if (expireAfterWriteNanos < 0) {
+            throw new IllegalArgumentException(String.format("Expiry must not be negative: %d", expireAfterWriteNanos));
+        }
+        this.loader = Objects.requireNonNull(loader);
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+        this.ticker = ticker;
+        this.data = new ConcurrentHashMap<>();
+        this.sketch = new FrequencySketch(maximumSize);
+        this.maximumWindowSize = Math.max(1, maximumSize / 100);
+        this.maximumProtectedSize = (int) ((maximumSize - maximumWindowSize) * 0.8);
+    }
+
+    /**
+     * Return the cached value of the key, loading it if absent or expired.
+     *
+     * @param key the key
+     * @return the value
+     */
+    public V get(K key) {
+        final long now = now();
+        final Node<K, V> node = data.get(key);
+        if (node != null && !isExpired(node, now)) {
+            hits.increment();
+            afterRead(node);
+            return node.value;
+        }
+        misses.increment();
+        return load(key, now);
+    }
+
+    /**
+     * Same as {@link #get(Object)}.
+     *
+     * @param key the key
+     * @return the value
+     */
+    @Override
+    public V apply(K key) {
+        return get(key);
+    }
+
+    /**
+     * Return the cached value of the key without loading it.
+     *
+     * @param key the key
+     * @return the value or {@code null} if the key is not cached or has expired
+     */
+    public V getIfPresent(K key) {
+        final Node<K, V> node = data.get(key);
+        if (node == null || isExpired(node, now())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        afterRead(node);
+        return node.value;
+    }
+
+    /**
+     * Remove the key from the cache.
+     *
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        final Node<K, V> node = data.remove(key);
+        if (node != null) {
+            policyLock.lock();
+            try {
+                unlink(node);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Remove all keys from the cache.
+     */
+    public void invalidateAll() {
+        data.keySet().forEach(this::invalidate);
+    }
+
+    /**
+     * @return the number of cached entries, including entries that have expired but not yet been
+     *         removed
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * @return the number of times a requested value was found in the cache
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of times a requested value was not found in the cache
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of entries evicted because of the size bound
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the ratio of hits to all requests, or {@code 1.0} if nothing has been requested
+     */
+    public double hitRate() {
+        final long hitCount = hitCount();
+        final long requestCount = hitCount + missCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    private long now() {
+        return expireAfterWriteNanos == 0 ? 0 : ticker.getAsLong();
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return expireAfterWriteNanos != 0 && now - node.loadTime >= expireAfterWriteNanos;
+    }
+
+    private V load(K key, long now) {
+        final Loading<Node<K, V>> pending = new Loading<>();
+        final Loading<Node<K, V>> other = loading.putIfAbsent(key, pending);
+        if (other != null) {
+            return other.await(key).value;
+        }
+        try {
+            // Another thread may have finished loading since the caller missed the key
+            final Node<K, V> current = data.get(key);
+            if (current != null && !isExpired(current, now)) {
+                pending.complete(current);
+                return current.value;
+            }
+            final Node<K, V> node = new Node<>(key, Objects.requireNonNull(loader.apply(key)), now);
+            afterWrite(node, data.put(key, node));
+            pending.complete(node);
+            return node.value;
+        } catch (RuntimeException | Error e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, pending);
+        }
+    }
+
+    private void afterRead(Node<K, V> node) {
+        if (policyLock.tryLock()) {
+            try {
+                sketch.increment(node.key);
+                onAccess(node);
+            } finally {
+                policyLock.unlock();
+            }
+        }
+    }
+
+    private void afterWrite(Node<K, V> node, Node<?, ?> replaced) {
+        policyLock.lock();
+        try {
+            if (replaced != null) {
+                unlink(replaced);
+            }
+            sketch.increment(node.key);
+            if (data.get(node.key) == node) {
+                window.addLast(node);
+                node.segment = WINDOW;
+                windowSize++;
+                linkedSize++;
+                evict();
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.segment) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                protectedSegment.addLast(node);
+                node.segment = PROTECTED;
+                protectedSize++;
+                while (protectedSize > maximumProtectedSize) {
+                    final Node<K, V> demoted = protectedSegment.removeFirst();
+                    protectedSize--;
+                    probation.addLast(demoted);
+                    demoted.segment = PROBATION;
+                }
+                break;
+            case PROTECTED:
+                protectedSegment.moveToLast(node);
+                break;
+            default:
+                // Not yet linked, or already evicted or invalidated
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void unlink(Node<?, ?> removed) {
+        final Node<K, V> node = (Node<K, V>) removed;
+        switch (node.segment) {
+            case WINDOW:
+                window.remove(node);
+                windowSize--;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            case PROTECTED:
+                protectedSegment.remove(node);
+                protectedSize--;
+                break;
+            default:
+                return;
+        }
+        node.segment = UNLINKED;
+        linkedSize--;
+    }
+
+    private void evict() {
+        // Entries leaving the window become candidates at the most recent end of the probation
+        while (windowSize > maximumWindowSize) {
+            final Node<K, V> node = window.removeFirst();
+            windowSize--;
+            probation.addLast(node);
+            node.segment = PROBATION;
+        }
+        while (linkedSize > maximumSize) {
+            final Node<K, V> candidate = probation.last();
+            final Node<K, V> victim = probation.first();
+            if (candidate == null) {
+                evict(protectedSegment.first() != null ? protectedSegment.first() : window.first());
+            } else if (candidate == victim || sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                evict(candidate);
+            } else {
+                evict(victim);
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        unlink(node);
+        if (data.remove(node.key, node)) {
+            evictions.increment();
+        }
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long loadTime;
+        int segment = UNLINKED;
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(K key, V value, long loadTime) {
+            this.key = key;
+            this.value = value;
+            this.loadTime = loadTime;
+        }
+    }
+
+    /** A doubly linked list of nodes from the least to the most recently used */
+    private static final class AccessOrder<K, V> {
+        private Node<K, V> first;
+        private Node<K, V> last;
+
+        Node<K, V> first() {
+            return first;
+        }
+
+        Node<K, V> last() {
+            return last;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        Node<K, V> removeFirst() {
+            final Node<K, V> node = first;
+            remove(node);
+            return node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+        }
+
+        void moveToLast(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * A count-min sketch of four-bit counters, four counters per key. All counters are halved once
+     * the number of increments reaches ten times the maximum size, so old popularity fades.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            final int size = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 29)) - 1) << 1;
+            this.table = new long[size];
+            this.tableMask = size - 1;
+            this.sampleSize = 10 * Math.max(16, maximumSize);
+        }
+
+        int frequency(Object key) {
+            final int hash = spread(key);
+            final int start = (hash & 3) << 2;
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                final int offset = (start + i) << 2;
+                final int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            final int hash = spread(key);
+            final int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                final int index = indexOf(hash, i);
+                final int offset = (start + i) << 2;
+                if (((table[index] >>> offset) & 0xfL) != 0xfL) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions >>>= 1;
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        private static int spread(Object key) {
+            final int h = Objects.hashCode(key) * 0x9e3779b9;
+            return h ^ (h >>> 17);
+        }
+    }
+}
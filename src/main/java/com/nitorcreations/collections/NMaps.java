@@ -1,10 +1,20 @@
 package com.nitorcreations.collections;
 
+import com.nitorcreations.collections.primitive.IntObjectMap;
+import com.nitorcreations.collections.primitive.LongObjectMap;
 import com.nitorcreations.streams.NCollectors;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
 import static com.nitorcreations.streams.NCollectors.entriesToMap;
@@ -28,7 +38,8 @@ public final class NMaps {
 
     /**
      * Create a map with keys mapped to values by the {@code valueFn}. The values are evaluated
-     * eagerly and stored immediately.
+     * eagerly and stored immediately. If the keys are enum constants, the map is an
+     * {@link EnumMap}.
      *
      * @param keys the keys to map
      * @param valueFn the function mapping keys to values
@@ -42,6 +53,396 @@ public final class NMaps {
                 .collect(entriesToMap());
     }
 
+    /**
+     * Create an {@link EnumMap} with all constants of the enum mapped to values by the
+     * {@code valueFn}. The values are evaluated eagerly and stored immediately.
+     *
+     * @param enumType the enum type of the keys
+     * @param valueFn the function mapping keys to values
+     * @param <E> type of key
+     * @param <V> type of values
+     * @return the map
+     */
+    public static <E extends Enum<E>, V> Map<E, V> enumMapping(Class<E> enumType, Function<E, V> valueFn) {
+        final Map<E, V> map = new EnumMap<>(enumType);
+        for (E key : enumType.getEnumConstants()) {
+            map.put(key, Objects.requireNonNull(valueFn.apply(key)));
+        }
+        return map;
+    }
+
+    /**
+     * Create a live view of the map with each value transformed by the {@code transform}. No
+     * entries are copied: the transform runs whenever a value is read, so reading a few keys of
+     * a large map costs only those transforms. Use {@link MapView#materialize()} to copy the
+     * transformed entries when they are read repeatedly.
+     *
+     * @param map the map to view
+     * @param transform the function of key and value to the value of the view
+     * @param <K> type of key
+     * @param <V> type of values of the map
+     * @param <W> type of values of the view
+     * @return the view
+     */
+    public static <K, V, W> MapView<K, W> transformValues(Map<K, V> map, BiFunction<? super K, ? super V, ? extends W> transform) {
+        return new TransformedMapView<>(map, transform);
+    }
+
+    /**
+     * Create a live view of the entries of the map whose keys match the {@code predicate}. No
+     * entries are copied, but note that {@code size()} of the view tests every key.
+     *
+     * @param map the map to view
+     * @param predicate the predicate of the keys to include
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the view
+     */
+    public static <K, V> MapView<K, V> filterKeys(Map<K, V> map, Predicate<? super K> predicate) {
+        Objects.requireNonNull(predicate);
+        return new FilteredMapView<>(map, (key, value) -> predicate.test(key));
+    }
+
+    /**
+     * Create a live view of the entries of the map whose values match the {@code predicate}. No
+     * entries are copied, but note that {@code size()} of the view tests every value.
+     *
+     * @param map the map to view
+     * @param predicate the predicate of the values to include
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the view
+     */
+    public static <K, V> MapView<K, V> filterValues(Map<K, V> map, Predicate<? super V> predicate) {
+        Objects.requireNonNull(predicate);
+        return new FilteredMapView<>(map, (key, value) -> predicate.test(value));
+    }
+
+    /**
+     * Compare two maps. The diff is a set of live views of the added, removed and changed
+     * entries that compare the maps as they are read, so nothing is computed up front. If the
+     * maps are the same instance, the diff is empty, and if both are {@link PersistentMap}s, the
+     * diff is computed from their tries, skipping all structure they share. That makes diffing a
+     * persistent map against an updated version of itself cost only the size of the updates.
+     *
+     * @param before the first map
+     * @param after the second map
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the differences of the maps
+     */
+    public static <K, V> MapDiff<K, V> diff(Map<K, V> before, Map<K, V> after) {
+        Objects.requireNonNull(before);
+        Objects.requireNonNull(after);
+        if (before == after) {
+            return MapDiff.empty();
+        }
+        if (before instanceof PersistentMap && after instanceof PersistentMap) {
+            return MapDiff.structural((PersistentMap<K, V>) before, (PersistentMap<K, V>) after);
+        }
+        return MapDiff.views(before, after);
+    }
+
+    /**
+     * Compare two maps eagerly on the common fork-join pool. Both maps are split across the pool
+     * with parallel streams, and the differences are collected to new maps. Use for large maps
+     * that differ in many entries, see {@link #diff(Map, Map)} otherwise. Like it, supports
+     * {@code null} keys and values.
+     *
+     * @param before the first map
+     * @param after the second map
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the differences of the maps
+     */
+    public static <K, V> MapDiff<K, V> parallelDiff(Map<K, V> before, Map<K, V> after) {
+        Objects.requireNonNull(before);
+        Objects.requireNonNull(after);
+        if (before == after) {
+            return MapDiff.empty();
+        }
+        if (before instanceof PersistentMap && after instanceof PersistentMap) {
+            return MapDiff.structural((PersistentMap<K, V>) before, (PersistentMap<K, V>) after);
+        }
+        return MapDiff.parallel(before, after);
+    }
+
+    /**
+     * Create a map with keys mapped to values by the {@code loader} that maps whole batches of
+     * keys at once. The keys are split into batches of at most {@code batchSize} keys, so the
+     * loader is called {@code ceil(keys.size() / batchSize)} times. Keys the loader leaves out
+     * of its result are absent from the map, and keys it adds that were not in the batch are
+     * ignored.
+     *
+     * @param keys the keys to map
+     * @param loader the function mapping a batch of keys to their values
+     * @param batchSize the maximum number of keys in a batch
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the map
+     */
+    public static <K, V> Map<K, V> mappingBatched(Set<K> keys, Function<Collection<K>, Map<K, V>> loader, int batchSize) {
+        final Map<K, V> result = new HashMap<>(capacityFor(keys.size()));
+        for (List<K> batch : batches(keys, batchSize)) {
+            putBatch(result, batch, loader.apply(batch));
+        }
+        return result;
+    }
+
+    /**
+     * Create a map with keys mapped to values by the {@code loader} that maps whole batches of
+     * keys at once. Same as {@link #mappingBatched(Set, Function, int)}, but the batches are
+     * loaded concurrently on the {@code executor}. As soon as loading any batch fails, the
+     * batches still pending are cancelled and the exception is rethrown.
+     *
+     * @param keys the keys to map
+     * @param loader the function mapping a batch of keys to their values
+     * @param batchSize the maximum number of keys in a batch
+     * @param executor the executor to load the batches on
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the map
+     */
+    public static <K, V> Map<K, V> mappingBatched(Set<K> keys, Function<Collection<K>, Map<K, V>> loader, int batchSize, Executor executor) {
+        final List<List<K>> batches = batches(keys, batchSize);
+        final List<CompletableFuture<Map<K, V>>> futures = new ArrayList<>(batches.size());
+        for (List<K> batch : batches) {
+            futures.add(CompletableFuture.supplyAsync(() -> loader.apply(batch), executor));
+        }
+        final CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+        // fail on the first failed batch instead of waiting for the batches before it
+        futures.forEach(future -> future.whenComplete((values, e) -> {
+            if (e != null) {
+                all.completeExceptionally(e);
+            }
+        }));
+        try {
+            all.join();
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e;
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+        final Map<K, V> result = new HashMap<>(capacityFor(keys.size()));
+        for (int i = 0; i < batches.size(); i++) {
+            putBatch(result, batches.get(i), futures.get(i).join());
+        }
+        return result;
+    }
+
+    /**
+     * Copy the values of the batch of keys, ignoring any other keys the loader returned.
+     */
+    private static <K, V> void putBatch(Map<K, V> result, List<K> batch, Map<K, V> values) {
+        for (K key : batch) {
+            final V value = values.get(key);
+            if (value != null || values.containsKey(key)) {
+                result.put(key, value);
+            }
+        }
+    }
+
+    /**
+     * Map keys to values with an asynchronous value function without blocking the caller. At
+     * most {@code maxInFlight} calls to {@code valueFn} are in flight at a time, and a new call is
+     * started whenever a previous one completes.
+     * <p>
+     * The returned future completes with the map once all values are available. It completes
+     * exceptionally on the first failure, in which case the calls in flight are cancelled and no
+     * further calls are started. Cancelling the returned future cancels the calls in flight.
+     *
+     * @param keys the keys to map
+     * @param valueFn the function mapping keys to future values
+     * @param maxInFlight the maximum number of calls in flight
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the future map
+     */
+    public static <K, V> CompletableFuture<Map<K, V>> mappingAsync(Set<K> keys, Function<K, CompletableFuture<V>> valueFn, int maxInFlight) {
+        return AsyncMapping.start(keys, valueFn, maxInFlight);
+    }
+
+    /**
+     * Map keys to values with a blocking value function without blocking the caller. The values
+     * are evaluated on virtual threads when running on a JDK that supports them, and on a shared
+     * pool of daemon threads otherwise. See {@link #mappingAsync(Set, Function, int)}.
+     *
+     * @param keys the keys to map
+     * @param valueFn the function mapping keys to values
+     * @param maxInFlight the maximum number of values evaluated at a time
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the future map
+     */
+    public static <K, V> CompletableFuture<Map<K, V>> mappingAsyncBlocking(Set<K> keys, Function<K, V> valueFn, int maxInFlight) {
+        return mappingAsyncBlocking(keys, valueFn, maxInFlight, AsyncMapping.BlockingExecutor.INSTANCE);
+    }
+
+    /**
+     * Map keys to values with a blocking value function evaluated on the {@code executor}. See
+     * {@link #mappingAsync(Set, Function, int)}.
+     *
+     * @param keys the keys to map
+     * @param valueFn the function mapping keys to values
+     * @param maxInFlight the maximum number of values evaluated at a time
+     * @param executor the executor to evaluate the values on
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the future map
+     */
+    public static <K, V> CompletableFuture<Map<K, V>> mappingAsyncBlocking(Set<K> keys, Function<K, V> valueFn, int maxInFlight, Executor executor) {
+        return mappingAsync(keys, key -> CompletableFuture.supplyAsync(() -> valueFn.apply(key), executor), maxInFlight);
+    }
+
+    private static <K> List<List<K>> batches(Collection<K> keys, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException(String.format("Batch size must be positive: %d", batchSize));
+        }
+        final List<List<K>> batches = new ArrayList<>((keys.size() + batchSize - 1) / batchSize);
+        List<K> batch = null;
+        for (K key : keys) {
+            if (batch == null || batch.size() == batchSize) {
+                batch = new ArrayList<>(Math.min(batchSize, keys.size()));
+                batches.add(batch);
+            }
+            batch.add(key);
+        }
+        return batches;
+    }
+
+    /**
+     * @param expectedSize the expected number of entries
+     * @return a capacity for a {@link HashMap} or {@link HashSet} that holds {@code expectedSize}
+     *         entries without resizing
+     */
+    static int capacityFor(int expectedSize) {
+        return expectedSize < 3 ? expectedSize + 1 : (int) (expectedSize / 0.75f + 1.0f);
+    }
+
+    /**
+     * Create a read-only map view with keys mapped to values by the {@code valueFn}. Unlike
+     * {@link #mapping(Set, Function)}, the value of a key is evaluated on its first access and
+     * memoized, so keys that are never read cost nothing. {@code size()} and
+     * {@code containsKey(Object)} are answered by the key set without evaluating any values.
+     * <p>
+     * The map is thread-safe and evaluates the value of each key at most once. The key set is
+     * not copied, so it must not be modified while the map is in use.
+     *
+     * @param keys the keys to map
+     * @param valueFn the function mapping keys to values
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the map
+     */
+    public static <K, V> Map<K, V> lazyMapping(Set<K> keys, Function<K, V> valueFn) {
+        return new LazyMap<>(keys, valueFn);
+    }
+
+    /**
+     * Create factories of maps whose keys are replaced by their canonical instances in the
+     * {@code pool} before insertion, e.g., to deduplicate the keys of maps built from parsed
+     * input. The same pool can be shared by many maps.
+     *
+     * @param pool the pool of canonical keys
+     * @param <K> type of key
+     * @return the canonicalizing factories
+     */
+    public static <K> CanonicalizingMaps<K> canonicalizing(InternPool<K> pool) {
+        return new CanonicalizingMaps<>(pool);
+    }
+
+    /**
+     * Create a size-bounded loading cache of the values of {@code valueFn}. The cache is itself a
+     * {@link Function}, so it can be used in place of {@code valueFn}, e.g., with
+     * {@link #mapping(Set, Function)}.
+     *
+     * @param valueFn the function mapping keys to values
+     * @param maximumSize the maximum number of cached values
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the cache
+     * @see NCache
+     */
+    public static <K, V> NCache<K, V> caching(Function<K, V> valueFn, int maximumSize) {
+        return new NCache<>(valueFn, maximumSize, 0, System::nanoTime);
+    }
+
+    /**
+     * Create a size- and time-bounded loading cache of the values of {@code valueFn}. A cached
+     * value is reloaded when it is requested after {@code expireAfterWrite} has passed since it
+     * was loaded.
+     *
+     * @param valueFn the function mapping keys to values
+     * @param maximumSize the maximum number of cached values
+     * @param expireAfterWrite the time after which a cached value is reloaded
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the cache
+     * @see NCache
+     */
+    public static <K, V> NCache<K, V> caching(Function<K, V> valueFn, int maximumSize, Duration expireAfterWrite) {
+        if (expireAfterWrite.isZero() || expireAfterWrite.isNegative()) {
+            throw new IllegalArgumentException(String.format("Expiry must be positive: %s", expireAfterWrite));
+        }
+        return new NCache<>(valueFn, maximumSize, expireAfterWrite.toNanos(), System::nanoTime);
+    }
+
+    /**
+     * Create an expiring map of the keys to the values of {@code valueFn}, like
+     * {@link #mapping(Set, Function)}, whose entries expire {@code timeToLive} after they were
+     * written. An entry is reloaded with {@code valueFn} on the blocking executor of
+     * {@link #mappingAsyncBlocking(Set, Function, int)} when it is read or cleaned up during the
+     * last {@code refreshAhead} of its life, so the values stay fresh without rebuilding the map.
+     *
+     * @param keys the keys to load initially
+     * @param valueFn the function mapping keys to values
+     * @param timeToLive the time after which an entry expires
+     * @param refreshAhead the time before expiry from which an entry is refreshed, or zero to
+     *                     disable refreshing
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the expiring map
+     * @see ExpiringMap
+     */
+    public static <K, V> ExpiringMap<K, V> expiringMapping(Set<K> keys, Function<K, V> valueFn, Duration timeToLive, Duration refreshAhead) {
+        return expiringMapping(keys, valueFn, timeToLive, refreshAhead, AsyncMapping.BlockingExecutor.INSTANCE);
+    }
+
+    /**
+     * Create an expiring map of the keys to the values of {@code valueFn}, refreshing entries on
+     * the given executor. See {@link #expiringMapping(Set, Function, Duration, Duration)}.
+     *
+     * @param keys the keys to load initially
+     * @param valueFn the function mapping keys to values
+     * @param timeToLive the time after which an entry expires
+     * @param refreshAhead the time before expiry from which an entry is refreshed, or zero to
+     *                     disable refreshing
+     * @param executor the executor running the refreshes
+     * @param <K> type of key
+     * @param <V> type of values
+     * @return the expiring map
+     */
+    public static <K, V> ExpiringMap<K, V> expiringMapping(Set<K> keys, Function<K, V> valueFn, Duration timeToLive, Duration refreshAhead, Executor executor) {
+        if (timeToLive.isZero() || timeToLive.isNegative()) {
+            throw new IllegalArgumentException(String.format("Time to live must be positive: %s", timeToLive));
+        }
+        if (refreshAhead.isNegative() || refreshAhead.compareTo(timeToLive) >= 0) {
+            throw new IllegalArgumentException(String.format("Refresh ahead must be between zero and the time to live: %s", refreshAhead));
+        }
+        final ExpiringMap<K, V> map = new ExpiringMap<>(valueFn, timeToLive.toNanos(), refreshAhead.toNanos(), executor, System::nanoTime);
+        keys.forEach(key -> map.put(key, valueFn.apply(key)));
+        return map;
+    }
+
     /**
      * Create a map of the list of keys and list of values. Values are associated by the index
      * in the list.
@@ -55,14 +456,175 @@ public final class NMaps {
      * @return the map containing the entries
      */
     public static <K,V> Map<K, V> mapOfLists(List<K> keys, List<V> values) {
-        if (keys.size() != values.size()) {
-            throw new IllegalArgumentException(String.format("Keys and values sizes differ: %d != %d", keys.size(), values.size()));
-        }
+        checkSizes(keys.size(), values.size());
         return IntStream.range(0, keys.size())
                 .mapToObj(i -> entryOf(keys.get(i), values.get(i)))
                 .collect(entriesToMap());
     }
 
+    /**
+     * Create a read-only map view of the list of keys and list of values. Values are associated
+     * by the index in the list. Unlike {@link #mapOfLists(List, List)}, no entries are copied:
+     * only an index from keys to list positions is built, and values are read from the value
+     * list on access.
+     * <p>
+     * Will throw exception if sizes differ, either one is {@code null} or on duplicate keys. The
+     * lists must not be structurally modified while the view is in use.
+     *
+     * @param keys the keys of the map
+     * @param values the values of the map
+     * @param <K> type of keys
+     * @param <V> type of values
+     * @return the map view
+     */
+    public static <K,V> Map<K, V> mapViewOfLists(List<K> keys, List<V> values) {
+        checkSizes(keys.size(), values.size());
+        return new ListMapView<>(keys, values);
+    }
+
+    /**
+     * Create an immutable navigable map of the list of keys in ascending order and list of
+     * values. Values are associated by the index in the list. The entries are kept in flat arrays
+     * and looked up by binary search, and sub maps share the arrays. The order of the keys is
+     * verified in a single pass while copying.
+     * <p>
+     * Will throw exception if sizes differ, either one is {@code null} or contains
+     * {@code null}, on duplicate keys or if the keys are not in ascending order.
+     *
+     * @param keys the keys of the map in ascending order
+     * @param values the values of the map
+     * @param <K> type of keys
+     * @param <V> type of values
+     * @return the map containing the entries
+     */
+    public static <K extends Comparable<? super K>,V> NavigableMap<K, V> sortedMapOfLists(List<K> keys, List<V> values) {
+        checkSizes(keys.size(), values.size());
+        return SortedArrayMap.ofSorted(keys, values, null);
+    }
+
+    /**
+     * Create an immutable navigable map of the list of keys in the order of the
+     * {@code comparator} and list of values. Same as {@link #sortedMapOfLists(List, List)}, but
+     * with the given ordering.
+     *
+     * @param keys the keys of the map in ascending order
+     * @param values the values of the map
+     * @param comparator the ordering of the keys
+     * @param <K> type of keys
+     * @param <V> type of values
+     * @return the map containing the entries
+     */
+    public static <K,V> NavigableMap<K, V> sortedMapOfLists(List<K> keys, List<V> values, Comparator<? super K> comparator) {
+        checkSizes(keys.size(), values.size());
+        return SortedArrayMap.ofSorted(keys, values, Objects.requireNonNull(comparator));
+    }
+
+    /**
+     * Create a map of the array of {@code int} keys and list of values. Values are associated
+     * by the index. The keys are not boxed, see {@link IntObjectMap}.
+     * <p>
+     * Will throw exception if sizes differ, either one is {@code null} or on duplicate keys.
+     *
+     * @param keys the keys of the map
+     * @param values the values of the map
+     * @param <V> type of values
+     * @return the map containing the entries
+     */
+    public static <V> IntObjectMap<V> mapOfIntKeys(int[] keys, List<V> values) {
+        checkSizes(keys.length, values.size());
+        final IntObjectMap<V> map = new IntObjectMap<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            if (map.containsKey(keys[i])) {
+                throw new IllegalStateException(String.format("Duplicate key %d", keys[i]));
+            }
+            map.put(keys[i], values.get(i));
+        }
+        return map;
+    }
+
+    /**
+     * Create a map of the array of {@code long} keys and list of values. Values are associated
+     * by the index. The keys are not boxed, see {@link LongObjectMap}.
+     * <p>
+     * Will throw exception if sizes differ, either one is {@code null} or on duplicate keys.
+     *
+     * @param keys the keys of the map
+     * @param values the values of the map
+     * @param <V> type of values
+     * @return the map containing the entries
+     */
+    public static <V> LongObjectMap<V> mapOfLongKeys(long[] keys, List<V> values) {
+        checkSizes(keys.length, values.size());
+        final LongObjectMap<V> map = new LongObjectMap<>(keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            if (map.containsKey(keys[i])) {
+                throw new IllegalStateException(String.format("Duplicate key %d", keys[i]));
+            }
+            map.put(keys[i], values.get(i));
+        }
+        return map;
+    }
+
+    /**
+     * Create an immutable copy of the map for read-only lookups, e.g., a table built once at
+     * startup. The keys are placed by a minimal perfect hash function, so that a lookup is one
+     * hash, one slot read and one {@code equals}, see {@link FrozenMap}.
+     * <p>
+     * Will throw exception on {@code null} keys or values.
+     *
+     * @param map the map to copy
+     * @param <K> type of keys
+     * @param <V> type of values
+     * @return the frozen map
+     */
+    public static <K,V> FrozenMap<K, V> freeze(Map<K, V> map) {
+        return new FrozenMap<>(map);
+    }
+
+    /**
+     * Write the map to a snapshot file that can be opened with
+     * {@link #mapSnapshot(Path, Codec, Codec)}. The snapshot is a hash table of the encoded keys
+     * and values. It is written to a temporary file first and then moved in place, so readers
+     * never see a partial snapshot.
+     * <p>
+     * Will throw exception on {@code null} keys or values.
+     *
+     * @param map the map to write
+     * @param path the path of the snapshot file
+     * @param keyCodec the codec of the keys
+     * @param valueCodec the codec of the values
+     * @param <K> type of keys
+     * @param <V> type of values
+     * @throws IOException if writing the file fails
+     */
+    public static <K,V> void writeSnapshot(Map<K, V> map, Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        MapSnapshot.write(map, path, keyCodec, valueCodec, MapSnapshot.DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * Open a snapshot written by {@link #writeSnapshot(Map, Path, Codec, Codec)} as a read-only
+     * map. The file is memory-mapped and keys and values are decoded on access, so opening takes
+     * the same time regardless of the size of the snapshot, and the entries live off-heap. Keys
+     * are looked up by their encoded bytes.
+     *
+     * @param path the path of the snapshot file
+     * @param keyCodec the codec of the keys
+     * @param valueCodec the codec of the values
+     * @param <K> type of keys
+     * @param <V> type of values
+     * @return the map backed by the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static <K,V> Map<K, V> mapSnapshot(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        return MapSnapshot.open(path, keyCodec, valueCodec);
+    }
+
+    static void checkSizes(int keyCount, int valueCount) {
+        if (keyCount != valueCount) {
+            throw new IllegalArgumentException(String.format("Keys and values sizes differ: %d != %d", keyCount, valueCount));
+        }
+    }
+
     /**
      * Combine multiple maps to a single one. Will throw exception on duplicate keys.
      * If duplicate values are expected, use {@link #combine(BinaryOperator, Map[])}
@@ -107,7 +669,100 @@ public final class NMaps {
     }
 
     /**
-     * Create a map with the given values
+     * Combine multiple maps to a single persistent map. Will throw exception on duplicate keys.
+     * <p>
+     * If one of the maps is a {@link PersistentMap}, the largest such map is used as the base and
+     * only the entries of the other maps are added to it. Combining a large persistent base with
+     * small overlays costs {@code O(m log n)} for {@code m} overlay entries and shares all
+     * untouched structure with the base.
+     *
+     * @param maps the maps to combine
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the resulting combined map
+     * @see #combine(Map[])
+     */
+    @SafeVarargs
+    public static <K,V> PersistentMap<K, V> persistentCombine(Map<K, V>... maps) {
+        return persistentCombine(PersistentMap.<V>throwOnDuplicateKey(), maps);
+    }
+
+    /**
+     * Combine multiple maps to a single persistent map. Uses {@code mergeFn} to cope with
+     * duplicate keys. Values are merged in the order of the maps, as in
+     * {@link #combine(BinaryOperator, Map[])}.
+     *
+     * @param mergeFn the function to combine values on duplicate keys
+     * @param maps the maps to combine
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the resulting combined map
+     * @see #persistentCombine(Map[])
+     */
+    @SafeVarargs
+    public static <K,V> PersistentMap<K, V> persistentCombine(BinaryOperator<V> mergeFn, Map<K, V>... maps) {
+        int base = -1;
+        for (int i = 0; i < maps.length; i++) {
+            if (maps[i] instanceof PersistentMap && (base < 0 || maps[i].size() > maps[base].size())) {
+                base = i;
+            }
+        }
+        PersistentMap<K, V> result = base < 0 ? PersistentMap.empty() : (PersistentMap<K, V>) maps[base];
+        // Entries of the maps preceding the base were encountered first, so they are folded
+        // separately and merged in front of the values of the base
+        PersistentMap<K, V> preceding = PersistentMap.empty();
+        for (int i = 0; i < base; i++) {
+            preceding = preceding.plusAll(maps[i], mergeFn);
+        }
+        if (!preceding.isEmpty()) {
+            final BinaryOperator<V> precedingFirst = mergeFn == PersistentMap.<V>throwOnDuplicateKey()
+                    ? mergeFn : (existing, value) -> mergeFn.apply(value, existing);
+            result = result.plusAll(preceding, precedingFirst);
+        }
+        for (int i = base + 1; i < maps.length; i++) {
+            result = result.plusAll(maps[i], mergeFn);
+        }
+        return result;
+    }
+
+    /**
+     * Combine multiple maps to a single persistent map. Uses the first encountered value as the
+     * value on duplicate keys.
+     *
+     * @param maps the maps to combine
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the resulting combined map
+     * @see #persistentCombine(Map[])
+     */
+    @SafeVarargs
+    public static <K,V> PersistentMap<K, V> persistentCombineAndSkip(Map<K, V>... maps) {
+        return persistentCombine((V v1, V v2) -> v1, maps);
+    }
+
+    /**
+     * Combine multiple maps into a {@link SnapshotMap} holding the combined entries, for
+     * publishing them to many reading threads. Uses {@code mergeFn} to cope with duplicate keys,
+     * both when combining the maps and when merging later changes with
+     * {@link SnapshotMap#merge(Map)}.
+     *
+     * @param mergeFn the function to combine values on duplicate keys
+     * @param maps the maps to combine
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the snapshot map
+     * @see #persistentCombine(BinaryOperator, Map[])
+     */
+    @SafeVarargs
+    public static <K,V> SnapshotMap<K, V> snapshotMap(BinaryOperator<V> mergeFn, Map<K, V>... maps) {
+        return new SnapshotMap<>(persistentCombine(mergeFn, maps), mergeFn);
+    }
+
+
+    /**
+     * Create an immutable map with the given values. The map stores its entries in a flat array
+     * without hashing, which suits the small sizes supported by the {@code mapOf} methods.
+     * Will throw exception on duplicate keys.
      * @param k1 key
      * @param v1 value
      * @param <K> type of key
@@ -115,11 +770,11 @@ public final class NMaps {
      * @return the map
      */
     public static <K, V> Map<K, V> mapOf(K k1, V v1) {
-        return mapOfEntries(entryOf(k1, v1));
+        return new SmallImmutableMap<>(k1, v1);
     }
 
     /**
-     * Create a map with the given values
+     * Create an immutable map with the given values. Will throw exception on duplicate keys.
      * @param k1 key
      * @param v1 value
      * @param k2 key
@@ -129,10 +784,7 @@ public final class NMaps {
      * @return the map
      */
     public static <K, V> Map<K, V> mapOf(K k1, V v1, K k2, V v2) {
-        return combine(
-                mapOf(k1, v1),
-                mapOf(k2, v2)
-        );
+        return new SmallImmutableMap<>(k1, v1, k2, v2);
     }
 
     /**
@@ -148,11 +800,7 @@ public final class NMaps {
      * @return a map with the values
      */
     public static <K, V> Map<K, V> mapOf(K k1, V v1, K k2, V v2, K k3, V v3) {
-        return combine(
-                mapOf(k1, v1),
-                mapOf(k2, v2),
-                mapOf(k3, v3)
-        );
+        return new SmallImmutableMap<>(k1, v1, k2, v2, k3, v3);
     }
 
     /**
@@ -170,12 +818,7 @@ public final class NMaps {
      * @return a map with the values
      */
     public static <K, V> Map<K, V> mapOf(K k1, V v1, K k2, V v2, K k3, V v3, K k4, V v4) {
-        return combine(
-                mapOf(k1, v1),
-                mapOf(k2, v2),
-                mapOf(k3, v3),
-                mapOf(k4, v4)
-        );
+        return new SmallImmutableMap<>(k1, v1, k2, v2, k3, v3, k4, v4);
     }
 
     /**
@@ -195,13 +838,7 @@ public final class NMaps {
      * @return a map with the values
      */
     public static <K, V> Map<K, V> mapOf(K k1, V v1, K k2, V v2, K k3, V v3, K k4, V v4, K k5, V v5) {
-        return combine(
-                mapOf(k1, v1),
-                mapOf(k2, v2),
-                mapOf(k3, v3),
-                mapOf(k4, v4),
-                mapOf(k5, v5)
-        );
+        return new SmallImmutableMap<>(k1, v1, k2, v2, k3, v3, k4, v4, k5, v5);
     }
 
     /**
@@ -223,14 +860,7 @@ public final class NMaps {
      * @return a map with the values
      */
     public static <K, V> Map<K, V> mapOf(K k1, V v1, K k2, V v2, K k3, V v3, K k4, V v4, K k5, V v5, K k6, V v6) {
-        return combine(
-                mapOf(k1, v1),
-                mapOf(k2, v2),
-                mapOf(k3, v3),
-                mapOf(k4, v4),
-                mapOf(k5, v5),
-                mapOf(k6, v6)
-        );
+        return new SmallImmutableMap<>(k1, v1, k2, v2, k3, v3, k4, v4, k5, v5, k6, v6);
     }
 
     /**
@@ -254,15 +884,7 @@ public final class NMaps {
      * @return a map with the values
      */
     public static <K, V> Map<K, V> mapOf(K k1, V v1, K k2, V v2, K k3, V v3, K k4, V v4, K k5, V v5, K k6, V v6, K k7, V v7) {
-        return combine(
-                mapOf(k1, v1),
-                mapOf(k2, v2),
-                mapOf(k3, v3),
-                mapOf(k4, v4),
-                mapOf(k5, v5),
-                mapOf(k6, v6),
-                mapOf(k7, v7)
-        );
+        return new SmallImmutableMap<>(k1, v1, k2, v2, k3, v3, k4, v4, k5, v5, k6, v6, k7, v7);
     }
 
     /**
@@ -288,16 +910,7 @@ public final class NMaps {
      * @return a map with the values
      */
     public static <K, V> Map<K, V> mapOf(K k1, V v1, K k2, V v2, K k3, V v3, K k4, V v4, K k5, V v5, K k6, V v6, K k7, V v7, K k8, V v8) {
-        return combine(
-                mapOf(k1, v1),
-                mapOf(k2, v2),
-                mapOf(k3, v3),
-                mapOf(k4, v4),
-                mapOf(k5, v5),
-                mapOf(k6, v6),
-                mapOf(k7, v7),
-                mapOf(k8, v8)
-        );
+        return new SmallImmutableMap<>(k1, v1, k2, v2, k3, v3, k4, v4, k5, v5, k6, v6, k7, v7, k8, v8);
     }
 
     /**
@@ -325,17 +938,7 @@ public final class NMaps {
      * @return a map with the values
      */
     public static <K, V> Map<K, V> mapOf(K k1, V v1, K k2, V v2, K k3, V v3, K k4, V v4, K k5, V v5, K k6, V v6, K k7, V v7, K k8, V v8, K k9, V v9) {
-        return combine(
-                mapOf(k1, v1),
-                mapOf(k2, v2),
-                mapOf(k3, v3),
-                mapOf(k4, v4),
-                mapOf(k5, v5),
-                mapOf(k6, v6),
-                mapOf(k7, v7),
-                mapOf(k8, v8),
-                mapOf(k9, v9)
-        );
+        return new SmallImmutableMap<>(k1, v1, k2, v2, k3, v3, k4, v4, k5, v5, k6, v6, k7, v7, k8, v8, k9, v9);
     }
 
     /**
@@ -365,17 +968,6 @@ public final class NMaps {
      * @return a map with the values
      */
     public static <K, V> Map<K, V> mapOf(K k1, V v1, K k2, V v2, K k3, V v3, K k4, V v4, K k5, V v5, K k6, V v6, K k7, V v7, K k8, V v8, K k9, V v9, K k10, V v10) {
-        return combine(
-                mapOf(k1, v1),
-                mapOf(k2, v2),
-                mapOf(k3, v3),
-                mapOf(k4, v4),
-                mapOf(k5, v5),
-                mapOf(k6, v6),
-                mapOf(k7, v7),
-                mapOf(k8, v8),
-                mapOf(k9, v9),
-                mapOf(k10, v10)
-        );
+        return new SmallImmutableMap<>(k1, v1, k2, v2, k3, v3, k4, v4, k5, v5, k6, v6, k7, v7, k8, v8, k9, v9, k10, v10);
     }
 }
@@ -1,20 +1,43 @@
 package com.nitorcreations.collections;
 
-import com.nitorcreations.streams.NStreams;
+import com.nitorcreations.collections.primitive.IntBitmap;
+import com.nitorcreations.collections.primitive.IntHashSet;
+import com.nitorcreations.collections.primitive.LongHashSet;
+import com.nitorcreations.collections.primitive.SortedLongArraySet;
 
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 import static java.util.Arrays.asList;
-import static java.util.stream.Collectors.toSet;
 
 public final class NSets {
 
     private NSets() { /** prevent instantiation */}
 
     /**
-     * Create a new {@link HashSet} with the given values
+     * Create an immutable set with the given values, or an {@link EnumSet} if the values are
+     * enum constants. Small sets are stored compactly: up to eight values in an array that is
+     * scanned linearly, and more in a single open-addressing table. Use
+     * {@link #mutableSetOf(Object[])} for a set that can be modified.
      *
      * @param values the values to add to the set.
      * @param <V> the type of the element
@@ -22,18 +45,68 @@ public final class NSets {
      */
     @SafeVarargs
     public static <V> Set<V> asSet(V... values) {
-        return new HashSet<>(asList(values));
+        if (values.length == 0) {
+            return Collections.emptySet();
+        }
+        if (values[0] instanceof Enum) {
+            final Set<V> set = asSet(asList(values));
+            if (set instanceof EnumSet) {
+                return set;
+            }
+        }
+        if (values.length == 1) {
+            return Collections.singleton(values[0]);
+        }
+        return values.length <= SmallImmutableSet.MAX_SIZE ? SmallImmutableSet.of(values) : ImmutableHashSet.of(values);
+    }
+
+    /**
+     * Create a new {@link HashSet} with the given values
+     *
+     * @param values the values to add to the set.
+     * @param <V> the type of the element
+     * @return the set containing the values
+     */
+    @SafeVarargs
+    public static <V> Set<V> mutableSetOf(V... values) {
+        final Set<V> set = new HashSet<>(NMaps.capacityFor(values.length));
+        Collections.addAll(set, values);
+        return set;
     }
 
     /**
-     * Create a new set with the values of the given iterable
+     * Create a new set with the values of the given iterable. The set is an {@link EnumSet} if
+     * the values are enum constants. Collections are copied to a set presized for their size,
+     * with their own {@code forEach}, and enum sets are cloned.
      *
      * @param values the values to add to the set.
      * @param <V> the type of the element
      * @return the set containing the values
      */
+    @SuppressWarnings("unchecked")
     public static <V> Set<V> asSet(Iterable<V> values) {
-        return NStreams.asStream(values).collect(toSet());
+        if (values instanceof EnumSet) {
+            return (Set<V>) ((EnumSet<?>) values).clone();
+        }
+        final SetBuilder<V> builder = new SetBuilder<>(sizeOf(values));
+        values.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Create a new set with the values of the given iterable replaced by their canonical
+     * instances in the {@code pool}
+     *
+     * @param values the values to add to the set.
+     * @param pool the pool of canonical values
+     * @param <V> the type of the element
+     * @return the set containing the values
+     */
+    public static <V> Set<V> asSet(Iterable<V> values, InternPool<V> pool) {
+        Objects.requireNonNull(pool);
+        final SetBuilder<V> builder = new SetBuilder<>(sizeOf(values));
+        values.forEach(value -> builder.add(pool.intern(value)));
+        return builder.build();
     }
 
     /**
@@ -44,6 +117,343 @@ public final class NSets {
      * @return the set containing the values
      */
     public static <V> Set<V> asSet(Iterator<V> iterator) {
-        return asSet(() -> iterator);
+        return asSet(iterator, 0);
+    }
+
+    /**
+     * Create a new set with the values of the given iterator, presized for the
+     * {@code expectedSize} so that it is not resized while filled.
+     *
+     * @param iterator the values to add to the set.
+     * @param expectedSize the expected number of distinct values
+     * @param <V> the type of the element
+     * @return the set containing the values
+     */
+    public static <V> Set<V> asSet(Iterator<V> iterator, int expectedSize) {
+        final SetBuilder<V> builder = new SetBuilder<>(expectedSize);
+        iterator.forEachRemaining(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Create a new concurrent set with the values of the given iterable, filled on the common
+     * fork-join pool. The threads add the values directly to one presized set, so there are no
+     * partial sets to merge. Use for large iterables with cheap iterators, see
+     * {@link #asSet(Iterable)} otherwise.
+     * <p>
+     * Will throw exception on {@code null} values.
+     *
+     * @param values the values to add to the set.
+     * @param <V> the type of the element
+     * @return the set containing the values
+     */
+    public static <V> Set<V> asConcurrentSet(Iterable<V> values) {
+        final Set<V> set = ConcurrentHashMap.newKeySet(sizeOf(values));
+        StreamSupport.stream(values.spliterator(), true).forEach(set::add);
+        return set;
+    }
+
+    private static int sizeOf(Iterable<?> values) {
+        return values instanceof Collection ? ((Collection<?>) values).size() : 0;
+    }
+
+    /**
+     * Create an immutable navigable set of the values in one sorted array, which takes a single
+     * reference per value, a fraction of a {@code TreeSet} or {@code HashSet}. Lookups and range
+     * queries are binary searches, sub sets share the array, and
+     * {@link #intersection(Set, Set)} of two such sets gallops through both arrays.
+     * <p>
+     * Will throw exception on {@code null} values.
+     *
+     * @param values the values to add to the set.
+     * @param <V> the type of the element
+     * @return the set containing the values
+     */
+    public static <V extends Comparable<? super V>> NavigableSet<V> sortedArraySet(Collection<V> values) {
+        return SortedArraySet.of(values, null);
+    }
+
+    /**
+     * Create an immutable navigable set of the values in one sorted array. Same as
+     * {@link #sortedArraySet(Collection)}, but with the given ordering.
+     *
+     * @param values the values to add to the set.
+     * @param comparator the ordering of the values
+     * @param <V> the type of the element
+     * @return the set containing the values
+     */
+    public static <V> NavigableSet<V> sortedArraySet(Collection<V> values, Comparator<? super V> comparator) {
+        return SortedArraySet.of(values, Objects.requireNonNull(comparator));
+    }
+
+    /**
+     * Create an immutable set of unboxed {@code long}s in one sorted array
+     *
+     * @param values the values to add to the set.
+     * @return the set containing the values
+     */
+    public static SortedLongArraySet sortedLongArraySet(long... values) {
+        return SortedLongArraySet.of(values);
+    }
+
+    /**
+     * Create an immutable set of unboxed {@code long}s in one sorted array
+     *
+     * @param values the values to add to the set.
+     * @return the set containing the values
+     */
+    public static SortedLongArraySet sortedLongArraySet(LongStream values) {
+        return SortedLongArraySet.of(values);
+    }
+
+    /**
+     * Create a set of unboxed {@code int}s with the given values
+     *
+     * @param values the values to add to the set.
+     * @return the set containing the values
+     */
+    public static IntHashSet asIntSet(int... values) {
+        final IntHashSet set = new IntHashSet(values.length);
+        set.addAll(values);
+        return set;
+    }
+
+    /**
+     * Create a set of unboxed {@code int}s with the values of the stream
+     *
+     * @param values the values to add to the set.
+     * @return the set containing the values
+     */
+    public static IntHashSet asIntSet(IntStream values) {
+        final IntHashSet set = new IntHashSet();
+        values.sequential().forEach(set::add);
+        return set;
     }
+
+    /**
+     * Create a set of unboxed {@code long}s with the given values
+     *
+     * @param values the values to add to the set.
+     * @return the set containing the values
+     */
+    public static LongHashSet asLongSet(long... values) {
+        final LongHashSet set = new LongHashSet(values.length);
+        set.addAll(values);
+        return set;
+    }
+
+    /**
+     * Create a set of unboxed {@code long}s with the values of the stream
+     *
+     * @param values the values to add to the set.
+     * @return the set containing the values
+     */
+    public static LongHashSet asLongSet(LongStream values) {
+        final LongHashSet set = new LongHashSet();
+        values.sequential().forEach(set::add);
+        return set;
+    }
+
+    /**
+     * Create a compressed bitmap set with the given values
+     *
+     * @param values the values to add to the set.
+     * @return the bitmap containing the values
+     * @see IntBitmap
+     */
+    public static IntBitmap asIntBitmap(int... values) {
+        return IntBitmap.of(values);
+    }
+
+    /**
+     * Create a compressed bitmap set with the values of the stream. Parallel streams are
+     * collected to a bitmap per thread and combined, and the containers are converted to runs
+     * where that is smaller.
+     *
+     * @param values the values to add to the set.
+     * @return the bitmap containing the values
+     * @see IntBitmap
+     */
+    public static IntBitmap asIntBitmap(IntStream values) {
+        final IntBitmap bitmap = values.collect(IntBitmap::new, IntBitmap::add, IntBitmap::addAll);
+        bitmap.runOptimize();
+        return bitmap;
+    }
+
+    /**
+     * Write the bitmap to a file that can be read with {@link #readIntBitmap(Path)}. It is
+     * written to a temporary file first and then moved in place, so readers never see a partial
+     * bitmap.
+     *
+     * @param bitmap the bitmap to write
+     * @param path the path of the file
+     * @throws IOException if writing the file fails
+     */
+    public static void writeIntBitmap(IntBitmap bitmap, Path path) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedBytes());
+        bitmap.writeTo(buffer);
+        buffer.flip();
+        final Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException | Error e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Read a bitmap written by {@link #writeIntBitmap(IntBitmap, Path)}. The file is
+     * memory-mapped and each container is copied to the heap in bulk, without decoding the
+     * elements one by one.
+     *
+     * @param path the path of the file
+     * @return the bitmap
+     * @throws IOException if the file cannot be read or is not a bitmap
+     */
+    public static IntBitmap readIntBitmap(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return IntBitmap.readFrom(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException(String.format("Not a bitmap: %s", path), e);
+        }
+    }
+
+    /**
+     * Create a Bloom filter of the values, for cheap checks of whether a value is definitely
+     * absent. The filter takes about 9.6 bits per value for a false positive rate of 1 %.
+     *
+     * @param values the values to add to the filter
+     * @param expectedSize the expected number of values
+     * @param falsePositiveRate the desired false positive rate at the expected number of values
+     * @param <V> the type of the element
+     * @return the filter containing the values
+     * @see BloomFilter
+     */
+    public static <V> BloomFilter<V> bloomFilter(Iterable<V> values, long expectedSize, double falsePositiveRate) {
+        final BloomFilter<V> filter = new BloomFilter<>(expectedSize, falsePositiveRate);
+        values.forEach(filter::put);
+        return filter;
+    }
+
+    /**
+     * Create a cuckoo filter of the values, which unlike a Bloom filter supports removing values.
+     * The filter takes about 2.1 bytes per value and has a false positive rate below 0.013 %.
+     *
+     * @param values the values to add to the filter
+     * @param expectedSize the expected number of values
+     * @param <V> the type of the element
+     * @return the filter containing the values
+     * @see CuckooFilter
+     */
+    public static <V> CuckooFilter<V> cuckooFilter(Iterable<V> values, long expectedSize) {
+        final CuckooFilter<V> filter = new CuckooFilter<>(expectedSize);
+        values.forEach(filter::put);
+        return filter;
+    }
+
+    /**
+     * Create a live view of the elements in either set. Iteration walks the larger set and then
+     * the elements of the smaller set missing from it. Use {@link SetView#materialize()} to copy
+     * the union, or {@link SetView#parallelMaterialize()} for large sets.
+     *
+     * @param first the first set
+     * @param second the second set
+     * @param <V> the type of the element
+     * @return the view
+     */
+    public static <V> SetView<V> union(Set<V> first, Set<V> second) {
+        return new SetOperationView.Union<>(first, second);
+    }
+
+    /**
+     * Create a live view of the elements in both sets. Iteration walks the smaller set and looks
+     * its elements up in the larger one. Navigable sets of the same ordering are intersected in
+     * order, skipping the runs of elements missing from the other set, and materialized to a
+     * sorted array set of the same ordering; two {@link #sortedArraySet} sets are intersected by
+     * galloping through both arrays.
+     *
+     * @param first the first set
+     * @param second the second set
+     * @param <V> the type of the element
+     * @return the view
+     */
+    public static <V> SetView<V> intersection(Set<V> first, Set<V> second) {
+        return new SetOperationView.Intersection<>(first, second);
+    }
+
+    /**
+     * Create a live view of the elements of {@code first} that are not in {@code second}.
+     *
+     * @param first the set of elements
+     * @param second the set of elements to leave out
+     * @param <V> the type of the element
+     * @return the view
+     */
+    public static <V> SetView<V> difference(Set<V> first, Set<V> second) {
+        return new SetOperationView.Difference<>(first, second);
+    }
+
+    /**
+     * Create a live view of the elements in exactly one of the sets.
+     *
+     * @param first the first set
+     * @param second the second set
+     * @param <V> the type of the element
+     * @return the view
+     */
+    public static <V> SetView<V> symmetricDifference(Set<V> first, Set<V> second) {
+        return new SetOperationView.SymmetricDifference<>(first, second);
+    }
+
+    /**
+     * Collects values to a {@link HashSet} presized for the expected size if it is known, or to an
+     * {@link EnumSet} while the values are constants of a single enum.
+     */
+    private static final class SetBuilder<V> {
+        private final int expectedSize;
+        private Set<V> set;
+        private Class<?> enumType;
+
+        SetBuilder(int expectedSize) {
+            this.expectedSize = expectedSize;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void add(V value) {
+            if (set == null) {
+                if (value instanceof Enum) {
+                    enumType = ((Enum<?>) value).getDeclaringClass();
+                    set = EnumSet.noneOf((Class) enumType);
+                } else {
+                    set = newHashSet();
+                }
+            } else if (enumType != null && !enumType.isInstance(value)) {
+                enumType = null;
+                final Set<V> values = set;
+                set = newHashSet();
+                set.addAll(values);
+            }
+            set.add(value);
+        }
+
+        private Set<V> newHashSet() {
+            return expectedSize > 0 ? new HashSet<>(NMaps.capacityFor(expectedSize)) : new HashSet<>();
+        }
+
+        Set<V> build() {
+            return set == null ? newHashSet() : set;
+        }
+    }
+
 }
@@ -0,0 +1,352 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * A compact map that iterates in insertion order. The entries are appended to dense arrays of
+ * keys, values and hash codes, and a sparse open-addressing table of {@code int}s maps keys to
+ * their positions in the dense arrays. Iteration is a sequential scan of the dense arrays, and an
+ * entry costs 20 to 40 bytes depending on the fill of the arrays, instead of the 44 to 48 bytes of
+ * a {@code LinkedHashMap} node and its table slot.
+ * <p>
+ * Removed entries leave a hole in the dense arrays, which is reclaimed when the arrays are
+ * resized. Re-inserting a key does not change its position. Not thread-safe.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @see com.nitorcreations.streams.NCollectors#entriesToOrderedMap()
+ */
+public final class OrderedMap<K, V> extends AbstractMap<K, V> {
+    /** Marks the key of a removed entry in the dense arrays */
+    private static final Object REMOVED = new Object();
+    /** Marks a free slot of the index, the other slots hold the dense position plus one */
+    private static final int FREE = 0;
+    /** Marks a slot of the index whose entry was removed */
+    private static final int DELETED = -1;
+
+    private Object[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int[] index;
+    private int mask;
+    private int used;
+    private int size;
+    private int modCount;
+
+    public OrderedMap() {
+        this(8);
+    }
+
+    /**
+     * @param expectedSize the number of entries the map holds without resizing
+     */
+    public OrderedMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException(String.format("Expected size must not be negative: %d", expectedSize));
+        }
+        allocate(Math.max(4, expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        index = new int[Integer.highestOneBit(capacity + capacity / 2 - 1) << 1];
+        mask = index.length - 1;
+    }
+
+    private static int hash(Object key) {
+        final int h = Objects.hashCode(key) * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the index slot of the key, or {@code -(free slot) - 1} if absent
+     */
+    private int slotOf(Object key, int hash) {
+        int i = hash & mask;
+        int position;
+        while ((position = index[i]) != FREE) {
+            if (position != DELETED && hashes[position - 1] == hash && Objects.equals(keys[position - 1], key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -(i + 1);
+    }
+
+    private int positionOf(Object key) {
+        final int slot = slotOf(key, hash(key));
+        return slot < 0 ? -1 : index[slot] - 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return positionOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        final int position = positionOf(key);
+        return position < 0 ? null : (V) values[position];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        final int position = positionOf(key);
+        return position < 0 ? defaultValue : (V) values[position];
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V put(K key, V value, boolean onlyIfAbsent) {
+        final int hash = hash(key);
+        int slot = slotOf(key, hash);
+        if (slot >= 0) {
+            final int position = index[slot] - 1;
+            final V previous = (V) values[position];
+            if (!onlyIfAbsent || previous == null) {
+                values[position] = value;
+            }
+            return previous;
+        }
+        if (used == keys.length) {
+            resize(Math.max(4, size * 2));
+            slot = slotOf(key, hash);
+        }
+        keys[used] = key;
+        values[used] = value;
+        hashes[used] = hash;
+        index[-slot - 1] = ++used;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        final int slot = slotOf(key, hash(key));
+        if (slot < 0) {
+            return null;
+        }
+        final int position = index[slot] - 1;
+        final V previous = (V) values[position];
+        keys[position] = REMOVED;
+        values[position] = null;
+        index[slot] = DELETED;
+        size--;
+        modCount++;
+        return previous;
+    }
+
+    /**
+     * Move the live entries to arrays of the given capacity, which also drops the holes left
+     * by removed entries, and rebuild the index.
+     */
+    private void resize(int capacity) {
+        final Object[] oldKeys = keys;
+        final Object[] oldValues = values;
+        final int[] oldHashes = hashes;
+        final int oldUsed = used;
+        allocate(capacity);
+        used = 0;
+        for (int j = 0; j < oldUsed; j++) {
+            if (oldKeys[j] != REMOVED) {
+                keys[used] = oldKeys[j];
+                values[used] = oldValues[j];
+                hashes[used] = oldHashes[j];
+                int i = oldHashes[j] & mask;
+                while (index[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                index[i] = ++used;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, used, null);
+        Arrays.fill(values, 0, used, null);
+        Arrays.fill(index, FREE);
+        used = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        final int expectedModCount = modCount;
+        for (int i = 0; i < used; i++) {
+            if (keys[i] != REMOVED) {
+                action.accept((K) keys[i], (V) values[i]);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        final int expectedModCount = modCount;
+        for (int i = 0; i < used; i++) {
+            if (keys[i] != REMOVED) {
+                values[i] = function.apply((K) keys[i], (V) values[i]);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * An entry whose {@code setValue} writes to the map. The entry remembers its position in the
+     * dense arrays, and looks its key up again if a resize has moved it.
+     */
+    private final class WriteThroughEntry implements Entry<K, V> {
+        private final K key;
+        private V value;
+        private int position;
+
+        @SuppressWarnings("unchecked")
+        WriteThroughEntry(int position) {
+            this.key = (K) keys[position];
+            this.value = (V) values[position];
+            this.position = position;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (position >= used || keys[position] != key) {
+                position = positionOf(key);
+            }
+            if (position >= 0) {
+                values[position] = value;
+            }
+            final V previous = this.value;
+            this.value = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            final Entry<?, ?> other = (Entry<?, ?>) o;
+            return Objects.equals(key, other.getKey()) && Objects.equals(value, other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    private int next = 0;
+                    private int last = -1;
+                    private int expectedModCount = modCount;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (next < used && keys[next] == REMOVED) {
+                            next++;
+                        }
+                        return next < used;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<K, V> next() {
+                        if (modCount != expectedModCount) {
+                            throw new ConcurrentModificationException();
+                        }
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        last = next++;
+                        return new WriteThroughEntry(last);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (last < 0) {
+                            throw new IllegalStateException();
+                        }
+                        if (modCount != expectedModCount) {
+                            throw new ConcurrentModificationException();
+                        }
+                        OrderedMap.this.remove(keys[last]);
+                        last = -1;
+                        expectedModCount = modCount;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                OrderedMap.this.clear();
+            }
+        };
+    }
+}
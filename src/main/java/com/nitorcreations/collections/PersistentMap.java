@@ -0,0 +1,601 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+
+import static com.nitorcreations.streams.NMappers.entryOf;
+
+/**
+ * An immutable map implemented as a hash array mapped trie. Updates return a new map that shares
+ * all untouched structure with the original, so adding a key to a map of {@code n} entries
+ * costs {@code O(log n)} regardless of the size of the map.
+ * <p>
+ * The map supports {@code null} keys but not {@code null} values.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @see NMaps#persistentCombine(Map[])
+ */
+public final class PersistentMap<K, V> extends AbstractMap<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    /** Seven levels of five bits cover the whole hash, the eighth one holds full collisions */
+    private static final int MAX_DEPTH = 8;
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(BitmapNode.EMPTY, 0);
+
+    final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the empty persistent map
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Create a persistent map with the entries of the given map. Returns the map itself if it is
+     * already a persistent map.
+     *
+     * @param map the map to copy
+     * @param <K> the key type
+     * @param <V> the value type
+     * @return the persistent map
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        if (map instanceof PersistentMap) {
+            return (PersistentMap<K, V>) map;
+        }
+        return PersistentMap.<K, V>empty().plusAll(map, null);
+    }
+
+    /**
+     * Return a map with the given entry added, replacing any previous value of the key.
+     *
+     * @param key the key
+     * @param value the value, not {@code null}
+     * @return the new map, or this map if the key was already mapped to the value
+     */
+    public PersistentMap<K, V> plus(K key, V value) {
+        return plus(key, value, null);
+    }
+
+    /**
+     * Return a map with the given entry added. Uses {@code mergeFn} to combine the previous
+     * value and the new value if the key is already present.
+     *
+     * @param key the key
+     * @param value the value, not {@code null}
+     * @param mergeFn the function to combine the previous and the new value
+     * @return the new map, or this map if nothing changed
+     */
+    public PersistentMap<K, V> plus(K key, V value, BinaryOperator<V> mergeFn) {
+        Objects.requireNonNull(value);
+        final Change change = new Change();
+        final Node newRoot = root.update(key, value, hash(key), 0, erased(mergeFn), change);
+        return newRoot == root ? this : new PersistentMap<>(newRoot, size + change.sizeDelta);
+    }
+
+    /**
+     * Return a map with all entries of {@code map} added. Uses {@code mergeFn} to combine the
+     * previous value and the new value on duplicate keys. Costs {@code O(m log n)} for adding
+     * {@code m} entries to this map of {@code n} entries.
+     *
+     * @param map the entries to add
+     * @param mergeFn the function to combine the previous and the new value, or {@code null}
+     *                to replace previous values
+     * @return the new map
+     */
+    public PersistentMap<K, V> plusAll(Map<? extends K, ? extends V> map, BinaryOperator<V> mergeFn) {
+        Node newRoot = root;
+        int newSize = size;
+        final Change change = new Change();
+        final BinaryOperator<Object> merge = erased(mergeFn);
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            final K key = entry.getKey();
+            change.sizeDelta = 0;
+            newRoot = newRoot.update(key, Objects.requireNonNull(entry.getValue()), hash(key), 0, merge, change);
+            newSize += change.sizeDelta;
+        }
+        return newRoot == root ? this : new PersistentMap<>(newRoot, newSize);
+    }
+
+    /**
+     * Return a map without the given key.
+     *
+     * @param key the key to remove
+     * @return the new map, or this map if the key was not present
+     */
+    public PersistentMap<K, V> minus(Object key) {
+        final Change change = new Change();
+        final Node newRoot = root.remove(key, hash(key), 0, change);
+        return newRoot == root ? this : new PersistentMap<>(newRoot, size + change.sizeDelta);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return (V) root.find(key, hash(key), 0);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return root.find(key, hash(key), 0) != null;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(root, action);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> void forEach(Node node, BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < node.payloadArity(); i++) {
+            action.accept((K) node.keyAt(i), (V) node.valueAt(i));
+        }
+        for (int i = 0; i < node.nodeArity(); i++) {
+            forEach(node.nodeAt(i), action);
+        }
+    }
+
+    /**
+     * Collect the differences of the tries rooted at {@code before} and {@code after} at the same
+     * position, descending only into sub tries that are not shared. Changed and removed entries
+     * are found from the side of {@code before}, and added ones from the side of {@code after}.
+     */
+    static void diff(Node before, Node after, int shift, MapDiff<Object, Object> diff) {
+        if (before == after) {
+            return;
+        }
+        if (!(before instanceof BitmapNode) || !(after instanceof BitmapNode)) {
+            forEach(before, (key, value) -> diffFrom(key, value, after, shift, diff));
+            forEach(after, (key, value) -> addedTo(key, value, before, shift, diff));
+            return;
+        }
+        final BitmapNode from = (BitmapNode) before;
+        final BitmapNode to = (BitmapNode) after;
+        for (int i = 0; i < from.payloadArity(); i++) {
+            diffFrom(from.keyAt(i), from.valueAt(i), to, shift, diff);
+        }
+        for (int i = 0; i < to.payloadArity(); i++) {
+            addedTo(to.keyAt(i), to.valueAt(i), from, shift, diff);
+        }
+        for (int bits = from.nodeMap | to.nodeMap; bits != 0; bits &= bits - 1) {
+            final int bit = bits & -bits;
+            if ((from.nodeMap & to.nodeMap & bit) != 0) {
+                diff(from.nodeAtBit(bit), to.nodeAtBit(bit), shift + BITS, diff);
+            } else if ((from.nodeMap & bit) != 0) {
+                forEach(from.nodeAtBit(bit), (key, value) -> diffFrom(key, value, to, shift, diff));
+            } else {
+                forEach(to.nodeAtBit(bit), (key, value) -> addedTo(key, value, from, shift, diff));
+            }
+        }
+    }
+
+    private static void diffFrom(Object key, Object value, Node after, int shift, MapDiff<Object, Object> diff) {
+        final Object other = after.find(key, hash(key), shift);
+        if (other == null) {
+            diff.remove(key, value);
+        } else if (!other.equals(value)) {
+            diff.change(key, value, other);
+        }
+    }
+
+    private static void addedTo(Object key, Object value, Node before, int shift, MapDiff<Object, Object> diff) {
+        if (before.find(key, hash(key), shift) == null) {
+            diff.add(key, value);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    static int hash(Object key) {
+        final int h = Objects.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private static int bitpos(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    private static Node mergeTwo(Object k0, Object v0, int h0, Object k1, Object v1, int h1, int shift) {
+        if (shift >= Integer.SIZE) {
+            return new CollisionNode(h0, new Object[]{k0, k1}, new Object[]{v0, v1});
+        }
+        final int bit0 = bitpos(h0, shift);
+        final int bit1 = bitpos(h1, shift);
+        if (bit0 != bit1) {
+            final Object[] content = Integer.compareUnsigned(bit0, bit1) < 0 ? new Object[]{k0, v0, k1, v1} : new Object[]{k1, v1, k0, v0};
+            return new BitmapNode(bit0 | bit1, 0, content);
+        }
+        return new BitmapNode(0, bit0, new Object[]{mergeTwo(k0, v0, h0, k1, v1, h1, shift + BITS)});
+    }
+
+    /**
+     * Merge function that makes an update throw exception on a duplicate key, naming the key,
+     * which a merge function cannot see.
+     */
+    private static final BinaryOperator<Object> DUPLICATE_KEY = (previous, value) -> {
+        throw new IllegalStateException("Duplicate key");
+    };
+
+    /**
+     * @return the merge function that makes {@link #plus(Object, Object, BinaryOperator)} and
+     *         {@link #plusAll(Map, BinaryOperator)} throw exception on duplicate keys
+     */
+    @SuppressWarnings("unchecked")
+    static <V> BinaryOperator<V> throwOnDuplicateKey() {
+        return (BinaryOperator<V>) (BinaryOperator<?>) DUPLICATE_KEY;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BinaryOperator<Object> erased(BinaryOperator<?> mergeFn) {
+        return (BinaryOperator<Object>) mergeFn;
+    }
+
+    /** Collects the size change of a single update */
+    private static final class Change {
+        int sizeDelta;
+    }
+
+    abstract static class Node {
+        abstract Object find(Object key, int hash, int shift);
+
+        abstract Node update(Object key, Object value, int hash, int shift, BinaryOperator<Object> mergeFn, Change change);
+
+        abstract Node remove(Object key, int hash, int shift, Change change);
+
+        abstract int payloadArity();
+
+        abstract int nodeArity();
+
+        abstract Object keyAt(int i);
+
+        abstract Object valueAt(int i);
+
+        abstract Node nodeAt(int i);
+
+        static Object merge(BinaryOperator<Object> mergeFn, Object key, Object previous, Object value) {
+            if (mergeFn == DUPLICATE_KEY) {
+                throw new IllegalStateException(String.format("Duplicate key %s", key));
+            }
+            final Object merged = mergeFn == null ? value : mergeFn.apply(previous, value);
+            return Objects.requireNonNull(merged);
+        }
+    }
+
+    /**
+     * A trie node holding inline entries for the positions in {@code dataMap} and sub nodes for
+     * the positions in {@code nodeMap}. The content array holds the keys and values of the
+     * entries interleaved, followed by the sub nodes.
+     */
+    static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, 0, new Object[0]);
+
+        final int dataMap;
+        final int nodeMap;
+        final Object[] content;
+
+        BitmapNode(int dataMap, int nodeMap, Object[] content) {
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        private int dataIndex(int bit) {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        private int nodeIndex(int bit) {
+            return 2 * Integer.bitCount(dataMap) + Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            final int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                final int i = 2 * dataIndex(bit);
+                return Objects.equals(content[i], key) ? content[i + 1] : null;
+            }
+            if ((nodeMap & bit) != 0) {
+                return ((Node) content[nodeIndex(bit)]).find(key, hash, shift + BITS);
+            }
+            return null;
+        }
+
+        @Override
+        Node update(Object key, Object value, int hash, int shift, BinaryOperator<Object> mergeFn, Change change) {
+            final int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                final int i = 2 * dataIndex(bit);
+                final Object currentKey = content[i];
+                if (Objects.equals(currentKey, key)) {
+                    final Object merged = merge(mergeFn, key, content[i + 1], value);
+                    if (merged == content[i + 1]) {
+                        return this;
+                    }
+                    final Object[] copy = content.clone();
+                    copy[i + 1] = merged;
+                    return new BitmapNode(dataMap, nodeMap, copy);
+                }
+                change.sizeDelta = 1;
+                final Node sub = mergeTwo(currentKey, content[i + 1], hash(currentKey), key, value, hash, shift + BITS);
+                return migrateToNode(bit, i, sub);
+            }
+            if ((nodeMap & bit) != 0) {
+                final int i = nodeIndex(bit);
+                final Node sub = (Node) content[i];
+                final Node newSub = sub.update(key, value, hash, shift + BITS, mergeFn, change);
+                if (newSub == sub) {
+                    return this;
+                }
+                final Object[] copy = content.clone();
+                copy[i] = newSub;
+                return new BitmapNode(dataMap, nodeMap, copy);
+            }
+            change.sizeDelta = 1;
+            final int i = 2 * dataIndex(bit);
+            final Object[] copy = new Object[content.length + 2];
+            System.arraycopy(content, 0, copy, 0, i);
+            copy[i] = key;
+            copy[i + 1] = value;
+            System.arraycopy(content, i, copy, i + 2, content.length - i);
+            return new BitmapNode(dataMap | bit, nodeMap, copy);
+        }
+
+        private Node migrateToNode(int bit, int dataPos, Node sub) {
+            final int nodePos = nodeIndex(bit) - 2;
+            final Object[] copy = new Object[content.length - 1];
+            System.arraycopy(content, 0, copy, 0, dataPos);
+            System.arraycopy(content, dataPos + 2, copy, dataPos, nodePos - dataPos);
+            copy[nodePos] = sub;
+            System.arraycopy(content, nodePos + 2, copy, nodePos + 1, content.length - nodePos - 2);
+            return new BitmapNode(dataMap ^ bit, nodeMap | bit, copy);
+        }
+
+        private Node migrateToInline(int bit, int nodePos, Node sub) {
+            final int dataPos = 2 * dataIndex(bit);
+            final Object[] copy = new Object[content.length + 1];
+            System.arraycopy(content, 0, copy, 0, dataPos);
+            copy[dataPos] = sub.keyAt(0);
+            copy[dataPos + 1] = sub.valueAt(0);
+            System.arraycopy(content, dataPos, copy, dataPos + 2, nodePos - dataPos);
+            System.arraycopy(content, nodePos + 1, copy, nodePos + 2, content.length - nodePos - 1);
+            return new BitmapNode(dataMap | bit, nodeMap ^ bit, copy);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift, Change change) {
+            final int bit = bitpos(hash, shift);
+            if ((dataMap & bit) != 0) {
+                final int i = 2 * dataIndex(bit);
+                if (!Objects.equals(content[i], key)) {
+                    return this;
+                }
+                change.sizeDelta = -1;
+                final Object[] copy = new Object[content.length - 2];
+                System.arraycopy(content, 0, copy, 0, i);
+                System.arraycopy(content, i + 2, copy, i, content.length - i - 2);
+                return new BitmapNode(dataMap ^ bit, nodeMap, copy);
+            }
+            if ((nodeMap & bit) != 0) {
+                final int i = nodeIndex(bit);
+                final Node sub = (Node) content[i];
+                final Node newSub = sub.remove(key, hash, shift + BITS, change);
+                if (newSub == sub) {
+                    return this;
+                }
+                if (newSub.nodeArity() == 0 && newSub.payloadArity() == 1) {
+                    // Keep the trie canonical by pulling single entries up
+                    return migrateToInline(bit, i, newSub);
+                }
+                final Object[] copy = content.clone();
+                copy[i] = newSub;
+                return new BitmapNode(dataMap, nodeMap, copy);
+            }
+            return this;
+        }
+
+        @Override
+        int payloadArity() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        int nodeArity() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        Object keyAt(int i) {
+            return content[2 * i];
+        }
+
+        @Override
+        Object valueAt(int i) {
+            return content[2 * i + 1];
+        }
+
+        @Override
+        Node nodeAt(int i) {
+            return (Node) content[2 * Integer.bitCount(dataMap) + i];
+        }
+
+        Node nodeAtBit(int bit) {
+            return (Node) content[nodeIndex(bit)];
+        }
+    }
+
+    /** Holds the entries whose keys have exactly the same hash */
+    static final class CollisionNode extends Node {
+        final int hash;
+        final Object[] keys;
+        final Object[] values;
+
+        CollisionNode(int hash, Object[] keys, Object[] values) {
+            this.hash = hash;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (Objects.equals(keys[i], key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            final int i = indexOf(key);
+            return i < 0 ? null : values[i];
+        }
+
+        @Override
+        Node update(Object key, Object value, int hash, int shift, BinaryOperator<Object> mergeFn, Change change) {
+            final int i = indexOf(key);
+            if (i >= 0) {
+                final Object merged = merge(mergeFn, key, values[i], value);
+                if (merged == values[i]) {
+                    return this;
+                }
+                final Object[] newValues = values.clone();
+                newValues[i] = merged;
+                return new CollisionNode(hash, keys, newValues);
+            }
+            change.sizeDelta = 1;
+            final Object[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+            final Object[] newValues = Arrays.copyOf(values, values.length + 1);
+            newKeys[keys.length] = key;
+            newValues[values.length] = value;
+            return new CollisionNode(hash, newKeys, newValues);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift, Change change) {
+            final int i = indexOf(key);
+            if (i < 0) {
+                return this;
+            }
+            change.sizeDelta = -1;
+            final Object[] newKeys = new Object[keys.length - 1];
+            final Object[] newValues = new Object[values.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(keys, i + 1, newKeys, i, newKeys.length - i);
+            System.arraycopy(values, 0, newValues, 0, i);
+            System.arraycopy(values, i + 1, newValues, i, newValues.length - i);
+            return new CollisionNode(hash, newKeys, newValues);
+        }
+
+        @Override
+        int payloadArity() {
+            return keys.length;
+        }
+
+        @Override
+        int nodeArity() {
+            return 0;
+        }
+
+        @Override
+        Object keyAt(int i) {
+            return keys[i];
+        }
+
+        @Override
+        Object valueAt(int i) {
+            return values[i];
+        }
+
+        @Override
+        Node nodeAt(int i) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /** Depth-first iteration over the trie with an explicit stack */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+        private final Node[] nodes = new Node[MAX_DEPTH + 1];
+        private final int[] payloadCursors = new int[MAX_DEPTH + 1];
+        private final int[] nodeCursors = new int[MAX_DEPTH + 1];
+        private int depth = 0;
+
+        EntryIterator() {
+            nodes[0] = root;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (depth >= 0) {
+                final Node node = nodes[depth];
+                if (payloadCursors[depth] < node.payloadArity()) {
+                    return true;
+                }
+                if (nodeCursors[depth] < node.nodeArity()) {
+                    final Node sub = node.nodeAt(nodeCursors[depth]++);
+                    depth++;
+                    nodes[depth] = sub;
+                    payloadCursors[depth] = 0;
+                    nodeCursors[depth] = 0;
+                } else {
+                    nodes[depth--] = null;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Node node = nodes[depth];
+            final int i = payloadCursors[depth]++;
+            return entryOf((K) node.keyAt(i), (V) node.valueAt(i));
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A read-only view of an operation on two sets. Lookups ask the underlying sets, and iteration
+ * walks the smaller set where the operation allows, testing its elements against the larger
+ * one. The sides are chosen on each iteration, so the view stays cheap as the sets change.
+ *
+ * @param <V> the element type
+ */
+abstract class SetOperationView<V> extends AbstractSet<V> implements SetView<V> {
+    /** Below this many elements in the sets the fork-join pool costs more than it saves */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    final Set<V> first;
+    final Set<V> second;
+
+    SetOperationView(Set<V> first, Set<V> second) {
+        this.first = Objects.requireNonNull(first);
+        this.second = Objects.requireNonNull(second);
+    }
+
+    Set<V> smaller() {
+        return first.size() <= second.size() ? first : second;
+    }
+
+    Set<V> larger() {
+        return first.size() <= second.size() ? second : first;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Iterator<V> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    @Override
+    public Set<V> materialize() {
+        final Set<V> set = new HashSet<>();
+        forEach(set::add);
+        return set;
+    }
+
+    @Override
+    public Set<V> parallelMaterialize() {
+        if ((long) first.size() + second.size() < PARALLEL_THRESHOLD) {
+            return materialize();
+        }
+        final Set<V> set = ConcurrentHashMap.newKeySet();
+        parallelForEach(value -> set.add(Objects.requireNonNull(value)));
+        return set;
+    }
+
+    /**
+     * Perform the action for each element on the common fork-join pool.
+     */
+    abstract void parallelForEach(Consumer<? super V> action);
+
+    static final class Union<V> extends SetOperationView<V> {
+        Union(Set<V> first, Set<V> second) {
+            super(first, second);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return first.contains(o) || second.contains(o);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            final Set<V> larger = larger();
+            return new ConcatenatedIterator<>(larger.iterator(), new FilteredIterator<>(smaller().iterator(), value -> !larger.contains(value)));
+        }
+
+        @Override
+        public int size() {
+            final Set<V> larger = larger();
+            int size = larger.size();
+            for (V value : smaller()) {
+                if (!larger.contains(value)) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        void parallelForEach(Consumer<? super V> action) {
+            final Set<V> larger = larger();
+            larger.parallelStream().forEach(action);
+            smaller().parallelStream().filter(value -> !larger.contains(value)).forEach(action);
+        }
+    }
+
+    /**
+     * Intersection of two sets. Navigable sets of the same ordering are intersected in order:
+     * the view leaps each set to the ceiling of the other's element, and {@link #materialize()}
+     * copies the result to a sorted array set of the same ordering.
+     */
+    static final class Intersection<V> extends SetOperationView<V> {
+        Intersection(Set<V> first, Set<V> second) {
+            super(first, second);
+        }
+
+        private boolean isSorted() {
+            return first instanceof NavigableSet && second instanceof NavigableSet
+                    && Objects.equals(((NavigableSet<V>) first).comparator(), ((NavigableSet<V>) second).comparator());
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return first.contains(o) && second.contains(o);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            if (isSorted()) {
+                return new SortedIntersectionIterator<>((NavigableSet<V>) smaller(), (NavigableSet<V>) larger());
+            }
+            return new FilteredIterator<>(smaller().iterator(), larger()::contains);
+        }
+
+        /**
+         * Sorted sets are copied in order from the leapfrogging iterator, which seeks the larger
+         * set once per element of the smaller one instead of copying it. Only two sets that are
+         * already sorted arrays are intersected by galloping through the arrays. Either way the
+         * result stays a sorted array set, at one reference per element.
+         */
+        @Override
+        public Set<V> materialize() {
+            if (!isSorted()) {
+                return super.materialize();
+            }
+            if (first instanceof SortedArraySet && second instanceof SortedArraySet) {
+                return ((SortedArraySet<V>) first).intersection((SortedArraySet<V>) second);
+            }
+            final List<V> values = new ArrayList<>();
+            iterator().forEachRemaining(values::add);
+            return SortedArraySet.ofSorted(values.toArray(), ((NavigableSet<V>) first).comparator());
+        }
+
+        @Override
+        void parallelForEach(Consumer<? super V> action) {
+            final Set<V> larger = larger();
+            smaller().parallelStream().filter(larger::contains).forEach(action);
+        }
+    }
+
+    static final class Difference<V> extends SetOperationView<V> {
+        Difference(Set<V> first, Set<V> second) {
+            super(first, second);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return first.contains(o) && !second.contains(o);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new FilteredIterator<>(first.iterator(), value -> !second.contains(value));
+        }
+
+        @Override
+        void parallelForEach(Consumer<? super V> action) {
+            first.parallelStream().filter(value -> !second.contains(value)).forEach(action);
+        }
+    }
+
+    static final class SymmetricDifference<V> extends SetOperationView<V> {
+        SymmetricDifference(Set<V> first, Set<V> second) {
+            super(first, second);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return first.contains(o) != second.contains(o);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new ConcatenatedIterator<>(
+                    new FilteredIterator<>(first.iterator(), value -> !second.contains(value)),
+                    new FilteredIterator<>(second.iterator(), value -> !first.contains(value)));
+        }
+
+        @Override
+        void parallelForEach(Consumer<? super V> action) {
+            first.parallelStream().filter(value -> !second.contains(value)).forEach(action);
+            second.parallelStream().filter(value -> !first.contains(value)).forEach(action);
+        }
+    }
+
+    private static final class FilteredIterator<V> implements Iterator<V> {
+        private final Iterator<V> iterator;
+        private final Predicate<? super V> predicate;
+        private V next;
+        private boolean hasNext;
+
+        FilteredIterator(Iterator<V> iterator, Predicate<? super V> predicate) {
+            this.iterator = iterator;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!hasNext && iterator.hasNext()) {
+                final V value = iterator.next();
+                if (predicate.test(value)) {
+                    next = value;
+                    hasNext = true;
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public V next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNext = false;
+            return next;
+        }
+    }
+
+    private static final class ConcatenatedIterator<V> implements Iterator<V> {
+        private final Iterator<V> head;
+        private final Iterator<V> tail;
+
+        ConcatenatedIterator(Iterator<V> head, Iterator<V> tail) {
+            this.head = head;
+            this.tail = tail;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return head.hasNext() || tail.hasNext();
+        }
+
+        @Override
+        public V next() {
+            return head.hasNext() ? head.next() : tail.next();
+        }
+    }
+
+    /**
+     * Leapfrogs two navigable sets: the ceiling of an element in the other set is either the
+     * same element, which is common to both, or the next candidate for the first set. Elements
+     * missing from the other set are skipped in one seek each instead of being walked past.
+     */
+    private static final class SortedIntersectionIterator<V> implements Iterator<V> {
+        private final NavigableSet<V> a;
+        private final NavigableSet<V> b;
+        private V next;
+
+        SortedIntersectionIterator(NavigableSet<V> a, NavigableSet<V> b) {
+            this.a = a;
+            this.b = b;
+            this.next = a.isEmpty() ? null : seek(a.first());
+        }
+
+        private V seek(V candidate) {
+            while (candidate != null) {
+                final V other = b.ceiling(candidate);
+                if (other == null) {
+                    return null;
+                }
+                if (SortedArrays.compare(a.comparator(), candidate, other) == 0) {
+                    return candidate;
+                }
+                candidate = a.ceiling(other);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public V next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            final V value = next;
+            final V higher = a.higher(value);
+            next = higher == null ? null : seek(higher);
+            return value;
+        }
+    }
+}
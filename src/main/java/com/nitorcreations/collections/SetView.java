@@ -0,0 +1,37 @@
+package com.nitorcreations.collections;
+
+import java.util.Set;
+
+/**
+ * A read-only view of the union, intersection or difference of two sets that computes its
+ * elements on access. Changes to the underlying sets are visible in the view.
+ *
+ * @param <V> the element type
+ * @see NSets#union(Set, Set)
+ * @see NSets#intersection(Set, Set)
+ * @see NSets#difference(Set, Set)
+ * @see NSets#symmetricDifference(Set, Set)
+ */
+public interface SetView<V> extends Set<V> {
+    /**
+     * Copy the current elements of the view to a new set, so that repeated reads do not compute
+     * them again. The copy is independent of the underlying sets. The intersection of two
+     * navigable sets of the same ordering, e.g., of two {@link NSets#sortedArraySet} sets, is
+     * copied to an immutable navigable set of that ordering backed by a sorted array, at one
+     * reference per element. Other views are copied to a mutable {@code HashSet}.
+     *
+     * @return a new set with the elements of the view
+     */
+    Set<V> materialize();
+
+    /**
+     * Copy the current elements of the view to a new set on the common fork-join pool. The
+     * underlying sets are split across the pool with parallel streams, so use for large sets
+     * only: small ones are copied on the calling thread like {@link #materialize()}.
+     * <p>
+     * Will throw exception on {@code null} elements.
+     *
+     * @return a new set with the elements of the view
+     */
+    Set<V> parallelMaterialize();
+}
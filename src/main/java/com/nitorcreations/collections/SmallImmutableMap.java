@@ -0,0 +1,130 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static com.nitorcreations.streams.NMappers.entryOf;
+
+/**
+ * An immutable map for a handful of entries. Keys and values are stored interleaved in a single
+ * flat array and looked up by a linear scan, which for up to ten entries is as fast as hashing
+ * and needs neither a table nor entry objects.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class SmallImmutableMap<K, V> extends AbstractMap<K, V> {
+    /** k0, v0, k1, v1, ... */
+    private final Object[] table;
+
+    /**
+     * Will throw exception on duplicate keys and {@code null} values.
+     *
+     * @param keysAndValues keys and values interleaved, the array is not copied
+     */
+    SmallImmutableMap(Object... keysAndValues) {
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            Objects.requireNonNull(keysAndValues[i + 1]);
+            for (int j = 0; j < i; j += 2) {
+                if (Objects.equals(keysAndValues[j], keysAndValues[i])) {
+                    throw new IllegalStateException(String.format("Duplicate key %s", keysAndValues[i]));
+                }
+            }
+        }
+        this.table = keysAndValues;
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < table.length; i += 2) {
+            if (Objects.equals(table[i], key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return table.length >> 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return table.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (int i = 1; i < table.length; i += 2) {
+            if (table[i].equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        final int i = indexOf(key);
+        return i < 0 ? null : (V) table[i + 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        final int i = indexOf(key);
+        return i < 0 ? defaultValue : (V) table[i + 1];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < table.length; i += 2) {
+            action.accept((K) table[i], (V) table[i + 1]);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < table.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final Entry<K, V> entry = entryOf((K) table[i], (V) table[i + 1]);
+                        i += 2;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SmallImmutableMap.this.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * An immutable set for a handful of elements. The elements are stored in a single array in
+ * insertion order and looked up by a linear scan, which for up to eight elements is as fast as
+ * hashing and needs neither a table nor node objects.
+ *
+ * @param <V> the element type
+ */
+final class SmallImmutableSet<V> extends AbstractSet<V> {
+    /** The largest number of elements for which a linear scan beats hashing */
+    static final int MAX_SIZE = 8;
+
+    private final Object[] elements;
+
+    private SmallImmutableSet(Object[] elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * @param values the elements, duplicates are dropped and the array is not retained
+     * @param <V> the element type
+     * @return the set of the values
+     */
+    static <V> SmallImmutableSet<V> of(Object[] values) {
+        final Object[] elements = new Object[values.length];
+        int size = 0;
+        outer:
+        for (Object value : values) {
+            for (int j = 0; j < size; j++) {
+                if (Objects.equals(elements[j], value)) {
+                    continue outer;
+                }
+            }
+            elements[size++] = value;
+        }
+        return new SmallImmutableSet<>(size == elements.length ? elements : Arrays.copyOf(elements, size));
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return elements.length == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        for (Object element : elements) {
+            if (Objects.equals(element, o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super V> action) {
+        for (Object element : elements) {
+            action.accept((V) element);
+        }
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < elements.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public V next() {
+                if (next >= elements.length) {
+                    throw new NoSuchElementException();
+                }
+                return (V) elements[next++];
+            }
+        };
+    }
+
+    @Override
+    public Object[] toArray() {
+        return elements.clone();
+    }
+
+    @Override
+    public boolean add(V v) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends V> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super V> filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,298 @@
+package com.nitorcreations.collections;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A holder of an immutable map for data that is read by many threads and rarely written, such
+ * as combined configuration layers. Readers get the current {@link Snapshot} with a single
+ * volatile read and no locking, and the snapshot never changes under them. Writers are
+ * serialized, apply their changes to a {@link PersistentMap} so that a batch of {@code m}
+ * changes costs {@code O(m log n)} instead of a full copy, and publish the result atomically
+ * as a new snapshot with the next version.
+ * <p>
+ * Listeners are notified of each published snapshot in version order, after the write lock is
+ * released, so a slow listener does not block other writers and a listener may write to the map
+ * itself. The notifications are delivered by one writing thread at a time, which may be a later
+ * writer than the one that published the snapshot. They can compute the changed entries with
+ * {@link NMaps#diff(Map, Map)}, which compares two persistent maps structurally.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @see NMaps#snapshotMap(BinaryOperator, Map[])
+ */
+public final class SnapshotMap<K, V> {
+    private final BinaryOperator<V> mergeFn;
+    private final CopyOnWriteArrayList<Listener<K, V>> listeners = new CopyOnWriteArrayList<>();
+    private final Object writeLock = new Object();
+    private final ConcurrentLinkedQueue<Published<K, V>> published = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean notifying = new AtomicBoolean();
+    private volatile Snapshot<K, V> current;
+
+    SnapshotMap(PersistentMap<K, V> initial, BinaryOperator<V> mergeFn) {
+        this.mergeFn = Objects.requireNonNull(mergeFn);
+        this.current = new Snapshot<>(initial, 0);
+    }
+
+    /**
+     * An immutable version of the map.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    public static final class Snapshot<K, V> {
+        private final PersistentMap<K, V> map;
+        private final long version;
+
+        Snapshot(PersistentMap<K, V> map, long version) {
+            this.map = map;
+            this.version = version;
+        }
+
+        /**
+         * @return the entries of this version
+         */
+        public PersistentMap<K, V> map() {
+            return map;
+        }
+
+        /**
+         * @return the version, starting from zero and incremented by each published change
+         */
+        public long version() {
+            return version;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{version=" + version + ", size=" + map.size() + "}";
+        }
+    }
+
+    /**
+     * Notified of the snapshots published by a {@link SnapshotMap}.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    @FunctionalInterface
+    public interface Listener<K, V> {
+        /**
+         * @param previous the snapshot that was replaced
+         * @param current the published snapshot
+         */
+        void changed(Snapshot<K, V> previous, Snapshot<K, V> current);
+    }
+
+    /**
+     * @return the current snapshot
+     */
+    public Snapshot<K, V> snapshot() {
+        return current;
+    }
+
+    /**
+     * @return the entries of the current snapshot
+     */
+    public PersistentMap<K, V> map() {
+        return current.map;
+    }
+
+    /**
+     * @return the version of the current snapshot
+     */
+    public long version() {
+        return current.version;
+    }
+
+    /**
+     * @param key the key
+     * @return the value of the key in the current snapshot, or {@code null} if absent
+     */
+    public V get(Object key) {
+        return current.map.get(key);
+    }
+
+    /**
+     * Add the entries, using the merge function of this map to combine the previous and the new
+     * value of keys already present, and publish the result.
+     *
+     * @param changes the entries to add
+     * @return the current snapshot after the change
+     */
+    public Snapshot<K, V> merge(Map<? extends K, ? extends V> changes) {
+        return update(map -> map.plusAll(changes, mergeFn));
+    }
+
+    /**
+     * Set the value of the key, replacing any previous value, and publish the result.
+     *
+     * @param key the key
+     * @param value the value, not {@code null}
+     * @return the current snapshot after the change
+     */
+    public Snapshot<K, V> put(K key, V value) {
+        return update(map -> map.plus(key, value));
+    }
+
+    /**
+     * Remove the key and publish the result.
+     *
+     * @param key the key
+     * @return the current snapshot after the change
+     */
+    public Snapshot<K, V> remove(Object key) {
+        return update(map -> map.minus(key));
+    }
+
+    /**
+     * Replace all entries, e.g., with configuration layers combined anew, and publish the result.
+     *
+     * @param map the new entries
+     * @return the current snapshot after the change
+     */
+    public Snapshot<K, V> replace(Map<K, V> map) {
+        final PersistentMap<K, V> replacement = PersistentMap.copyOf(map);
+        return update(previous -> replacement);
+    }
+
+    /**
+     * Apply a batch of changes to the current entries and publish the result as one snapshot.
+     * The updates are serialized, so {@code updateFn} sees the entries of the latest snapshot.
+     * No snapshot is published if {@code updateFn} returns the same map.
+     * <p>
+     * A listener that throws exception does not keep the other listeners from being notified.
+     * The first such exception is rethrown once all pending notifications are delivered.
+     *
+     * @param updateFn the function computing the new entries from the current ones
+     * @return the current snapshot after the change
+     */
+    public Snapshot<K, V> update(Function<? super PersistentMap<K, V>, PersistentMap<K, V>> updateFn) {
+        final Snapshot<K, V> next;
+        synchronized (writeLock) {
+            final Snapshot<K, V> previous = current;
+            final PersistentMap<K, V> map = Objects.requireNonNull(updateFn.apply(previous.map));
+            if (map == previous.map) {
+                return previous;
+            }
+            next = new Snapshot<>(map, previous.version + 1);
+            current = next;
+            published.add(new Published<>(previous, next));
+        }
+        notifyListeners();
+        return next;
+    }
+
+    /**
+     * Deliver the published snapshots in the order they were queued. Only one thread delivers at
+     * a time, and it keeps going until the queue is empty, so a snapshot queued while another
+     * thread was delivering is not left behind.
+     */
+    private void notifyListeners() {
+        RuntimeException failure = null;
+        while (!published.isEmpty() && notifying.compareAndSet(false, true)) {
+            try {
+                Published<K, V> change;
+                while ((change = published.poll()) != null) {
+                    for (Listener<K, V> listener : listeners) {
+                        try {
+                            listener.changed(change.previous, change.current);
+                        } catch (RuntimeException e) {
+                            if (failure == null) {
+                                failure = e;
+                            } else {
+                                failure.addSuppressed(e);
+                            }
+                        }
+                    }
+                }
+            } finally {
+                notifying.set(false);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static final class Published<K, V> {
+        final Snapshot<K, V> previous;
+        final Snapshot<K, V> current;
+
+        Published(Snapshot<K, V> previous, Snapshot<K, V> current) {
+            this.previous = previous;
+            this.current = current;
+        }
+    }
+
+    /**
+     * @param listener the listener to notify of published snapshots
+     */
+    public void addListener(Listener<K, V> listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * @param listener the listener to remove
+     * @return whether the listener was registered
+     */
+    public boolean removeListener(Listener<K, V> listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Create a supplier of data derived from the entries, which is computed at most once per
+     * version: the supplier recomputes it only when called after a new snapshot was published.
+     * Threads that find the data out of date compute it one at a time for the latest snapshot,
+     * so racing threads wait for the first one instead of computing the same version again.
+     *
+     * @param deriveFn the function computing the data from the entries
+     * @param <R> the type of the data
+     * @return the supplier of the data of the current snapshot
+     */
+    public <R> Supplier<R> derived(Function<? super PersistentMap<K, V>, ? extends R> deriveFn) {
+        Objects.requireNonNull(deriveFn);
+        return new Supplier<R>() {
+            private volatile Derived<K, V, R> derived;
+
+            @Override
+            public R get() {
+                final Derived<K, V, R> cached = derived;
+                if (cached != null && cached.snapshot == current) {
+                    return cached.value;
+                }
+                synchronized (this) {
+                    // Derive from the latest snapshot, as the one that was checked may be stale
+                    final Snapshot<K, V> snapshot = current;
+                    Derived<K, V, R> latest = derived;
+                    if (latest == null || latest.snapshot != snapshot) {
+                        latest = new Derived<>(snapshot, deriveFn.apply(snapshot.map));
+                        derived = latest;
+                    }
+                    return latest.value;
+                }
+            }
+        };
+    }
+
+    private static final class Derived<K, V, R> {
+        final Snapshot<K, V> snapshot;
+        final R value;
+
+        Derived(Snapshot<K, V> snapshot, R value) {
+            this.snapshot = snapshot;
+            this.value = value;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return current.toString();
+    }
+}
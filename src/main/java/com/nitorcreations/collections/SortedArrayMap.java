@@ -0,0 +1,485 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.function.BiConsumer;
+
+import static com.nitorcreations.streams.NMappers.entryOf;
+
+/**
+ * An immutable navigable map backed by flat arrays of keys in ascending order and their values.
+ * Lookups and range queries are binary searches, and sub maps are views of a range of the same
+ * arrays, so they cost nothing to create.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class SortedArrayMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+    private final Object[] keys;
+    private final Object[] values;
+    private final int from;
+    private final int to;
+    private final Comparator<? super K> comparator;
+    private final SortedBounds bounds;
+
+    private SortedArrayMap(Object[] keys, Object[] values, int from, int to, Comparator<? super K> comparator, SortedBounds bounds) {
+        this.keys = keys;
+        this.values = values;
+        this.from = from;
+        this.to = to;
+        this.comparator = comparator;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Copy the aligned lists to arrays, verifying in the same pass that the keys are in strictly
+     * ascending order.
+     *
+     * @param comparator the comparator of the keys, or {@code null} for natural ordering
+     */
+    static <K, V> SortedArrayMap<K, V> ofSorted(List<K> keys, List<V> values, Comparator<? super K> comparator) {
+        final Object[] keyArray = new Object[keys.size()];
+        final Object[] valueArray = new Object[values.size()];
+        final Iterator<K> keyIterator = keys.iterator();
+        final Iterator<V> valueIterator = values.iterator();
+        for (int i = 0; i < keyArray.length; i++) {
+            final K key = Objects.requireNonNull(keyIterator.next());
+            if (i > 0) {
+                final int order = compare(comparator, keyArray[i - 1], key);
+                if (order == 0) {
+                    throw new IllegalStateException(String.format("Duplicate key %s", key));
+                }
+                if (order > 0) {
+                    throw new IllegalArgumentException(String.format("Keys are not sorted at index %d: %s > %s", i, keyArray[i - 1], key));
+                }
+            }
+            keyArray[i] = key;
+            valueArray[i] = Objects.requireNonNull(valueIterator.next());
+        }
+        return new SortedArrayMap<>(keyArray, valueArray, 0, keyArray.length, comparator, SortedBounds.ALL);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> int compare(Comparator<? super K> comparator, Object a, Object b) {
+        return comparator == null ? ((Comparable<Object>) a).compareTo(b) : comparator.compare((K) a, (K) b);
+    }
+
+    private int compare(Object a, Object b) {
+        return compare(comparator, a, b);
+    }
+
+    /**
+     * @return the index of the key, or {@code -(insertion point) - 1} if absent
+     */
+    private int search(Object key) {
+        Objects.requireNonNull(key);
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int order = compare(keys[mid], key);
+            if (order < 0) {
+                low = mid + 1;
+            } else if (order > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int lowerIndex(Object key) {
+        final int i = search(key);
+        return i >= 0 ? i - 1 : -i - 2;
+    }
+
+    private int floorIndex(Object key) {
+        final int i = search(key);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private int ceilingIndex(Object key) {
+        final int i = search(key);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private int higherIndex(Object key) {
+        final int i = search(key);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private boolean inRange(int i) {
+        return i >= from && i < to;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int i) {
+        return inRange(i) ? (K) keys[i] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<K, V> entryAt(int i) {
+        return inRange(i) ? entryOf((K) keys[i], (V) values[i]) : null;
+    }
+
+    private SortedArrayMap<K, V> range(int newFrom, int newTo, SortedBounds newBounds) {
+        newFrom = Math.max(from, newFrom);
+        newTo = Math.max(newFrom, Math.min(to, newTo));
+        return new SortedArrayMap<>(keys, values, newFrom, newTo, comparator, newBounds);
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return to == from;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return search(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        final int i = search(key);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = from; i < to; i++) {
+            action.accept((K) keys[i], (V) values[i]);
+        }
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return entryAt(lowerIndex(key));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyAt(lowerIndex(key));
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return entryAt(floorIndex(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyAt(floorIndex(key));
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return entryAt(ceilingIndex(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyAt(ceilingIndex(key));
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return entryAt(higherIndex(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyAt(higherIndex(key));
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return entryAt(from);
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return entryAt(to - 1);
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public K firstKey() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return keyAt(from);
+    }
+
+    @Override
+    public K lastKey() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return keyAt(to - 1);
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    /**
+     * The descending map is a reversed copy, as the arrays are only searched in ascending order.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public NavigableMap<K, V> descendingMap() {
+        final Object[] descendingKeys = new Object[size()];
+        final Object[] descendingValues = new Object[size()];
+        for (int i = 0; i < descendingKeys.length; i++) {
+            descendingKeys[i] = keys[to - 1 - i];
+            descendingValues[i] = values[to - 1 - i];
+        }
+        final Comparator<? super K> reversed = comparator == null
+                ? (Comparator<? super K>) Collections.reverseOrder()
+                : Collections.reverseOrder(comparator);
+        return new SortedArrayMap<>(descendingKeys, descendingValues, 0, descendingKeys.length, reversed, bounds.reversed());
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        if (compare(fromKey, toKey) > 0) {
+            throw new IllegalArgumentException(String.format("fromKey > toKey: %s > %s", fromKey, toKey));
+        }
+        final SortedBounds newBounds = bounds.sub(comparator, fromKey, fromInclusive, toKey, toInclusive);
+        return range(fromInclusive ? ceilingIndex(fromKey) : higherIndex(fromKey),
+                toInclusive ? higherIndex(toKey) : ceilingIndex(toKey), newBounds);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        final SortedBounds newBounds = bounds.head(comparator, toKey, inclusive);
+        return range(from, inclusive ? higherIndex(toKey) : ceilingIndex(toKey), newBounds);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        final SortedBounds newBounds = bounds.tail(comparator, fromKey, inclusive);
+        return range(inclusive ? ceilingIndex(fromKey) : higherIndex(fromKey), to, newBounds);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new KeySet<>(this);
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<V> values() {
+        return Collections.unmodifiableList((List<V>) Arrays.asList(values).subList(from, to));
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    private int i = from;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < to;
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return entryAt(i++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SortedArrayMap.this.size();
+            }
+        };
+    }
+
+    private static final class KeySet<K> extends AbstractSet<K> implements NavigableSet<K> {
+        private final SortedArrayMap<K, ?> map;
+
+        KeySet(SortedArrayMap<K, ?> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new Iterator<K>() {
+                private int i = map.from;
+
+                @Override
+                public boolean hasNext() {
+                    return i < map.to;
+                }
+
+                @Override
+                public K next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return map.keyAt(i++);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public K lower(K k) {
+            return map.lowerKey(k);
+        }
+
+        @Override
+        public K floor(K k) {
+            return map.floorKey(k);
+        }
+
+        @Override
+        public K ceiling(K k) {
+            return map.ceilingKey(k);
+        }
+
+        @Override
+        public K higher(K k) {
+            return map.higherKey(k);
+        }
+
+        @Override
+        public K pollFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public K pollLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return map.descendingKeySet();
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return map.subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return map.headMap(toElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return map.tailMap(fromElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        @Override
+        public K first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return map.lastKey();
+        }
+    }
+}
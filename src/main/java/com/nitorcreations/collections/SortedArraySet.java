@@ -0,0 +1,322 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.function.Consumer;
+
+import static com.nitorcreations.collections.SortedArrays.compare;
+
+/**
+ * An immutable navigable set backed by a flat array of elements in ascending order, so an
+ * element costs a single reference. Lookups and range queries are binary searches, sub sets are
+ * views of a range of the same array, and intersections with another set of the same ordering
+ * gallop through both arrays.
+ *
+ * @param <V> the element type
+ */
+final class SortedArraySet<V> extends AbstractSet<V> implements NavigableSet<V> {
+    private final Object[] elements;
+    private final int from;
+    private final int to;
+    private final Comparator<? super V> comparator;
+    private final SortedBounds bounds;
+
+    private SortedArraySet(Object[] elements, int from, int to, Comparator<? super V> comparator, SortedBounds bounds) {
+        this.elements = elements;
+        this.from = from;
+        this.to = to;
+        this.comparator = comparator;
+        this.bounds = bounds;
+    }
+
+    private SortedArraySet(Object[] elements, int size, Comparator<? super V> comparator) {
+        this(size == elements.length ? elements : Arrays.copyOf(elements, size), 0, size, comparator, SortedBounds.ALL);
+    }
+
+    /**
+     * Copy the values to an array that is sorted and stripped of duplicates. A sorted set of the
+     * same ordering is copied as is, without sorting or looking for duplicates, and with natural
+     * ordering also without looking for {@code null}s, which it cannot contain.
+     *
+     * @param comparator the comparator of the values, or {@code null} for natural ordering
+     */
+    static <V> SortedArraySet<V> of(Collection<? extends V> values, Comparator<? super V> comparator) {
+        if (values instanceof SortedArraySet && Objects.equals(((SortedArraySet<?>) values).comparator, comparator)) {
+            @SuppressWarnings("unchecked")
+            final SortedArraySet<V> set = (SortedArraySet<V>) values;
+            return set;
+        }
+        final Object[] array = values.toArray();
+        final boolean sorted = values instanceof SortedSet && Objects.equals(((SortedSet<?>) values).comparator(), comparator);
+        if (!sorted || comparator != null) {
+            for (Object value : array) {
+                Objects.requireNonNull(value);
+            }
+        }
+        if (sorted) {
+            return new SortedArraySet<>(array, array.length, comparator);
+        }
+        if (comparator == null) {
+            Arrays.sort(array);
+        } else {
+            @SuppressWarnings("unchecked")
+            final Comparator<Object> order = (Comparator<Object>) comparator;
+            Arrays.sort(array, order);
+        }
+        int size = Math.min(1, array.length);
+        for (int i = 1; i < array.length; i++) {
+            if (compare(comparator, array[size - 1], array[i]) != 0) {
+                array[size++] = array[i];
+            }
+        }
+        return new SortedArraySet<>(array, size, comparator);
+    }
+
+    /**
+     * Wrap an array that is already sorted and free of duplicates and {@code null}s.
+     */
+    static <V> SortedArraySet<V> ofSorted(Object[] elements, Comparator<? super V> comparator) {
+        return new SortedArraySet<>(elements, elements.length, comparator);
+    }
+
+    /**
+     * Intersect with a set of the same ordering by galloping through both arrays.
+     */
+    SortedArraySet<V> intersection(SortedArraySet<V> other) {
+        final Object[] common = new Object[Math.min(size(), other.size())];
+        final int size = SortedArrays.intersect(elements, from, to, other.elements, other.from, other.to, comparator, common);
+        return new SortedArraySet<>(common, size, comparator);
+    }
+
+    /**
+     * @return the index of the element, or {@code -(insertion point) - 1} if absent
+     */
+    private int search(Object element) {
+        Objects.requireNonNull(element);
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int order = compare(comparator, elements[mid], element);
+            if (order < 0) {
+                low = mid + 1;
+            } else if (order > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int lowerIndex(Object element) {
+        final int i = search(element);
+        return i >= 0 ? i - 1 : -i - 2;
+    }
+
+    private int floorIndex(Object element) {
+        final int i = search(element);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private int ceilingIndex(Object element) {
+        final int i = search(element);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private int higherIndex(Object element) {
+        final int i = search(element);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V elementAt(int i) {
+        return i >= from && i < to ? (V) elements[i] : null;
+    }
+
+    private SortedArraySet<V> range(int newFrom, int newTo, SortedBounds newBounds) {
+        newFrom = Math.max(from, newFrom);
+        newTo = Math.max(newFrom, Math.min(to, newTo));
+        return new SortedArraySet<>(elements, newFrom, newTo, comparator, newBounds);
+    }
+
+    @Override
+    public int size() {
+        return to - from;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return to == from;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return search(o) >= 0;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private int i = from;
+
+            @Override
+            public boolean hasNext() {
+                return i < to;
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return elementAt(i++);
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super V> action) {
+        for (int i = from; i < to; i++) {
+            action.accept((V) elements[i]);
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOfRange(elements, from, to);
+    }
+
+    @Override
+    public V lower(V v) {
+        return elementAt(lowerIndex(v));
+    }
+
+    @Override
+    public V floor(V v) {
+        return elementAt(floorIndex(v));
+    }
+
+    @Override
+    public V ceiling(V v) {
+        return elementAt(ceilingIndex(v));
+    }
+
+    @Override
+    public V higher(V v) {
+        return elementAt(higherIndex(v));
+    }
+
+    @Override
+    public V pollFirst() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V pollLast() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V first() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(from);
+    }
+
+    @Override
+    public V last() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return elementAt(to - 1);
+    }
+
+    @Override
+    public Comparator<? super V> comparator() {
+        return comparator;
+    }
+
+    /**
+     * The descending set is a reversed copy, as the array is only searched in ascending order.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public NavigableSet<V> descendingSet() {
+        final Object[] descending = new Object[size()];
+        for (int i = 0; i < descending.length; i++) {
+            descending[i] = elements[to - 1 - i];
+        }
+        final Comparator<? super V> reversed = comparator == null
+                ? (Comparator<? super V>) Collections.reverseOrder()
+                : Collections.reverseOrder(comparator);
+        return new SortedArraySet<>(descending, 0, descending.length, reversed, bounds.reversed());
+    }
+
+    @Override
+    public Iterator<V> descendingIterator() {
+        return new Iterator<V>() {
+            private int i = to - 1;
+
+            @Override
+            public boolean hasNext() {
+                return i >= from;
+            }
+
+            @Override
+            public V next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return elementAt(i--);
+            }
+        };
+    }
+
+    @Override
+    public NavigableSet<V> subSet(V fromElement, boolean fromInclusive, V toElement, boolean toInclusive) {
+        if (compare(comparator, fromElement, toElement) > 0) {
+            throw new IllegalArgumentException(String.format("fromElement > toElement: %s > %s", fromElement, toElement));
+        }
+        final SortedBounds newBounds = bounds.sub(comparator, fromElement, fromInclusive, toElement, toInclusive);
+        return range(fromInclusive ? ceilingIndex(fromElement) : higherIndex(fromElement),
+                toInclusive ? higherIndex(toElement) : ceilingIndex(toElement), newBounds);
+    }
+
+    @Override
+    public NavigableSet<V> headSet(V toElement, boolean inclusive) {
+        final SortedBounds newBounds = bounds.head(comparator, toElement, inclusive);
+        return range(from, inclusive ? higherIndex(toElement) : ceilingIndex(toElement), newBounds);
+    }
+
+    @Override
+    public NavigableSet<V> tailSet(V fromElement, boolean inclusive) {
+        final SortedBounds newBounds = bounds.tail(comparator, fromElement, inclusive);
+        return range(inclusive ? ceilingIndex(fromElement) : higherIndex(fromElement), to, newBounds);
+    }
+
+    @Override
+    public SortedSet<V> subSet(V fromElement, V toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<V> headSet(V toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<V> tailSet(V fromElement) {
+        return tailSet(fromElement, true);
+    }
+}
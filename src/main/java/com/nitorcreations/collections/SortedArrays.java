@@ -0,0 +1,74 @@
+package com.nitorcreations.collections;
+
+import java.util.Comparator;
+
+/**
+ * Searches of arrays sorted by a comparator, or by natural ordering if it is {@code null}.
+ */
+final class SortedArrays {
+    private SortedArrays() { /** prevent instantiation */}
+
+    @SuppressWarnings("unchecked")
+    static <V> int compare(Comparator<? super V> comparator, Object a, Object b) {
+        return comparator == null ? ((Comparable<Object>) a).compareTo(b) : comparator.compare((V) a, (V) b);
+    }
+
+    /**
+     * Find the first index of {@code array[from, to)} whose element is not less than the key.
+     * The search probes {@code from + 1, from + 2, from + 4, ...} until it passes the key and
+     * then searches that last range binarily, so it takes {@code O(log d)} comparisons for a
+     * result {@code d} elements from {@code from}.
+     *
+     * @return the index, or {@code to} if all elements are less than the key
+     */
+    static <V> int gallop(Object[] array, int from, int to, Object key, Comparator<? super V> comparator) {
+        if (from >= to || compare(comparator, array[from], key) >= 0) {
+            return from;
+        }
+        int low = from;
+        int step = 1;
+        int high = from + step;
+        while (high < to && compare(comparator, array[high], key) < 0) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        low++;
+        high = Math.min(high, to);
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compare(comparator, array[mid], key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Copy the elements common to the sorted ranges {@code a[aFrom, aTo)} and
+     * {@code b[bFrom, bTo)} to {@code out} in ascending order. Both ranges skip ahead by
+     * galloping past the elements missing from the other, so the intersection of {@code m} and
+     * {@code n > m} elements takes {@code O(m log(n / m))} comparisons.
+     *
+     * @return the number of elements copied to {@code out}
+     */
+    static <V> int intersect(Object[] a, int aFrom, int aTo, Object[] b, int bFrom, int bTo, Comparator<? super V> comparator, Object[] out) {
+        int i = aFrom;
+        int j = bFrom;
+        int size = 0;
+        while (i < aTo && j < bTo) {
+            final int order = compare(comparator, a[i], b[j]);
+            if (order == 0) {
+                out[size++] = a[i++];
+                j++;
+            } else if (order < 0) {
+                i = gallop(a, i + 1, aTo, b[j], comparator);
+            } else {
+                j = gallop(b, j + 1, bTo, a[i], comparator);
+            }
+        }
+        return size;
+    }
+}
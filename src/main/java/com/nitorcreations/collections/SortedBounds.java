@@ -0,0 +1,84 @@
+package com.nitorcreations.collections;
+
+import java.util.Comparator;
+
+import static com.nitorcreations.collections.SortedArrays.compare;
+
+/**
+ * The bounds a sorted view was created with. Sub views of a view must stay within its bounds,
+ * which cannot be recovered from the range of array indices alone when the bounds are not
+ * elements of the array.
+ */
+final class SortedBounds {
+    static final SortedBounds ALL = new SortedBounds(true, null, false, true, null, false);
+
+    private final boolean fromStart;
+    private final Object low;
+    private final boolean lowInclusive;
+    private final boolean toEnd;
+    private final Object high;
+    private final boolean highInclusive;
+
+    private SortedBounds(boolean fromStart, Object low, boolean lowInclusive, boolean toEnd, Object high, boolean highInclusive) {
+        this.fromStart = fromStart;
+        this.low = low;
+        this.lowInclusive = lowInclusive;
+        this.toEnd = toEnd;
+        this.high = high;
+        this.highInclusive = highInclusive;
+    }
+
+    private <V> boolean inRange(Comparator<? super V> comparator, Object key, boolean inclusive) {
+        if (!fromStart) {
+            final int order = compare(comparator, key, low);
+            if (order < 0 || order == 0 && !lowInclusive && inclusive) {
+                return false;
+            }
+        }
+        if (!toEnd) {
+            final int order = compare(comparator, key, high);
+            if (order > 0 || order == 0 && !highInclusive && inclusive) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private <V> void check(Comparator<? super V> comparator, Object key, boolean inclusive, String name) {
+        if (!inRange(comparator, key, inclusive)) {
+            throw new IllegalArgumentException(String.format("%s out of range: %s", name, key));
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if a bound is outside these bounds
+     */
+    <V> SortedBounds sub(Comparator<? super V> comparator, Object from, boolean fromInclusive, Object to, boolean toInclusive) {
+        check(comparator, from, fromInclusive, "fromKey");
+        check(comparator, to, toInclusive, "toKey");
+        return new SortedBounds(false, from, fromInclusive, false, to, toInclusive);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bound is outside these bounds
+     */
+    <V> SortedBounds head(Comparator<? super V> comparator, Object to, boolean inclusive) {
+        check(comparator, to, inclusive, "toKey");
+        return new SortedBounds(fromStart, low, lowInclusive, false, to, inclusive);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bound is outside these bounds
+     */
+    <V> SortedBounds tail(Comparator<? super V> comparator, Object from, boolean inclusive) {
+        check(comparator, from, inclusive, "fromKey");
+        return new SortedBounds(false, from, inclusive, toEnd, high, highInclusive);
+    }
+
+    /**
+     * @return the same bounds for the reversed ordering
+     */
+    SortedBounds reversed() {
+        return new SortedBounds(toEnd, high, highInclusive, fromStart, low, lowInclusive);
+    }
+}
@@ -0,0 +1,128 @@
+package com.nitorcreations.collections;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel for amortized expiry. Each level has 64 buckets, and a bucket of
+ * a level spans 64 buckets of the level below. The first level has buckets of about 17 ms, and
+ * the levels above cover about 1 s, 69 s, 73 min and 78 h per bucket. Scheduling a timer links
+ * it to the bucket of its deadline in O(1), and advancing the wheel visits only the buckets whose
+ * time has passed, moving their timers to lower levels until they are due.
+ * <p>
+ * Not thread-safe, the owner must guard the wheel with a lock.
+ *
+ * @param <T> the type of the timers
+ */
+final class TimerWheel<T extends TimerWheel.Timer> {
+    private static final int BUCKETS = 64;
+    private static final int[] SHIFTS = {24, 30, 36, 42, 48};
+
+    private final Timer[][] wheel = new Timer[SHIFTS.length][BUCKETS];
+    private long nanos;
+
+    TimerWheel(long now) {
+        this.nanos = now;
+        for (Timer[] level : wheel) {
+            for (int i = 0; i < BUCKETS; i++) {
+                level[i] = new Timer();
+            }
+        }
+        clear();
+    }
+
+    /** A node of the doubly-linked bucket lists */
+    static class Timer {
+        long time;
+        Timer previous;
+        Timer next;
+    }
+
+    /**
+     * Schedule the timer at {@code time}, or reschedule it if already scheduled.
+     */
+    void schedule(T timer, long time) {
+        unlink(timer);
+        timer.time = time;
+        final Timer sentinel = bucketOf(time - nanos < 0 ? nanos : time);
+        timer.previous = sentinel.previous;
+        timer.next = sentinel;
+        sentinel.previous.next = timer;
+        sentinel.previous = timer;
+    }
+
+    /**
+     * Remove the timer from the wheel if scheduled.
+     */
+    void unlink(Timer timer) {
+        if (timer.next != null) {
+            timer.previous.next = timer.next;
+            timer.next.previous = timer.previous;
+            timer.previous = null;
+            timer.next = null;
+        }
+    }
+
+    private Timer bucketOf(long time) {
+        final long duration = time - nanos;
+        int level = 0;
+        while (level < SHIFTS.length - 1 && duration >= 1L << SHIFTS[level + 1]) {
+            level++;
+        }
+        return wheel[level][(int) ((time >> SHIFTS[level]) & (BUCKETS - 1))];
+    }
+
+    /**
+     * Advance the wheel to {@code now}. The timers whose time has passed are unlinked and passed
+     * to {@code onDue}, which may schedule them again. Timers of passed buckets that are not yet
+     * due move to the bucket of their time.
+     */
+    @SuppressWarnings("unchecked")
+    void advance(long now, Consumer<T> onDue) {
+        final long previous = nanos;
+        nanos = now;
+        for (int level = 0; level < SHIFTS.length; level++) {
+            final long previousTicks = previous >> SHIFTS[level];
+            final long delta = (now >> SHIFTS[level]) - previousTicks;
+            if (delta <= 0) {
+                break;
+            }
+            final int count = (int) Math.min(delta + 1, BUCKETS);
+            for (int i = 0; i < count; i++) {
+                final Timer sentinel = wheel[level][(int) ((previousTicks + i) & (BUCKETS - 1))];
+                Timer timer = sentinel.next;
+                sentinel.next = sentinel;
+                sentinel.previous = sentinel;
+                while (timer != sentinel) {
+                    final Timer next = timer.next;
+                    timer.previous = null;
+                    timer.next = null;
+                    if (timer.time - now <= 0) {
+                        onDue.accept((T) timer);
+                    } else {
+                        schedule((T) timer, timer.time);
+                    }
+                    timer = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Unschedule all timers.
+     */
+    void clear() {
+        for (Timer[] level : wheel) {
+            for (Timer sentinel : level) {
+                Timer timer = sentinel.next;
+                while (timer != null && timer != sentinel) {
+                    final Timer next = timer.next;
+                    timer.previous = null;
+                    timer.next = null;
+                    timer = next;
+                }
+                sentinel.previous = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+    }
+}
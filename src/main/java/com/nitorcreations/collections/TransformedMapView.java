@@ -0,0 +1,96 @@
+package com.nitorcreations.collections;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import static com.nitorcreations.collections.NMaps.capacityFor;
+import static com.nitorcreations.streams.NMappers.entryOf;
+
+/**
+ * A read-only view of a map with each value transformed on access. Nothing is cached, so the
+ * transform runs on every read of a value.
+ *
+ * @param <K> the key type
+ * @param <V> the value type of the underlying map
+ * @param <W> the value type of the view
+ */
+final class TransformedMapView<K, V, W> extends AbstractMap<K, W> implements MapView<K, W> {
+    private final Map<K, V> source;
+    private final BiFunction<? super K, ? super V, ? extends W> transform;
+
+    TransformedMapView(Map<K, V> source, BiFunction<? super K, ? super V, ? extends W> transform) {
+        this.source = Objects.requireNonNull(source);
+        this.transform = Objects.requireNonNull(transform);
+    }
+
+    @Override
+    public int size() {
+        return source.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return source.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return source.containsKey(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public W get(Object key) {
+        final V value = source.get(key);
+        if (value == null && !source.containsKey(key)) {
+            return null;
+        }
+        return transform.apply((K) key, value);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super W> action) {
+        source.forEach((key, value) -> action.accept(key, transform.apply(key, value)));
+    }
+
+    @Override
+    public Set<Entry<K, W>> entrySet() {
+        return new AbstractSet<Entry<K, W>>() {
+            @Override
+            public Iterator<Entry<K, W>> iterator() {
+                final Iterator<Entry<K, V>> entries = source.entrySet().iterator();
+                return new Iterator<Entry<K, W>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, W> next() {
+                        final Entry<K, V> entry = entries.next();
+                        return entryOf(entry.getKey(), transform.apply(entry.getKey(), entry.getValue()));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return source.size();
+            }
+        };
+    }
+
+    @Override
+    public Map<K, W> materialize() {
+        final Map<K, W> copy = new HashMap<>(capacityFor(source.size()));
+        forEach(copy::put);
+        return copy;
+    }
+}
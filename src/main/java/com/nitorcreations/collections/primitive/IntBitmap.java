@@ -0,0 +1,411 @@
+package com.nitorcreations.collections.primitive;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A compressed bitmap set of {@code int}s for large sets of dense ids. The elements are split
+ * into chunks by their high 16 bits, and each chunk is stored in the smallest of three
+ * containers: a sorted array of up to 4096 values, a bitmap of all 65536 values, or runs of
+ * consecutive values after {@link #runOptimize()}. A dense set costs about one bit per possible
+ * element and a sparse set two bytes per element, and the set operations work a chunk at a
+ * time with word-wide operations on bitmaps and merges on arrays.
+ * <p>
+ * The serialized form written by {@link #writeTo(ByteBuffer)} keeps each container as a
+ * contiguous little-endian array, so reading it, e.g., from a memory-mapped file is a bulk copy
+ * per container instead of decoding element by element. Elements iterate in unsigned order, so
+ * negative elements come last. Not thread-safe for modification.
+ *
+ * @see com.nitorcreations.collections.NSets#asIntBitmap(int...)
+ */
+public final class IntBitmap {
+    private static final int MAGIC = 0x4e4d4249;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+    private static final int DESCRIPTOR_BYTES = 12;
+
+    private char[] keys;
+    private IntBitmapContainer[] containers;
+    private int size;
+
+    public IntBitmap() {
+        this(new char[4], new IntBitmapContainer[4], 0);
+    }
+
+    private IntBitmap(char[] keys, IntBitmapContainer[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    /**
+     * @param elements the elements
+     * @return the bitmap of the elements
+     */
+    public static IntBitmap of(int... elements) {
+        final IntBitmap bitmap = new IntBitmap();
+        for (int element : elements) {
+            bitmap.add(element);
+        }
+        return bitmap;
+    }
+
+    private static char high(int element) {
+        return (char) (element >>> 16);
+    }
+
+    private static char low(int element) {
+        return (char) element;
+    }
+
+    private int indexOf(char key) {
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    /**
+     * @param element the element
+     * @return {@code true} if the set contains the element
+     */
+    public boolean contains(int element) {
+        final int i = indexOf(high(element));
+        return i >= 0 && containers[i].contains(low(element));
+    }
+
+    /**
+     * Add the element. Adding elements in ascending order is fastest.
+     *
+     * @param element the element to add
+     */
+    public void add(int element) {
+        final char key = high(element);
+        int i = indexOf(key);
+        if (i < 0) {
+            i = -i - 1;
+            insert(i, key, new IntBitmapContainer.Array());
+        }
+        containers[i] = containers[i].add(low(element));
+    }
+
+    private void insert(int index, char key, IntBitmapContainer container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    /**
+     * Add all elements of the other bitmap to this one.
+     *
+     * @param other the elements to add
+     */
+    public void addAll(IntBitmap other) {
+        final IntBitmap union = or(other);
+        this.keys = union.keys;
+        this.containers = union.containers;
+        this.size = union.size;
+    }
+
+    /**
+     * @param element the element to remove
+     */
+    public void remove(int element) {
+        final int i = indexOf(high(element));
+        if (i >= 0) {
+            containers[i] = containers[i].remove(low(element));
+            if (containers[i].cardinality() == 0) {
+                System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+                containers[--size] = null;
+            }
+        }
+    }
+
+    /**
+     * @return the number of elements
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return {@code true} if the set has no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param other the other bitmap
+     * @return a new bitmap of the elements in both bitmaps
+     */
+    public IntBitmap and(IntBitmap other) {
+        final IntBitmap result = new IntBitmap(new char[Math.min(size, other.size) + 1], new IntBitmapContainer[Math.min(size, other.size) + 1], 0);
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.append(keys[i], containers[i++].and(other.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count the elements in both bitmaps without creating their intersection.
+     *
+     * @param other the other bitmap
+     * @return the number of elements in both bitmaps
+     */
+    public long andCardinality(IntBitmap other) {
+        long cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i++].andCardinality(other.containers[j++]);
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * @param other the other bitmap
+     * @return a new bitmap of the elements in either bitmap
+     */
+    public IntBitmap or(IntBitmap other) {
+        final IntBitmap result = new IntBitmap(new char[size + other.size + 1], new IntBitmapContainer[size + other.size + 1], 0);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || i < size && keys[i] < other.keys[j]) {
+                result.append(keys[i], containers[i++].copy());
+            } else if (i == size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j++].copy());
+            } else {
+                result.append(keys[i], containers[i++].or(other.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param other the other bitmap
+     * @return a new bitmap of the elements in this bitmap but not in the other one
+     */
+    public IntBitmap andNot(IntBitmap other) {
+        final IntBitmap result = new IntBitmap(new char[size + 1], new IntBitmapContainer[size + 1], 0);
+        int i = 0;
+        int j = 0;
+        while (i < size) {
+            if (j == other.size || keys[i] < other.keys[j]) {
+                result.append(keys[i], containers[i++].copy());
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.append(keys[i], containers[i++].andNot(other.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    private void append(char key, IntBitmapContainer container) {
+        if (container.cardinality() > 0) {
+            keys[size] = key;
+            containers[size++] = container;
+        }
+    }
+
+    /**
+     * Convert the containers to runs of consecutive values where that is smaller, e.g., after
+     * adding ranges of ids. Run containers are converted back when modified or combined.
+     */
+    public void runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].runOptimize();
+        }
+    }
+
+    /**
+     * @return a copy of this bitmap
+     */
+    public IntBitmap copy() {
+        final IntBitmapContainer[] copies = new IntBitmapContainer[Math.max(1, size)];
+        for (int i = 0; i < size; i++) {
+            copies[i] = containers[i].copy();
+        }
+        return new IntBitmap(Arrays.copyOf(keys, Math.max(1, size)), copies, size);
+    }
+
+    /**
+     * Perform the action for each element in unsigned order.
+     *
+     * @param action the action
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * @return a stream of the elements in unsigned order, which must not be consumed while the
+     * bitmap is modified
+     */
+    public IntStream stream() {
+        return IntStream.range(0, size).flatMap(i -> {
+            final int high = keys[i] << 16;
+            return containers[i].stream().map(low -> high | low);
+        });
+    }
+
+    /**
+     * @return the elements in unsigned order
+     */
+    public int[] toArray() {
+        final long cardinality = cardinality();
+        if (cardinality > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException(String.format("Too many elements for an array: %d", cardinality));
+        }
+        final int[] result = new int[(int) cardinality];
+        final int[] next = {0};
+        forEach(element -> result[next[0]++] = element);
+        return result;
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    /**
+     * @return the number of bytes written by {@link #writeTo(ByteBuffer)}
+     */
+    public int serializedBytes() {
+        long bytes = HEADER_BYTES + (long) size * DESCRIPTOR_BYTES;
+        for (int i = 0; i < size; i++) {
+            bytes = align((int) bytes) + (long) containers[i].serializedBytes();
+        }
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException(String.format("Bitmap too large to serialize: %d bytes", bytes));
+        }
+        return (int) bytes;
+    }
+
+    /**
+     * Write the bitmap to the buffer from its current position. The buffer must have
+     * {@link #serializedBytes()} bytes remaining.
+     *
+     * @param buffer the buffer to write to
+     */
+    public void writeTo(ByteBuffer buffer) {
+        final ByteBuffer out = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(size);
+        int offset = HEADER_BYTES + size * DESCRIPTOR_BYTES;
+        for (int i = 0; i < size; i++) {
+            offset = align(offset);
+            out.putChar(keys[i]).put(containers[i].type()).put((byte) 0)
+                    .putInt(containers[i].cardinality())
+                    .putInt(offset);
+            offset += containers[i].serializedBytes();
+        }
+        for (int i = 0; i < size; i++) {
+            out.position(out.getInt(HEADER_BYTES + i * DESCRIPTOR_BYTES + 8));
+            containers[i].writeTo(out);
+        }
+        buffer.position(buffer.position() + offset);
+    }
+
+    /**
+     * Read a bitmap written by {@link #writeTo(ByteBuffer)} from the current position of the
+     * buffer, and advance the position past it.
+     *
+     * @param buffer the buffer to read from
+     * @return the bitmap
+     */
+    public static IntBitmap readFrom(ByteBuffer buffer) {
+        final ByteBuffer in = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < HEADER_BYTES || in.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a serialized bitmap");
+        }
+        if (in.getInt(4) != VERSION) {
+            throw new IllegalArgumentException(String.format("Unsupported bitmap version %d", in.getInt(4)));
+        }
+        final int size = in.getInt(8);
+        final char[] keys = new char[Math.max(1, size)];
+        final IntBitmapContainer[] containers = new IntBitmapContainer[Math.max(1, size)];
+        int end = HEADER_BYTES + size * DESCRIPTOR_BYTES;
+        for (int i = 0; i < size; i++) {
+            final int descriptor = HEADER_BYTES + i * DESCRIPTOR_BYTES;
+            keys[i] = in.getChar(descriptor);
+            final int offset = in.getInt(descriptor + 8);
+            in.position(offset);
+            final ByteBuffer data = in.slice().order(ByteOrder.LITTLE_ENDIAN);
+            containers[i] = IntBitmapContainer.read(in.get(descriptor + 2), in.getInt(descriptor + 4), data);
+            end = offset + containers[i].serializedBytes();
+        }
+        buffer.position(buffer.position() + end);
+        return new IntBitmap(keys, containers, size);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntBitmap)) {
+            return false;
+        }
+        final IntBitmap other = (IntBitmap) o;
+        if (other.size != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (keys[i] != other.keys[i] || containers[i].cardinality() != other.containers[i].cardinality()
+                    || containers[i].andCardinality(other.containers[i]) != containers[i].cardinality()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        final int[] hash = {0};
+        forEach(element -> hash[0] = 31 * hash[0] + element);
+        return hash[0];
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        forEach(element -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(element);
+        });
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,636 @@
+package com.nitorcreations.collections.primitive;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * The low 16 bits of the elements of an {@link IntBitmap} that share the same high 16 bits. A
+ * chunk is stored as a sorted array when sparse, as a bitmap of 65536 bits when dense, and as
+ * a list of runs when that is smaller. The mutating methods return the container to use from
+ * then on, as the representation changes with the cardinality, and the set operations return
+ * new containers.
+ */
+abstract class IntBitmapContainer {
+    /** The largest array container, above which a bitmap is smaller */
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    static final byte ARRAY = 0;
+    static final byte BITMAP = 1;
+    static final byte RUN = 2;
+
+    abstract byte type();
+
+    abstract int cardinality();
+
+    abstract boolean contains(char value);
+
+    abstract IntBitmapContainer add(char value);
+
+    abstract IntBitmapContainer remove(char value);
+
+    abstract IntBitmapContainer copy();
+
+    abstract void forEach(int high, IntConsumer action);
+
+    abstract IntStream stream();
+
+    /** @return the bytes of the serialized data of this container */
+    abstract int serializedBytes();
+
+    abstract void writeTo(ByteBuffer buffer);
+
+    /**
+     * @return this container as an array or bitmap container
+     */
+    IntBitmapContainer natural() {
+        return this;
+    }
+
+    /**
+     * @return the smallest representation of this container
+     */
+    IntBitmapContainer runOptimize() {
+        final int runs = countRuns();
+        return 2 + runs * 4 < natural().serializedBytes() ? toRuns(runs) : natural();
+    }
+
+    private int countRuns() {
+        final int[] runs = {0};
+        final int[] previous = {-2};
+        forEach(0, value -> {
+            if (value != previous[0] + 1) {
+                runs[0]++;
+            }
+            previous[0] = value;
+        });
+        return runs[0];
+    }
+
+    private Run toRuns(int count) {
+        final char[] runs = new char[count * 2];
+        final int[] state = {-1, -2};
+        forEach(0, value -> {
+            if (value != state[1] + 1) {
+                state[0]++;
+                runs[state[0] * 2] = (char) value;
+            }
+            runs[state[0] * 2 + 1] = (char) (value - runs[state[0] * 2]);
+            state[1] = value;
+        });
+        return new Run(runs, cardinality());
+    }
+
+    final IntBitmapContainer and(IntBitmapContainer other) {
+        final IntBitmapContainer left = natural();
+        final IntBitmapContainer right = other.natural();
+        if (left instanceof Array) {
+            return right instanceof Array ? ((Array) left).and((Array) right) : ((Array) left).filter(right, true);
+        }
+        if (right instanceof Array) {
+            return ((Array) right).filter(left, true);
+        }
+        return ((Bitmap) left).and((Bitmap) right);
+    }
+
+    final int andCardinality(IntBitmapContainer other) {
+        final IntBitmapContainer left = natural();
+        final IntBitmapContainer right = other.natural();
+        if (left instanceof Bitmap && right instanceof Bitmap) {
+            final long[] a = ((Bitmap) left).words;
+            final long[] b = ((Bitmap) right).words;
+            int cardinality = 0;
+            for (int i = 0; i < a.length; i++) {
+                cardinality += Long.bitCount(a[i] & b[i]);
+            }
+            return cardinality;
+        }
+        final Array array = (Array) (left instanceof Array ? left : right);
+        final IntBitmapContainer probed = array == left ? right : left;
+        if (probed instanceof Array) {
+            return array.and((Array) probed).cardinality();
+        }
+        int cardinality = 0;
+        for (int i = 0; i < array.cardinality; i++) {
+            if (probed.contains(array.values[i])) {
+                cardinality++;
+            }
+        }
+        return cardinality;
+    }
+
+    final IntBitmapContainer or(IntBitmapContainer other) {
+        final IntBitmapContainer left = natural();
+        final IntBitmapContainer right = other.natural();
+        if (left instanceof Array && right instanceof Array) {
+            return ((Array) left).or((Array) right);
+        }
+        final Bitmap result = (Bitmap) (left instanceof Bitmap ? left : right).copy();
+        final IntBitmapContainer added = left instanceof Bitmap ? right : left;
+        if (added instanceof Array) {
+            final Array array = (Array) added;
+            for (int i = 0; i < array.cardinality; i++) {
+                result.add(array.values[i]);
+            }
+            return result;
+        }
+        return result.or((Bitmap) added);
+    }
+
+    final IntBitmapContainer andNot(IntBitmapContainer other) {
+        final IntBitmapContainer left = natural();
+        final IntBitmapContainer right = other.natural();
+        if (left instanceof Array) {
+            return right instanceof Array ? ((Array) left).andNot((Array) right) : ((Array) left).filter(right, false);
+        }
+        final Bitmap result = (Bitmap) left.copy();
+        if (right instanceof Array) {
+            final Array array = (Array) right;
+            IntBitmapContainer container = result;
+            for (int i = 0; i < array.cardinality; i++) {
+                container = container.remove(array.values[i]);
+            }
+            return container;
+        }
+        return result.andNot((Bitmap) right);
+    }
+
+    static IntBitmapContainer read(byte type, int cardinality, ByteBuffer buffer) {
+        switch (type) {
+            case ARRAY:
+                final char[] values = new char[cardinality];
+                buffer.asCharBuffer().get(values);
+                return new Array(values, cardinality);
+            case BITMAP:
+                final long[] words = new long[Bitmap.WORDS];
+                buffer.asLongBuffer().get(words);
+                return new Bitmap(words, cardinality);
+            case RUN:
+                final char[] runs = new char[buffer.getChar(0) * 2];
+                buffer.position(2);
+                buffer.asCharBuffer().get(runs);
+                return new Run(runs, cardinality);
+            default:
+                throw new IllegalArgumentException(String.format("Unknown container type %d", type));
+        }
+    }
+
+    /** A sorted array of up to 4096 values */
+    static final class Array extends IntBitmapContainer {
+        private char[] values;
+        private int cardinality;
+
+        Array() {
+            this(new char[4], 0);
+        }
+
+        Array(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        byte type() {
+            return ARRAY;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        IntBitmapContainer add(char value) {
+            if (cardinality > 0 && values[cardinality - 1] < value) {
+                return insert(cardinality, value);
+            }
+            final int i = Arrays.binarySearch(values, 0, cardinality, value);
+            return i >= 0 ? this : insert(-i - 1, value);
+        }
+
+        private IntBitmapContainer insert(int index, char value) {
+            if (cardinality == MAX_ARRAY_SIZE) {
+                return toBitmap().add(value);
+            }
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        IntBitmapContainer remove(char value) {
+            final int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        Bitmap toBitmap() {
+            final Bitmap bitmap = new Bitmap();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+
+        @Override
+        IntBitmapContainer copy() {
+            return new Array(Arrays.copyOf(values, Math.max(1, cardinality)), cardinality);
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        @Override
+        IntStream stream() {
+            return IntStream.range(0, cardinality).map(i -> values[i]);
+        }
+
+        Array and(Array other) {
+            final Array small = cardinality <= other.cardinality ? this : other;
+            final Array large = small == this ? other : this;
+            final char[] result = new char[small.cardinality];
+            int size = 0;
+            if (small.cardinality * 64 < large.cardinality) {
+                // gallop through the large array with binary searches
+                int from = 0;
+                for (int i = 0; i < small.cardinality && from < large.cardinality; i++) {
+                    final int j = Arrays.binarySearch(large.values, from, large.cardinality, small.values[i]);
+                    if (j >= 0) {
+                        result[size++] = small.values[i];
+                        from = j + 1;
+                    } else {
+                        from = -j - 1;
+                    }
+                }
+            } else {
+                int i = 0;
+                int j = 0;
+                while (i < small.cardinality && j < large.cardinality) {
+                    final char a = small.values[i];
+                    final char b = large.values[j];
+                    if (a < b) {
+                        i++;
+                    } else if (a > b) {
+                        j++;
+                    } else {
+                        result[size++] = a;
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            return new Array(result, size);
+        }
+
+        IntBitmapContainer or(Array other) {
+            final char[] result = new char[cardinality + other.cardinality];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < other.cardinality) {
+                final char a = values[i];
+                final char b = other.values[j];
+                if (a <= b) {
+                    result[size++] = a;
+                    i++;
+                    if (a == b) {
+                        j++;
+                    }
+                } else {
+                    result[size++] = b;
+                    j++;
+                }
+            }
+            while (i < cardinality) {
+                result[size++] = values[i++];
+            }
+            while (j < other.cardinality) {
+                result[size++] = other.values[j++];
+            }
+            final Array union = new Array(result, size);
+            return size > MAX_ARRAY_SIZE ? union.toBitmap() : union;
+        }
+
+        Array andNot(Array other) {
+            final char[] result = new char[cardinality];
+            int size = 0;
+            int j = 0;
+            for (int i = 0; i < cardinality; i++) {
+                final char a = values[i];
+                while (j < other.cardinality && other.values[j] < a) {
+                    j++;
+                }
+                if (j == other.cardinality || other.values[j] != a) {
+                    result[size++] = a;
+                }
+            }
+            return new Array(result, size);
+        }
+
+        /**
+         * @return the values that are, or are not, contained in {@code other}
+         */
+        Array filter(IntBitmapContainer other, boolean contained) {
+            final char[] result = new char[cardinality];
+            int size = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i]) == contained) {
+                    result[size++] = values[i];
+                }
+            }
+            return new Array(result, size);
+        }
+
+        @Override
+        int serializedBytes() {
+            return cardinality * 2;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            buffer.asCharBuffer().put(values, 0, cardinality);
+            buffer.position(buffer.position() + cardinality * 2);
+        }
+    }
+
+    /** A bitmap of all 65536 values */
+    static final class Bitmap extends IntBitmapContainer {
+        static final int WORDS = 1024;
+
+        private final long[] words;
+        private int cardinality;
+
+        Bitmap() {
+            this(new long[WORDS], 0);
+        }
+
+        Bitmap(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        byte type() {
+            return BITMAP;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        IntBitmapContainer add(char value) {
+            final long word = words[value >>> 6];
+            final long updated = word | (1L << value);
+            if (updated != word) {
+                words[value >>> 6] = updated;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        IntBitmapContainer remove(char value) {
+            final long word = words[value >>> 6];
+            final long updated = word & ~(1L << value);
+            if (updated != word) {
+                words[value >>> 6] = updated;
+                cardinality--;
+            }
+            return cardinality <= MAX_ARRAY_SIZE ? toArray() : this;
+        }
+
+        private Array toArray() {
+            final char[] values = new char[cardinality];
+            int size = 0;
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[size++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new Array(values, size);
+        }
+
+        private IntBitmapContainer normalized() {
+            return cardinality <= MAX_ARRAY_SIZE ? toArray() : this;
+        }
+
+        @Override
+        IntBitmapContainer copy() {
+            return new Bitmap(words.clone(), cardinality);
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(high | (i * 64 + Long.numberOfTrailingZeros(word)));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        IntStream stream() {
+            return IntStream.range(0, WORDS).filter(i -> words[i] != 0).flatMap(i -> {
+                final int[] values = new int[Long.bitCount(words[i])];
+                long word = words[i];
+                for (int j = 0; word != 0; j++) {
+                    values[j] = i * 64 + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+                return IntStream.of(values);
+            });
+        }
+
+        IntBitmapContainer and(Bitmap other) {
+            final long[] result = new long[WORDS];
+            int cardinality = 0;
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words[i] & other.words[i];
+                cardinality += Long.bitCount(result[i]);
+            }
+            return new Bitmap(result, cardinality).normalized();
+        }
+
+        /** In place, this bitmap must be a copy */
+        IntBitmapContainer or(Bitmap other) {
+            int cardinality = 0;
+            for (int i = 0; i < WORDS; i++) {
+                words[i] |= other.words[i];
+                cardinality += Long.bitCount(words[i]);
+            }
+            this.cardinality = cardinality;
+            return this;
+        }
+
+        /** In place, this bitmap must be a copy */
+        IntBitmapContainer andNot(Bitmap other) {
+            int cardinality = 0;
+            for (int i = 0; i < WORDS; i++) {
+                words[i] &= ~other.words[i];
+                cardinality += Long.bitCount(words[i]);
+            }
+            this.cardinality = cardinality;
+            return normalized();
+        }
+
+        @Override
+        int serializedBytes() {
+            return WORDS * 8;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            buffer.asLongBuffer().put(words);
+            buffer.position(buffer.position() + WORDS * 8);
+        }
+    }
+
+    /** Runs of consecutive values, as pairs of the start and the length minus one */
+    static final class Run extends IntBitmapContainer {
+        private final char[] runs;
+        private final int cardinality;
+
+        Run(char[] runs, int cardinality) {
+            this.runs = runs;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        byte type() {
+            return RUN;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            int low = 0;
+            int high = runs.length / 2 - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int start = runs[middle * 2];
+                if (value < start) {
+                    high = middle - 1;
+                } else if (value > start + runs[middle * 2 + 1]) {
+                    low = middle + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        IntBitmapContainer add(char value) {
+            return contains(value) ? this : natural().add(value);
+        }
+
+        @Override
+        IntBitmapContainer remove(char value) {
+            return contains(value) ? natural().remove(value) : this;
+        }
+
+        @Override
+        IntBitmapContainer natural() {
+            final IntBitmapContainer container = cardinality > MAX_ARRAY_SIZE ? new Bitmap() : new Array(new char[cardinality], 0);
+            if (container instanceof Bitmap) {
+                final Bitmap bitmap = (Bitmap) container;
+                for (int i = 0; i < runs.length; i += 2) {
+                    setRange(bitmap.words, runs[i], runs[i] + runs[i + 1] + 1);
+                }
+                bitmap.cardinality = cardinality;
+            } else {
+                final Array array = (Array) container;
+                for (int i = 0; i < runs.length; i += 2) {
+                    for (int value = runs[i]; value <= runs[i] + runs[i + 1]; value++) {
+                        array.values[array.cardinality++] = (char) value;
+                    }
+                }
+            }
+            return container;
+        }
+
+        private static void setRange(long[] words, int from, int to) {
+            final int first = from >>> 6;
+            final int last = (to - 1) >>> 6;
+            final long firstMask = -1L << from;
+            final long lastMask = -1L >>> -to;
+            if (first == last) {
+                words[first] |= firstMask & lastMask;
+                return;
+            }
+            words[first] |= firstMask;
+            for (int i = first + 1; i < last; i++) {
+                words[i] = -1L;
+            }
+            words[last] |= lastMask;
+        }
+
+        @Override
+        IntBitmapContainer runOptimize() {
+            return this;
+        }
+
+        @Override
+        IntBitmapContainer copy() {
+            return this;
+        }
+
+        @Override
+        void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < runs.length; i += 2) {
+                for (int value = runs[i]; value <= runs[i] + runs[i + 1]; value++) {
+                    action.accept(high | value);
+                }
+            }
+        }
+
+        @Override
+        IntStream stream() {
+            return IntStream.range(0, runs.length / 2).flatMap(i -> IntStream.rangeClosed(runs[i * 2], runs[i * 2] + runs[i * 2 + 1]));
+        }
+
+        @Override
+        int serializedBytes() {
+            return 2 + runs.length * 2;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            buffer.putChar((char) (runs.length / 2));
+            buffer.asCharBuffer().put(runs);
+            buffer.position(buffer.position() + runs.length * 2);
+        }
+    }
+}
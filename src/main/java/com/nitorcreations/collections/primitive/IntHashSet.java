@@ -0,0 +1,315 @@
+package com.nitorcreations.collections.primitive;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static com.nitorcreations.collections.primitive.PrimitiveHashing.capacityFor;
+import static com.nitorcreations.collections.primitive.PrimitiveHashing.doubled;
+import static com.nitorcreations.collections.primitive.PrimitiveHashing.mix;
+import static com.nitorcreations.collections.primitive.PrimitiveHashing.thresholdFor;
+
+/**
+ * A set of {@code int}s. The elements are stored unboxed in an open-addressing table with
+ * linear probing, so an element costs one {@code int} in the table instead of a
+ * {@code HashMap.Node} and a boxed {@link Integer}, about a tenth of the memory of a
+ * {@code HashSet<Integer>}.
+ * <p>
+ * Not thread-safe.
+ */
+public final class IntHashSet {
+    /** Marks a free slot, the zero element is kept outside the table */
+    private static final int FREE = 0;
+
+    private int[] elements;
+    private int mask;
+    private int threshold;
+    private int size;
+    private boolean hasZero;
+
+    public IntHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize the number of elements the set holds without resizing
+     */
+    public IntHashSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        elements = new int[capacity];
+        mask = capacity - 1;
+        threshold = thresholdFor(capacity);
+    }
+
+    private int indexOf(int element) {
+        int i = mix(element) & mask;
+        int current;
+        while ((current = elements[i]) != FREE) {
+            if (current == element) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -(i + 1);
+    }
+
+    /**
+     * @param element the element
+     * @return {@code true} if the set contains the element
+     */
+    public boolean contains(int element) {
+        return element == FREE ? hasZero : indexOf(element) >= 0;
+    }
+
+    /**
+     * @param elements the elements
+     * @return {@code true} if the set contains all the elements
+     */
+    public boolean containsAll(int... elements) {
+        for (int element : elements) {
+            if (!contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param element the element to add
+     * @return {@code true} if the set did not already contain the element
+     */
+    public boolean add(int element) {
+        if (element == FREE) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        final int i = indexOf(element);
+        if (i >= 0) {
+            return false;
+        }
+        elements[-i - 1] = element;
+        if (++size > threshold) {
+            rehash(doubled(this.elements.length));
+        }
+        return true;
+    }
+
+    /**
+     * Add the elements, growing the table once up front for all of them.
+     *
+     * @param elements the elements to add
+     * @return {@code true} if the set changed
+     */
+    public boolean addAll(int... elements) {
+        ensureCapacity(size + elements.length);
+        final int before = size;
+        for (int element : elements) {
+            add(element);
+        }
+        return size != before;
+    }
+
+    private void ensureCapacity(int expectedSize) {
+        if (expectedSize > threshold) {
+            rehash(Math.max(this.elements.length, capacityFor(expectedSize)));
+        }
+    }
+
+    /**
+     * @param element the element to remove
+     * @return {@code true} if the set contained the element
+     */
+    public boolean remove(int element) {
+        if (element == FREE) {
+            if (!hasZero) {
+                return false;
+            }
+            hasZero = false;
+            size--;
+            return true;
+        }
+        final int i = indexOf(element);
+        if (i < 0) {
+            return false;
+        }
+        size--;
+        shiftKeys(i);
+        return true;
+    }
+
+    /**
+     * Retain only the elements that are also in {@code elements}. The retained elements are
+     * copied to a new table sized for them.
+     *
+     * @param elements the elements to retain
+     * @return {@code true} if the set changed
+     */
+    public boolean retainAll(int... elements) {
+        final IntHashSet retained = new IntHashSet(Math.min(size, elements.length));
+        for (int element : elements) {
+            if (contains(element)) {
+                retained.add(element);
+            }
+        }
+        if (retained.size == size) {
+            return false;
+        }
+        this.elements = retained.elements;
+        this.mask = retained.mask;
+        this.threshold = retained.threshold;
+        this.size = retained.size;
+        this.hasZero = retained.hasZero;
+        return true;
+    }
+
+    /**
+     * Close the gap left by a removed element by moving back the following elements of the
+     * probe sequence, so that lookups never need tombstones.
+     */
+    private void shiftKeys(int pos) {
+        while (true) {
+            final int last = pos;
+            pos = (pos + 1) & mask;
+            int current;
+            while (true) {
+                if ((current = elements[pos]) == FREE) {
+                    elements[last] = FREE;
+                    return;
+                }
+                final int slot = mix(current) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            elements[last] = current;
+        }
+    }
+
+    private void rehash(int capacity) {
+        final int[] oldElements = elements;
+        allocate(capacity);
+        for (int element : oldElements) {
+            if (element != FREE) {
+                int i = mix(element) & mask;
+                while (elements[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                elements[i] = element;
+            }
+        }
+    }
+
+    /**
+     * @return the number of elements
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if the set has no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all elements.
+     */
+    public void clear() {
+        Arrays.fill(elements, FREE);
+        hasZero = false;
+        size = 0;
+    }
+
+    /**
+     * Perform the action for each element in no particular order.
+     *
+     * @param action the action
+     */
+    public void forEach(IntConsumer action) {
+        if (hasZero) {
+            action.accept(FREE);
+        }
+        for (int element : elements) {
+            if (element != FREE) {
+                action.accept(element);
+            }
+        }
+    }
+
+    /**
+     * @return the elements in no particular order
+     */
+    public int[] toArray() {
+        final int[] result = new int[size];
+        int j = 0;
+        if (hasZero) {
+            result[j++] = FREE;
+        }
+        for (int element : elements) {
+            if (element != FREE) {
+                result[j++] = element;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return a stream of the elements in no particular order, which must not be consumed while
+     * the set is modified
+     */
+    public IntStream stream() {
+        final IntStream table = Arrays.stream(elements).filter(element -> element != FREE);
+        return hasZero ? IntStream.concat(IntStream.of(FREE), table) : table;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntHashSet)) {
+            return false;
+        }
+        final IntHashSet other = (IntHashSet) o;
+        if (other.size != size || other.hasZero != hasZero) {
+            return false;
+        }
+        for (int element : elements) {
+            if (element != FREE && other.indexOf(element) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int element : elements) {
+            hash += element;
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        forEach(element -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(element);
+        });
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,11 @@
+package com.nitorcreations.collections.primitive;
+
+/**
+ * Consumes the entries of an {@link IntObjectMap} without boxing the keys.
+ *
+ * @param <V> the value type
+ */
+@FunctionalInterface
+public interface IntObjectConsumer<V> {
+    void accept(int key, V value);
+}
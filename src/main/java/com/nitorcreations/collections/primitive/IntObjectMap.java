@@ -0,0 +1,299 @@
+package com.nitorcreations.collections.primitive;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import static com.nitorcreations.collections.primitive.PrimitiveHashing.capacityFor;
+import static com.nitorcreations.collections.primitive.PrimitiveHashing.doubled;
+import static com.nitorcreations.collections.primitive.PrimitiveHashing.mix;
+import static com.nitorcreations.collections.primitive.PrimitiveHashing.thresholdFor;
+
+/**
+ * A map from {@code int} keys to objects. Keys are stored unboxed in an open-addressing table
+ * with linear probing, so an entry costs one {@code int} and one reference in the table instead
+ * of a {@code HashMap.Node} and a boxed {@link Integer}.
+ * <p>
+ * Not thread-safe.
+ *
+ * @param <V> the value type
+ */
+public final class IntObjectMap<V> {
+    /** Marks a free slot, the entry of the zero key is kept outside the table */
+    private static final int FREE = 0;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize the number of entries the map holds without resizing
+     */
+    public IntObjectMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = thresholdFor(capacity);
+    }
+
+    private int indexOf(int key) {
+        int i = mix(key) & mask;
+        int current;
+        while ((current = keys[i]) != FREE) {
+            if (current == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -(i + 1);
+    }
+
+    /**
+     * @param key the key
+     * @return the value of the key, or {@code null} if absent
+     */
+    public V get(int key) {
+        return getOrDefault(key, null);
+    }
+
+    /**
+     * @param key the key
+     * @param defaultValue the value to return if the key is absent
+     * @return the value of the key, or {@code defaultValue} if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(int key, V defaultValue) {
+        if (key == FREE) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        final int i = indexOf(key);
+        return i < 0 ? defaultValue : (V) values[i];
+    }
+
+    /**
+     * @param key the key
+     * @return {@code true} if the map contains the key
+     */
+    public boolean containsKey(int key) {
+        return key == FREE ? hasZeroKey : indexOf(key) >= 0;
+    }
+
+    /**
+     * Associate the value with the key.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value of the key, or {@code null} if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (key == FREE) {
+            final V previous = zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        final int i = indexOf(key);
+        if (i >= 0) {
+            final V previous = (V) values[i];
+            values[i] = value;
+            return previous;
+        }
+        final int slot = -i - 1;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash(doubled(keys.length));
+        }
+        return null;
+    }
+
+    /**
+     * Remove the key from the map.
+     *
+     * @param key the key
+     * @return the previous value of the key, or {@code null} if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == FREE) {
+            final V previous = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                size--;
+            }
+            return previous;
+        }
+        final int i = indexOf(key);
+        if (i < 0) {
+            return null;
+        }
+        final V previous = (V) values[i];
+        size--;
+        shiftKeys(i);
+        return previous;
+    }
+
+    /**
+     * Close the gap left by a removed entry by moving back the following entries of the probe
+     * sequence, so that lookups never need tombstones.
+     */
+    private void shiftKeys(int pos) {
+        while (true) {
+            final int last = pos;
+            pos = (pos + 1) & mask;
+            int current;
+            while (true) {
+                if ((current = keys[pos]) == FREE) {
+                    keys[last] = FREE;
+                    values[last] = null;
+                    return;
+                }
+                final int slot = mix(current) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            final int key = oldKeys[j];
+            if (key != FREE) {
+                int i = mix(key) & mask;
+                while (keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if the map has no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Perform the action for each entry in no particular order.
+     *
+     * @param action the action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(IntObjectConsumer<? super V> action) {
+        if (hasZeroKey) {
+            action.accept(FREE, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * @return the keys in no particular order
+     */
+    public int[] keys() {
+        final int[] result = new int[size];
+        int j = 0;
+        if (hasZeroKey) {
+            result[j++] = FREE;
+        }
+        for (int key : keys) {
+            if (key != FREE) {
+                result[j++] = key;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntObjectMap)) {
+            return false;
+        }
+        final IntObjectMap<?> other = (IntObjectMap<?>) o;
+        if (other.size != size || other.hasZeroKey != hasZeroKey || !Objects.equals(other.zeroValue, zeroValue)) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                final int j = other.indexOf(keys[i]);
+                if (j < 0 || !Objects.equals(values[i], other.values[j])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = hasZeroKey ? Objects.hashCode(zeroValue) : 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                hash += Integer.hashCode(keys[i]) ^ Objects.hashCode(values[i]);
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,11 @@
+package com.nitorcreations.collections.primitive;
+
+/**
+ * Consumes the entries of an {@link LongObjectMap} without boxing the keys.
+ *
+ * @param <V> the value type
+ */
+@FunctionalInterface
+public interface LongObjectConsumer<V> {
+    void accept(long key, V value);
+}
@@ -0,0 +1,267 @@
+package com.nitorcreations.collections.primitive;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ObjLongConsumer;
+
+import static com.nitorcreations.collections.primitive.PrimitiveHashing.capacityFor;
+import static com.nitorcreations.collections.primitive.PrimitiveHashing.doubled;
+import static com.nitorcreations.collections.primitive.PrimitiveHashing.mix;
+import static com.nitorcreations.collections.primitive.PrimitiveHashing.thresholdFor;
+
+/**
+ * A map from objects to {@code long} values, e.g., for counters. Values are stored unboxed in an
+ * open-addressing table with linear probing, so an entry costs one reference and one {@code long}
+ * in the table instead of a {@code HashMap.Node} and a boxed {@link Long}.
+ * <p>
+ * Absent keys have the value {@code 0}. {@code null} keys are not supported. Not thread-safe.
+ *
+ * @param <K> the key type
+ */
+public final class ObjectLongMap<K> {
+    private Object[] keys;
+    private long[] values;
+    private int mask;
+    private int threshold;
+    private int size;
+
+    public ObjectLongMap() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize the number of entries the map holds without resizing
+     */
+    public ObjectLongMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        threshold = thresholdFor(capacity);
+    }
+
+    private int indexOf(Object key) {
+        int i = mix(key) & mask;
+        Object current;
+        while ((current = keys[i]) != null) {
+            if (current.equals(key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -(i + 1);
+    }
+
+    /**
+     * @param key the key
+     * @return the value of the key, or {@code 0} if absent
+     */
+    public long get(Object key) {
+        return getOrDefault(key, 0);
+    }
+
+    /**
+     * @param key the key
+     * @param defaultValue the value to return if the key is absent
+     * @return the value of the key, or {@code defaultValue} if absent
+     */
+    public long getOrDefault(Object key, long defaultValue) {
+        final int i = indexOf(Objects.requireNonNull(key));
+        return i < 0 ? defaultValue : values[i];
+    }
+
+    /**
+     * @param key the key
+     * @return {@code true} if the map contains the key
+     */
+    public boolean containsKey(Object key) {
+        return indexOf(Objects.requireNonNull(key)) >= 0;
+    }
+
+    /**
+     * Associate the value with the key.
+     *
+     * @param key the key
+     * @param value the value
+     * @return the previous value of the key, or {@code 0} if absent
+     */
+    public long put(K key, long value) {
+        final int i = indexOf(Objects.requireNonNull(key));
+        if (i >= 0) {
+            final long previous = values[i];
+            values[i] = value;
+            return previous;
+        }
+        insert(-i - 1, key, value);
+        return 0;
+    }
+
+    /**
+     * Add {@code increment} to the value of the key. An absent key is added with the value
+     * {@code increment}.
+     *
+     * @param key the key
+     * @param increment the amount to add
+     * @return the new value of the key
+     */
+    public long addTo(K key, long increment) {
+        final int i = indexOf(Objects.requireNonNull(key));
+        if (i >= 0) {
+            return values[i] += increment;
+        }
+        insert(-i - 1, key, increment);
+        return increment;
+    }
+
+    private void insert(int slot, K key, long value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > threshold) {
+            rehash(doubled(keys.length));
+        }
+    }
+
+    /**
+     * Remove the key from the map.
+     *
+     * @param key the key
+     * @return the previous value of the key, or {@code 0} if absent
+     */
+    public long remove(Object key) {
+        final int i = indexOf(Objects.requireNonNull(key));
+        if (i < 0) {
+            return 0;
+        }
+        final long previous = values[i];
+        size--;
+        shiftKeys(i);
+        return previous;
+    }
+
+    /**
+     * Close the gap left by a removed entry by moving back the following entries of the probe
+     * sequence, so that lookups never need tombstones.
+     */
+    private void shiftKeys(int pos) {
+        while (true) {
+            final int last = pos;
+            pos = (pos + 1) & mask;
+            Object current;
+            while (true) {
+                if ((current = keys[pos]) == null) {
+                    keys[last] = null;
+                    return;
+                }
+                final int slot = mix(current) & mask;
+                if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = current;
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int capacity) {
+        final Object[] oldKeys = keys;
+        final long[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            final Object key = oldKeys[j];
+            if (key != null) {
+                int i = mix(key) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if the map has no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    /**
+     * Perform the action for each entry in no particular order.
+     *
+     * @param action the action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(ObjLongConsumer<? super K> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], values[i]);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ObjectLongMap)) {
+            return false;
+        }
+        final ObjectLongMap<?> other = (ObjectLongMap<?>) o;
+        if (other.size != size) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                final int j = other.indexOf(keys[i]);
+                if (j < 0 || values[i] != other.values[j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                hash += keys[i].hashCode() ^ Long.hashCode(values[i]);
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+}
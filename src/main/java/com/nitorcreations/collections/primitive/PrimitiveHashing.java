@@ -0,0 +1,53 @@
+package com.nitorcreations.collections.primitive;
+
+/**
+ * Hash mixing and table sizing shared by the open-addressing collections of this package.
+ */
+final class PrimitiveHashing {
+    /** The maximum ratio of occupied slots before the table is doubled */
+    static final float LOAD_FACTOR = 0.75f;
+
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private PrimitiveHashing() { /** prevent instantiation */}
+
+    static int mix(int key) {
+        final int h = key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    static int mix(long key) {
+        final long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int mix(Object key) {
+        return mix(key.hashCode());
+    }
+
+    /**
+     * @param expectedSize the number of elements to hold without resizing
+     * @return a power of two table capacity
+     */
+    static int capacityFor(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException(String.format("Expected size must not be negative: %d", expectedSize));
+        }
+        final long needed = Math.max(4L, (long) Math.ceil(expectedSize / (double) LOAD_FACTOR));
+        if (needed > MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    static int thresholdFor(int capacity) {
+        return capacity == MAXIMUM_CAPACITY ? capacity - 1 : (int) (capacity * LOAD_FACTOR);
+    }
+
+    static int doubled(int capacity) {
+        if (capacity == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Maximum capacity reached");
+        }
+        return capacity << 1;
+    }
+}
@@ -0,0 +1,284 @@
+package com.nitorcreations.collections.primitive;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * An immutable set of {@code long}s in one sorted array, so an element costs eight bytes and
+ * lookups are binary searches. Sub sets are views of a range of the same array, and
+ * intersections gallop through both arrays: the intersection of {@code m} and {@code n > m}
+ * elements takes {@code O(m log(n / m))} comparisons.
+ */
+public final class SortedLongArraySet {
+    private static final SortedLongArraySet EMPTY = new SortedLongArraySet(new long[0], 0, 0);
+
+    private final long[] elements;
+    private final int from;
+    private final int to;
+
+    private SortedLongArraySet(long[] elements, int from, int to) {
+        this.elements = elements;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * @param values the elements in any order, duplicates are ignored
+     * @return the set of the elements
+     */
+    public static SortedLongArraySet of(long... values) {
+        return ofOwned(values.clone());
+    }
+
+    /**
+     * @param values the elements in any order, duplicates are ignored
+     * @return the set of the elements
+     */
+    public static SortedLongArraySet of(LongStream values) {
+        return ofOwned(values.toArray());
+    }
+
+    private static SortedLongArraySet ofOwned(long[] values) {
+        if (values.length == 0) {
+            return EMPTY;
+        }
+        Arrays.sort(values);
+        int size = 1;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] != values[size - 1]) {
+                values[size++] = values[i];
+            }
+        }
+        return new SortedLongArraySet(size == values.length ? values : Arrays.copyOf(values, size), 0, size);
+    }
+
+    /**
+     * @param element the element
+     * @return {@code true} if the set contains the element
+     */
+    public boolean contains(long element) {
+        return Arrays.binarySearch(elements, from, to, element) >= 0;
+    }
+
+    /**
+     * @param elements the elements
+     * @return {@code true} if the set contains all the elements
+     */
+    public boolean containsAll(long... elements) {
+        for (long element : elements) {
+            if (!contains(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of elements
+     */
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * @return {@code true} if the set has no elements
+     */
+    public boolean isEmpty() {
+        return to == from;
+    }
+
+    /**
+     * @return the smallest element
+     * @throws NoSuchElementException if the set is empty
+     */
+    public long first() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return elements[from];
+    }
+
+    /**
+     * @return the largest element
+     * @throws NoSuchElementException if the set is empty
+     */
+    public long last() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return elements[to - 1];
+    }
+
+    /**
+     * Create a view of the elements in a range, sharing the array of this set.
+     *
+     * @param fromInclusive the smallest element of the range
+     * @param toExclusive the element after the range
+     * @return the elements of the range
+     */
+    public SortedLongArraySet subSet(long fromInclusive, long toExclusive) {
+        if (fromInclusive > toExclusive) {
+            throw new IllegalArgumentException(String.format("fromInclusive > toExclusive: %d > %d", fromInclusive, toExclusive));
+        }
+        final int newFrom = gallop(elements, from, to, fromInclusive);
+        final int newTo = gallop(elements, newFrom, to, toExclusive);
+        return newFrom == from && newTo == to ? this : new SortedLongArraySet(elements, newFrom, newTo);
+    }
+
+    /**
+     * Find the first index of {@code array[from, to)} whose element is not less than the key,
+     * probing {@code from + 1, from + 2, from + 4, ...} before searching the last range binarily.
+     *
+     * @return the index, or {@code to} if all elements are less than the key
+     */
+    private static int gallop(long[] array, int from, int to, long key) {
+        if (from >= to || array[from] >= key) {
+            return from;
+        }
+        int low = from;
+        int step = 1;
+        int high = from + step;
+        while (high < to && array[high] < key) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        final int i = Arrays.binarySearch(array, low + 1, Math.min(high, to), key);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /**
+     * Intersect with another set by galloping through both arrays past the elements missing
+     * from the other.
+     *
+     * @param other the other set
+     * @return a new set of the elements in both sets
+     */
+    public SortedLongArraySet intersection(SortedLongArraySet other) {
+        final long[] common = new long[Math.min(size(), other.size())];
+        final int size = intersect(other, common);
+        return size == 0 ? EMPTY : new SortedLongArraySet(size == common.length ? common : Arrays.copyOf(common, size), 0, size);
+    }
+
+    /**
+     * @param other the other set
+     * @return the number of elements in both sets, without creating their intersection
+     */
+    public int intersectionSize(SortedLongArraySet other) {
+        return intersect(other, null);
+    }
+
+    private int intersect(SortedLongArraySet other, long[] out) {
+        final long[] a = elements;
+        final long[] b = other.elements;
+        int i = from;
+        int j = other.from;
+        int size = 0;
+        while (i < to && j < other.to) {
+            if (a[i] == b[j]) {
+                if (out != null) {
+                    out[size] = a[i];
+                }
+                size++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i = gallop(a, i + 1, to, b[j]);
+            } else {
+                j = gallop(b, j + 1, other.to, a[i]);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Perform the action for each element in ascending order.
+     *
+     * @param action the action
+     */
+    public void forEach(LongConsumer action) {
+        for (int i = from; i < to; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    /**
+     * @return an iterator of the elements in ascending order
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private int i = from;
+
+            @Override
+            public boolean hasNext() {
+                return i < to;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return elements[i++];
+            }
+        };
+    }
+
+    /**
+     * @return the elements in ascending order
+     */
+    public long[] toArray() {
+        return Arrays.copyOfRange(elements, from, to);
+    }
+
+    /**
+     * @return a stream of the elements in ascending order
+     */
+    public LongStream stream() {
+        return Arrays.stream(elements, from, to);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SortedLongArraySet)) {
+            return false;
+        }
+        final SortedLongArraySet other = (SortedLongArraySet) o;
+        if (other.size() != size()) {
+            return false;
+        }
+        for (int i = from, j = other.from; i < to; i++, j++) {
+            if (elements[i] != other.elements[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash += Long.hashCode(elements[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        forEach(element -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(element);
+        });
+        return builder.append(']').toString();
+    }
+}
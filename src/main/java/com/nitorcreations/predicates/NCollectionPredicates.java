@@ -1,6 +1,9 @@
 package com.nitorcreations.predicates;
 
+import com.nitorcreations.collections.MembershipFilter;
+
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.function.Predicate;
 
 import static com.nitorcreations.predicates.NPredicates.*;
@@ -149,4 +152,16 @@ public final class NCollectionPredicates {
     public static <T, S extends Iterable<T>> Predicate<S> doesNotContainAllOf(Iterable<T> elements) {
         return NPredicates.<S>notNull().and(not(containsAll(elements)));
     }
+
+    /**
+     * Checks that the element might be in the filter, so that a stream can skip elements that
+     * are definitely absent before an expensive lookup
+     * @param filter the filter of the possible elements
+     * @param <T> type of an element
+     * @return predicate
+     */
+    public static <T> Predicate<T> mightContain(MembershipFilter<T> filter) {
+        Objects.requireNonNull(filter);
+        return filter::mightContain;
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015- Nitor Creations Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.nitorcreations.streams;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+
+/**
+ * Accumulates the entries of a collector to an {@link EnumMap} when the first key is an enum
+ * constant, and to a {@link HashMap} otherwise. Should a later key be {@code null} or of another
+ * type, the entries collected so far are moved to a {@link HashMap}.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class EnumAwareAccumulator<K, V> {
+    private final BinaryOperator<V> mergeFn;
+    private Map<K, V> map;
+    private Class<?> enumType;
+
+    /**
+     * @param mergeFn the function to merge the values of duplicate keys, or {@code null} to
+     *                throw on duplicate keys
+     */
+    EnumAwareAccumulator(BinaryOperator<V> mergeFn) {
+        this.mergeFn = mergeFn;
+    }
+
+    void put(K key, V value) {
+        Objects.requireNonNull(value);
+        final Map<K, V> target = mapFor(key);
+        if (mergeFn != null) {
+            target.merge(key, value, mergeFn);
+        } else if (target.putIfAbsent(key, value) != null) {
+            throw new IllegalStateException(String.format("Duplicate key %s", key));
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Map<K, V> mapFor(K key) {
+        if (map == null) {
+            if (key instanceof Enum) {
+                enumType = ((Enum<?>) key).getDeclaringClass();
+                map = new EnumMap(enumType);
+            } else {
+                map = new HashMap<>();
+            }
+        } else if (enumType != null && !enumType.isInstance(key)) {
+            enumType = null;
+            map = new HashMap<>(map);
+        }
+        return map;
+    }
+
+    EnumAwareAccumulator<K, V> combine(EnumAwareAccumulator<K, V> other) {
+        if (other.map != null) {
+            other.map.forEach(this::put);
+        }
+        return this;
+    }
+
+    Map<K, V> toMap() {
+        return map == null ? new HashMap<>() : map;
+    }
+}
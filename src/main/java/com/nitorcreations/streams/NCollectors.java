@@ -17,55 +17,413 @@
 
 package com.nitorcreations.streams;
 
+import com.nitorcreations.collections.BloomFilter;
+import com.nitorcreations.collections.CuckooFilter;
+import com.nitorcreations.collections.InternPool;
+import com.nitorcreations.collections.OrderedMap;
+import com.nitorcreations.collections.primitive.IntBitmap;
+import com.nitorcreations.collections.primitive.IntHashSet;
+import com.nitorcreations.collections.primitive.IntObjectMap;
+import com.nitorcreations.collections.primitive.LongHashSet;
+import com.nitorcreations.collections.primitive.LongObjectMap;
+import com.nitorcreations.collections.primitive.ObjectIntMap;
+import com.nitorcreations.collections.primitive.ObjectLongMap;
+
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collector;
 
-import static java.util.function.Function.identity;
-import static java.util.stream.Collectors.counting;
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collector.Characteristics.CONCURRENT;
+import static java.util.stream.Collector.Characteristics.UNORDERED;
 
 public final class NCollectors {
     private NCollectors() { /** prevent instantiation */}
 
     /**
-     * Counts occurrences of different elements in the stream
+     * Counts occurrences of different elements in the stream. Counts of enum constants are
+     * collected to an {@link EnumMap}.
      * @param <T> type of a single element in the stream
      * @return collector
      */
     public static <T> Collector<T, ?, Map<T, Long>> countingOccurrences() {
-        return groupingBy(identity(), counting());
+        return Collector.of(
+                () -> new EnumAwareAccumulator<T, Long>(Long::sum),
+                (acc, element) -> acc.put(Objects.requireNonNull(element, "element cannot be mapped to a null key"), 1L),
+                EnumAwareAccumulator::combine,
+                EnumAwareAccumulator::toMap
+        );
     }
 
     /**
      * NOTE: will throw exception on duplicate keys. See {@link #entriesToMap(BinaryOperator)} to
-     * cope with this.
+     * cope with this. Entries with enum keys are collected to an {@link EnumMap}.
      * @param <K> key
      * @param <V> val
      * @return collector
      * @see #entriesToMap(BinaryOperator)
      */
     public static <K,V> Collector<Map.Entry<K,V>, ?, Map<K, V>> entriesToMap() {
-        return toMap(
-                entry -> entry.getKey(),
-                entry -> entry.getValue()
-        );
+        return enumAwareMap(null);
     }
 
     /**
      * Collect a stream of entries to a map. Uses {@code mergeFn} to decide what to do on duplicate keys.
-     * If duplicate keys are not expected, you can use {@link #entriesToMap()}
+     * If duplicate keys are not expected, you can use {@link #entriesToMap()}. Entries with enum
+     * keys are collected to an {@link EnumMap}.
      * @param mergeFn the function to merge values for duplicate keys.
      * @param <K> key
      * @param <V> val
      * @return collector
      */
     public static <K,V> Collector<Map.Entry<K,V>, ?, Map<K, V>> entriesToMap(BinaryOperator<V> mergeFn) {
-        return toMap(
-                entry -> entry.getKey(),
-                entry -> entry.getValue(),
-                mergeFn
+        return enumAwareMap(Objects.requireNonNull(mergeFn));
+    }
+
+    /**
+     * Collect a stream of entries to an {@link OrderedMap}, which iterates in encounter order.
+     * NOTE: will throw exception on duplicate keys. See {@link #entriesToOrderedMap(BinaryOperator)}
+     * to cope with this.
+     * @param <K> key
+     * @param <V> val
+     * @return collector
+     */
+    public static <K,V> Collector<Map.Entry<K,V>, ?, OrderedMap<K, V>> entriesToOrderedMap() {
+        return Collector.of(
+                OrderedMap<K, V>::new,
+                (map, entry) -> putUnique(map, entry.getKey(), entry.getValue()),
+                (left, right) -> {
+                    right.forEach((key, value) -> putUnique(left, key, value));
+                    return left;
+                }
+        );
+    }
+
+    /**
+     * Collect a stream of entries to an {@link OrderedMap}, which iterates in encounter order.
+     * Uses {@code mergeFn} to decide what to do on duplicate keys, the merged entry keeps the
+     * position of the first one.
+     * @param mergeFn the function to merge values for duplicate keys.
+     * @param <K> key
+     * @param <V> val
+     * @return collector
+     */
+    public static <K,V> Collector<Map.Entry<K,V>, ?, OrderedMap<K, V>> entriesToOrderedMap(BinaryOperator<V> mergeFn) {
+        Objects.requireNonNull(mergeFn);
+        return Collector.of(
+                OrderedMap<K, V>::new,
+                (map, entry) -> map.merge(entry.getKey(), entry.getValue(), mergeFn),
+                (left, right) -> {
+                    right.forEach((key, value) -> left.merge(key, value, mergeFn));
+                    return left;
+                }
+        );
+    }
+
+    private static <K,V> void putUnique(Map<K, V> map, K key, V value) {
+        if (map.putIfAbsent(key, Objects.requireNonNull(value)) != null) {
+            throw new IllegalStateException(String.format("Duplicate key %s", key));
+        }
+    }
+
+    /**
+     * Collect a stream of entries to a map with the keys replaced by their canonical instances in
+     * the {@code keyPool}. NOTE: will throw exception on duplicate keys.
+     * @param keyPool the pool of canonical keys
+     * @param <K> key
+     * @param <V> val
+     * @return collector
+     * @see #entriesToMap()
+     */
+    public static <K,V> Collector<Map.Entry<K,V>, ?, Map<K, V>> entriesToMap(InternPool<K> keyPool) {
+        Objects.requireNonNull(keyPool);
+        return Collector.of(
+                () -> new EnumAwareAccumulator<K, V>(null),
+                (acc, entry) -> acc.put(keyPool.intern(entry.getKey()), entry.getValue()),
+                EnumAwareAccumulator::combine,
+                EnumAwareAccumulator::toMap
+        );
+    }
+
+    /**
+     * Collect a stream of entries to a map with the keys and values replaced by their canonical
+     * instances in the {@code keyPool} and {@code valuePool}. NOTE: will throw exception on
+     * duplicate keys.
+     * @param keyPool the pool of canonical keys
+     * @param valuePool the pool of canonical values
+     * @param <K> key
+     * @param <V> val
+     * @return collector
+     * @see #entriesToMap()
+     */
+    public static <K,V> Collector<Map.Entry<K,V>, ?, Map<K, V>> entriesToMap(InternPool<K> keyPool, InternPool<V> valuePool) {
+        Objects.requireNonNull(keyPool);
+        Objects.requireNonNull(valuePool);
+        return Collector.of(
+                () -> new EnumAwareAccumulator<K, V>(null),
+                (acc, entry) -> acc.put(keyPool.intern(entry.getKey()), valuePool.intern(entry.getValue())),
+                EnumAwareAccumulator::combine,
+                EnumAwareAccumulator::toMap
         );
     }
+
+    private static <K,V> Collector<Map.Entry<K,V>, ?, Map<K, V>> enumAwareMap(BinaryOperator<V> mergeFn) {
+        return Collector.of(
+                () -> new EnumAwareAccumulator<K, V>(mergeFn),
+                (acc, entry) -> acc.put(entry.getKey(), entry.getValue()),
+                EnumAwareAccumulator::combine,
+                EnumAwareAccumulator::toMap
+        );
+    }
+
+    /**
+     * Counts occurrences of different elements in the stream to a map with unboxed counts.
+     * @param <T> type of a single element in the stream
+     * @return collector
+     * @see #countingOccurrences()
+     */
+    public static <T> Collector<T, ?, ObjectLongMap<T>> countingOccurrencesAsLongMap() {
+        return Collector.of(
+                ObjectLongMap::new,
+                (map, element) -> map.addTo(element, 1),
+                (left, right) -> {
+                    right.forEach(left::addTo);
+                    return left;
+                },
+                UNORDERED
+        );
+    }
+
+    /**
+     * Collect a stream to a map with unboxed {@code int} keys. NOTE: will throw exception on
+     * duplicate keys.
+     * @param keyFn the function to extract the key
+     * @param valueFn the function to extract the value
+     * @param <T> type of a single element in the stream
+     * @param <V> val
+     * @return collector
+     */
+    public static <T, V> Collector<T, ?, IntObjectMap<V>> toIntObjectMap(ToIntFunction<? super T> keyFn, Function<? super T, ? extends V> valueFn) {
+        return Collector.of(
+                IntObjectMap<V>::new,
+                (map, element) -> putUnique(map, keyFn.applyAsInt(element), valueFn.apply(element)),
+                (left, right) -> {
+                    right.forEach((key, value) -> putUnique(left, key, value));
+                    return left;
+                },
+                UNORDERED
+        );
+    }
+
+    private static <V> void putUnique(IntObjectMap<V> map, int key, V value) {
+        if (map.containsKey(key)) {
+            throw new IllegalStateException(String.format("Duplicate key %d", key));
+        }
+        map.put(key, value);
+    }
+
+    /**
+     * Collect a stream to a map with unboxed {@code long} keys. NOTE: will throw exception on
+     * duplicate keys.
+     * @param keyFn the function to extract the key
+     * @param valueFn the function to extract the value
+     * @param <T> type of a single element in the stream
+     * @param <V> val
+     * @return collector
+     */
+    public static <T, V> Collector<T, ?, LongObjectMap<V>> toLongObjectMap(ToLongFunction<? super T> keyFn, Function<? super T, ? extends V> valueFn) {
+        return Collector.of(
+                LongObjectMap<V>::new,
+                (map, element) -> putUnique(map, keyFn.applyAsLong(element), valueFn.apply(element)),
+                (left, right) -> {
+                    right.forEach((key, value) -> putUnique(left, key, value));
+                    return left;
+                },
+                UNORDERED
+        );
+    }
+
+    private static <V> void putUnique(LongObjectMap<V> map, long key, V value) {
+        if (map.containsKey(key)) {
+            throw new IllegalStateException(String.format("Duplicate key %d", key));
+        }
+        map.put(key, value);
+    }
+
+    /**
+     * Collect a stream to a Bloom filter. Parallel streams fill a single filter concurrently, as
+     * the filter is thread-safe, so no copies of its bit array are built or merged.
+     * @param expectedSize the expected number of elements
+     * @param falsePositiveRate the desired false positive rate at the expected number of elements
+     * @param <T> type of a single element in the stream
+     * @return collector
+     */
+    public static <T> Collector<T, ?, BloomFilter<T>> toBloomFilter(long expectedSize, double falsePositiveRate) {
+        return Collector.of(
+                () -> new BloomFilter<T>(expectedSize, falsePositiveRate),
+                BloomFilter::put,
+                (left, right) -> {
+                    if (left != right) {
+                        left.merge(right);
+                    }
+                    return left;
+                },
+                CONCURRENT,
+                UNORDERED
+        );
+    }
+
+    /**
+     * Collect a stream to a cuckoo filter. Parallel streams build a full-size filter for each
+     * task the stream is split into, several per thread of the pool, and merge them, so they
+     * hold many times the memory of the resulting filter while collecting. Use a sequential
+     * stream for filters that are large compared to the available memory.
+     * @param expectedSize the expected number of elements
+     * @param <T> type of a single element in the stream
+     * @return collector
+     */
+    public static <T> Collector<T, ?, CuckooFilter<T>> toCuckooFilter(long expectedSize) {
+        return Collector.of(
+                () -> new CuckooFilter<T>(expectedSize),
+                CuckooFilter::put,
+                (left, right) -> {
+                    left.merge(right);
+                    return left;
+                },
+                UNORDERED
+        );
+    }
+
+    /**
+     * Collect a stream of integers to a set of unboxed {@code int}s.
+     * @return collector
+     */
+    public static Collector<Integer, ?, IntHashSet> toIntSet() {
+        return toIntSet(Integer::intValue);
+    }
+
+    /**
+     * Collect a stream to a set of unboxed {@code int}s.
+     * @param elementFn the function to extract the element
+     * @param <T> type of a single element in the stream
+     * @return collector
+     */
+    public static <T> Collector<T, ?, IntHashSet> toIntSet(ToIntFunction<? super T> elementFn) {
+        return Collector.of(
+                IntHashSet::new,
+                (set, element) -> set.add(elementFn.applyAsInt(element)),
+                (left, right) -> {
+                    left.addAll(right.toArray());
+                    return left;
+                },
+                UNORDERED
+        );
+    }
+
+    /**
+     * Collect a stream of integers to a compressed bitmap set. For an {@code IntStream}, use
+     * {@link com.nitorcreations.collections.NSets#asIntBitmap(java.util.stream.IntStream)}.
+     * @return collector
+     */
+    public static Collector<Integer, ?, IntBitmap> toIntBitmap() {
+        return Collector.of(
+                IntBitmap::new,
+                IntBitmap::add,
+                (left, right) -> {
+                    left.addAll(right);
+                    return left;
+                },
+                bitmap -> {
+                    bitmap.runOptimize();
+                    return bitmap;
+                },
+                UNORDERED
+        );
+    }
+
+    /**
+     * Collect a stream of longs to a set of unboxed {@code long}s.
+     * @return collector
+     */
+    public static Collector<Long, ?, LongHashSet> toLongSet() {
+        return toLongSet(Long::longValue);
+    }
+
+    /**
+     * Collect a stream to a set of unboxed {@code long}s.
+     * @param elementFn the function to extract the element
+     * @param <T> type of a single element in the stream
+     * @return collector
+     */
+    public static <T> Collector<T, ?, LongHashSet> toLongSet(ToLongFunction<? super T> elementFn) {
+        return Collector.of(
+                LongHashSet::new,
+                (set, element) -> set.add(elementFn.applyAsLong(element)),
+                (left, right) -> {
+                    left.addAll(right.toArray());
+                    return left;
+                },
+                UNORDERED
+        );
+    }
+
+    /**
+     * Collect a stream to a map with unboxed {@code int} values. NOTE: will throw exception on
+     * duplicate keys.
+     * @param keyFn the function to extract the key
+     * @param valueFn the function to extract the value
+     * @param <T> type of a single element in the stream
+     * @param <K> key
+     * @return collector
+     */
+    public static <T, K> Collector<T, ?, ObjectIntMap<K>> toObjectIntMap(Function<? super T, ? extends K> keyFn, ToIntFunction<? super T> valueFn) {
+        return Collector.of(
+                ObjectIntMap<K>::new,
+                (map, element) -> putUnique(map, keyFn.apply(element), valueFn.applyAsInt(element)),
+                (left, right) -> {
+                    right.forEach((key, value) -> putUnique(left, key, value));
+                    return left;
+                },
+                UNORDERED
+        );
+    }
+
+    private static <K> void putUnique(ObjectIntMap<K> map, K key, int value) {
+        if (map.containsKey(key)) {
+            throw new IllegalStateException(String.format("Duplicate key %s", key));
+        }
+        map.put(key, value);
+    }
+
+    /**
+     * Collect a stream to a map with unboxed {@code long} values. NOTE: will throw exception on
+     * duplicate keys.
+     * @param keyFn the function to extract the key
+     * @param valueFn the function to extract the value
+     * @param <T> type of a single element in the stream
+     * @param <K> key
+     * @return collector
+     */
+    public static <T, K> Collector<T, ?, ObjectLongMap<K>> toObjectLongMap(Function<? super T, ? extends K> keyFn, ToLongFunction<? super T> valueFn) {
+        return Collector.of(
+                ObjectLongMap<K>::new,
+                (map, element) -> putUnique(map, keyFn.apply(element), valueFn.applyAsLong(element)),
+                (left, right) -> {
+                    right.forEach((key, value) -> putUnique(left, key, value));
+                    return left;
+                },
+                UNORDERED
+        );
+    }
+
+    private static <K> void putUnique(ObjectLongMap<K> map, K key, long value) {
+        if (map.containsKey(key)) {
+            throw new IllegalStateException(String.format("Duplicate key %s", key));
+        }
+        map.put(key, value);
+    }
 }
@@ -0,0 +1,235 @@
+package com.nitorcreations.collections;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class ExpiringMapTest {
+
+    private static final long TTL = TimeUnit.SECONDS.toNanos(10);
+    private static final long REFRESH_AHEAD = TimeUnit.SECONDS.toNanos(2);
+
+    private final AtomicLong ticker = new AtomicLong(-TimeUnit.SECONDS.toNanos(5));
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Integer, String> loader = i -> "value" + i + "-" + loads.incrementAndGet();
+
+    private ExpiringMap<Integer, String> map(long refreshAhead) {
+        return new ExpiringMap<>(loader, TTL, refreshAhead, Runnable::run, ticker::get);
+    }
+
+    private void advance(long seconds) {
+        ticker.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    @Test
+    public void testGet_expiresAfterTimeToLive() {
+        final ExpiringMap<Integer, String> map = map(0);
+        map.put(1, "one");
+        advance(9);
+        assertThat(map.get(1)).isEqualTo("one");
+        advance(1);
+        assertThat(map.get(1)).isNull();
+        assertThat(map.containsKey(1)).isFalse();
+        assertThat(map).isEmpty();
+        assertThat(loads.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void testCleanUp_removesExpiredEntries() {
+        final ExpiringMap<Integer, String> map = map(0);
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "v" + i);
+        }
+        map.put(100, "long", Duration.ofMinutes(5));
+        advance(11);
+        map.cleanUp();
+        assertThat(map.expirationCount()).isEqualTo(100);
+        assertThat(map).hasSize(1).containsEntry(100, "long");
+        advance(300);
+        assertThat(map).isEmpty();
+    }
+
+    @Test
+    public void testPut_replacesTimeToLive() {
+        final ExpiringMap<Integer, String> map = map(0);
+        assertThat(map.put(1, "one")).isNull();
+        advance(8);
+        assertThat(map.put(1, "uno")).isEqualTo("one");
+        advance(8);
+        assertThat(map.get(1)).isEqualTo("uno");
+        advance(2);
+        assertThat(map.get(1)).isNull();
+    }
+
+    @Test
+    public void testRemove() {
+        final ExpiringMap<Integer, String> map = map(0);
+        map.put(1, "one");
+        assertThat(map.remove(1)).isEqualTo("one");
+        assertThat(map.remove(1)).isNull();
+        advance(20);
+        assertThat(map.expirationCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testRemove_throughViews() {
+        final ExpiringMap<Integer, String> map = map(0);
+        for (int i = 0; i < 10; i++) {
+            map.put(i, "v" + i);
+        }
+        assertThat(map.keySet().remove(1)).isTrue();
+        assertThat(map.values().remove("v2")).isTrue();
+        assertThat(map.entrySet().removeIf(entry -> entry.getKey() >= 5)).isTrue();
+        assertThat(map).containsOnlyKeys(0, 3, 4);
+        advance(20);
+        map.cleanUp();
+        assertThat(map.expirationCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testAtomicOperations_treatExpiredAsAbsent() {
+        final ExpiringMap<Integer, String> map = map(0);
+        assertThat(map.putIfAbsent(1, "one")).isNull();
+        advance(5);
+        assertThat(map.putIfAbsent(1, "uno")).isEqualTo("one");
+        advance(5);
+        assertThat(map.putIfAbsent(1, "uno")).isNull();
+        assertThat(map.replace(1, "one", "ein")).isFalse();
+        assertThat(map.replace(1, "uno", "ein")).isTrue();
+        assertThat(map.replace(2, "two")).isNull();
+        assertThat(map.computeIfAbsent(2, i -> "two")).isEqualTo("two");
+        assertThat(map.computeIfPresent(2, (i, value) -> value + "!")).isEqualTo("two!");
+        assertThat(map.merge(2, "?", String::concat)).isEqualTo("two!?");
+        assertThat(map.compute(2, (i, value) -> null)).isNull();
+        assertThat(map.remove(1, "uno")).isFalse();
+        assertThat(map.remove(1, "ein")).isTrue();
+        assertThat(map).isEmpty();
+        map.merge(3, "three", String::concat);
+        advance(10);
+        assertThat(map.merge(3, "drei", String::concat)).isEqualTo("drei");
+    }
+
+    @Test
+    public void testAtomicOperations_unchangedValueKeepsExpiry() {
+        final ExpiringMap<Integer, String> map = map(0);
+        map.put(1, "one");
+        advance(9);
+        map.putIfAbsent(1, "uno");
+        map.computeIfAbsent(1, i -> "uno");
+        advance(1);
+        assertThat(map.get(1)).isNull();
+        map.put(1, "one");
+        advance(9);
+        map.merge(1, "!", String::concat);
+        advance(9);
+        assertThat(map.get(1)).isEqualTo("one!");
+    }
+
+    @Test
+    public void testMerge_isAtomic() throws InterruptedException {
+        final ExpiringMap<Integer, Integer> map = new ExpiringMap<>(i -> i, TTL, 0, Runnable::run, ticker::get);
+        final Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    map.merge(i % 10, 1, Integer::sum);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(map.values().stream().mapToInt(Integer::intValue).sum()).isEqualTo(40_000);
+    }
+
+    @Test
+    public void testGet_refreshesAhead() {
+        final ExpiringMap<Integer, String> map = map(REFRESH_AHEAD);
+        map.put(1, "one");
+        advance(7);
+        assertThat(map.get(1)).isEqualTo("one");
+        advance(2);
+        assertThat(map.get(1)).isEqualTo("value1-1");
+        assertThat(map.get(1)).isEqualTo("value1-1");
+        assertThat(map.refreshCount()).isEqualTo(1);
+        advance(9);
+        assertThat(map.get(1)).isEqualTo("value1-2");
+        assertThat(map.refreshCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testCleanUp_refreshesAhead() {
+        final ExpiringMap<Integer, String> map = map(REFRESH_AHEAD);
+        for (int i = 0; i < 10; i++) {
+            map.put(i, "v" + i);
+        }
+        advance(9);
+        map.cleanUp();
+        assertThat(loads.get()).isEqualTo(10);
+        advance(5);
+        assertThat(map).hasSize(10).containsKey(3);
+        assertThat(map.expirationCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testRefresh_failureKeepsValueUntilExpiry() {
+        final ExpiringMap<Integer, String> map = new ExpiringMap<>(i -> {
+            throw new IllegalStateException("unavailable");
+        }, TTL, REFRESH_AHEAD, runnable -> {
+            try {
+                runnable.run();
+            } catch (IllegalStateException e) {
+                // the executor swallows task failures
+            }
+        }, ticker::get);
+        map.put(1, "one");
+        advance(9);
+        assertThat(map.get(1)).isEqualTo("one");
+        assertThat(map.refreshCount()).isEqualTo(2);
+        assertThat(map.get(1)).isEqualTo("one");
+        assertThat(map.refreshCount()).isEqualTo(3);
+        advance(1);
+        assertThat(map.get(1)).isNull();
+    }
+
+    @Test
+    public void testTimerWheel_firesInOrderAcrossLevels() {
+        final TimerWheel<TimerWheel.Timer> wheel = new TimerWheel<>(ticker.get());
+        final Random random = new Random(42);
+        final long start = ticker.get();
+        final TimerWheel.Timer[] timers = new TimerWheel.Timer[1000];
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new TimerWheel.Timer();
+            wheel.schedule(timers[i], start + (long) (random.nextDouble() * TimeUnit.HOURS.toNanos(10)));
+        }
+        final AtomicInteger fired = new AtomicInteger();
+        for (long now = start; fired.get() < timers.length; now += TimeUnit.SECONDS.toNanos(random.nextInt(120))) {
+            final long time = now;
+            wheel.advance(now, timer -> {
+                assertThat(timer.time).isLessThanOrEqualTo(time);
+                fired.incrementAndGet();
+            });
+            assertThat(now - start).isLessThan(TimeUnit.HOURS.toNanos(11));
+        }
+    }
+
+    @Test
+    public void testExpiringMapping() {
+        final ExpiringMap<Integer, String> map = NMaps.expiringMapping(NSets.asSet(1, 2), loader, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        assertThat(map).hasSize(2).containsKeys(1, 2);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testExpiringMapping_refreshAheadNotShorterThanTimeToLive() {
+        NMaps.expiringMapping(NSets.asSet(1), loader, Duration.ofSeconds(1), Duration.ofSeconds(1));
+    }
+}
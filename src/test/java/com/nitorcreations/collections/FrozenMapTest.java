@@ -0,0 +1,90 @@
+package com.nitorcreations.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.nitorcreations.collections.NMaps.mapOf;
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class FrozenMapTest {
+
+    @Test
+    public void testEmpty() {
+        final FrozenMap<String, Integer> frozen = NMaps.freeze(new HashMap<>());
+        assertThat(frozen).isEmpty();
+        assertThat(frozen.get("a")).isNull();
+        assertThat(frozen.bytesPerEntry()).isEqualTo(0.0);
+    }
+
+    @Test
+    public void testSmall() {
+        final Map<String, Integer> map = mapOf("a", 1, "b", 2, "c", 3);
+        final FrozenMap<String, Integer> frozen = NMaps.freeze(map);
+        assertThat(frozen).isEqualTo(map).hasSize(3);
+        assertThat(frozen.get("d")).isNull();
+        assertThat(frozen.get(null)).isNull();
+        assertThat(frozen.containsKey("b")).isTrue();
+    }
+
+    @Test
+    public void testLarge() {
+        final Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            map.put("key" + i, i);
+        }
+        final FrozenMap<String, Integer> frozen = NMaps.freeze(map);
+
+        assertThat(frozen).hasSize(map.size()).isEqualTo(map);
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(frozen.get("key" + i)).isEqualTo(i);
+            assertThat(frozen.get("other" + i)).isNull();
+        }
+        assertThat(frozen.buildNanos()).isPositive();
+        assertThat(frozen.bytesPerEntry()).isLessThan(10.0);
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        final Map<Colliding, Integer> map = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(new Colliding(i), i);
+        }
+        final FrozenMap<Colliding, Integer> frozen = NMaps.freeze(map);
+
+        assertThat(frozen).hasSize(100).isEqualTo(map);
+        assertThat(frozen.get(new Colliding(5))).isEqualTo(5);
+        assertThat(frozen.get(new Colliding(100))).isNull();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        NMaps.freeze(mapOf("a", 1)).put("b", 2);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullValue() {
+        final Map<String, Integer> map = new HashMap<>();
+        map.put("a", null);
+        NMaps.freeze(map);
+    }
+
+    private static final class Colliding {
+        private final int id;
+
+        Colliding(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Colliding && ((Colliding) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id / 10;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.nitorcreations.collections;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.nitorcreations.collections.NMaps.canonicalizing;
+import static com.nitorcreations.streams.NCollectors.entriesToMap;
+import static com.nitorcreations.streams.NMappers.entryOf;
+import static com.nitorcreations.test.Assertions.assertThat;
+import static java.util.Arrays.asList;
+
+public class InternPoolTest {
+
+    @Test
+    public void testIntern() {
+        final InternPool<String> pool = new InternPool<>(10);
+        final String first = new String("foo");
+        final String second = new String("foo");
+        assertThat(pool.intern(first)).isSameAs(first);
+        assertThat(pool.intern(second)).isSameAs(first);
+        assertThat(pool.intern(null)).isNull();
+        assertThat(pool.size()).isEqualTo(1);
+        assertThat(pool.hitCount()).isEqualTo(1);
+        assertThat(pool.missCount()).isEqualTo(1);
+        assertThat(pool.hitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    public void testBounded() {
+        final InternPool<String> pool = new InternPool<>(2);
+        pool.intern("a");
+        pool.intern("b");
+        final String c = new String("c");
+        assertThat(pool.intern(c)).isSameAs(c);
+        assertThat(pool.intern(new String("c"))).isNotSameAs(c);
+        assertThat(pool.size()).isEqualTo(2);
+        assertThat(pool.rejectionCount()).isEqualTo(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new InternPool<String>(0);
+    }
+
+    @Test
+    public void testCanonicalizingMaps() {
+        final InternPool<String> pool = new InternPool<>(100);
+        final String key = "key";
+        pool.intern(key);
+        final List<String> parsed = asList(new String("key"), new String("other"));
+
+        final Map<String, Integer> map = canonicalizing(pool).mapOfLists(parsed, asList(1, 2));
+        assertThat(map).containsEntry("key", 1).containsEntry("other", 2);
+        assertThat(map.keySet().stream().filter(k -> k == key).count()).isEqualTo(1L);
+
+        final Map<String, Integer> mapped = canonicalizing(pool).mapping(NSets.asSet(new String("key")), String::length);
+        assertThat(mapped.keySet().iterator().next()).isSameAs(key);
+
+        final Map<String, Integer> entries = canonicalizing(pool).mapOfEntries(entryOf(new String("key"), 1));
+        assertThat(entries.keySet().iterator().next()).isSameAs(key);
+
+        final Set<String> set = canonicalizing(pool).asSet(asList(new String("key")));
+        assertThat(set.iterator().next()).isSameAs(key);
+        assertThat(pool.hitCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void testCollectingWithPools() {
+        final InternPool<String> keys = new InternPool<>(1000);
+        final InternPool<String> values = new InternPool<>(1000);
+        final Map<String, String> map = IntStream.range(0, 100)
+                .mapToObj(i -> entryOf("key" + i, "value" + (i % 10)))
+                .collect(entriesToMap(keys, values));
+        assertThat(map).hasSize(100);
+        assertThat(values.size()).isEqualTo(10);
+        assertThat(values.hitCount()).isEqualTo(90);
+        assertThat(map.values().stream().map(System::identityHashCode).collect(Collectors.toSet())).hasSize(10);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCollectingWithPool_duplicateKeys() {
+        asList(entryOf("a", 1), entryOf(new String("a"), 2)).stream().collect(entriesToMap(new InternPool<>(10)));
+    }
+}
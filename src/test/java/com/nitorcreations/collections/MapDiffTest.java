@@ -0,0 +1,121 @@
+package com.nitorcreations.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.nitorcreations.collections.NMaps.diff;
+import static com.nitorcreations.collections.NMaps.mapOf;
+import static com.nitorcreations.collections.NMaps.parallelDiff;
+import static com.nitorcreations.streams.NMappers.entryOf;
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class MapDiffTest {
+    private final Map<String, Integer> before = mapOf("a", 1, "b", 2, "c", 3);
+    private final Map<String, Integer> after = mapOf("b", 2, "c", 30, "d", 4);
+
+    @Test
+    public void testDiff() {
+        assertDiff(diff(before, after));
+    }
+
+    @Test
+    public void testParallelDiff() {
+        assertDiff(parallelDiff(before, after));
+    }
+
+    @Test
+    public void testPersistentDiff() {
+        assertDiff(diff(PersistentMap.copyOf(before), PersistentMap.copyOf(after)));
+    }
+
+    private static void assertDiff(MapDiff<String, Integer> diff) {
+        assertThat(diff.added()).isEqualTo(mapOf("d", 4));
+        assertThat(diff.removed()).isEqualTo(mapOf("a", 1));
+        assertThat(diff.changed()).isEqualTo(mapOf("c", entryOf(3, 30)));
+        assertThat(diff.isEmpty()).isFalse();
+    }
+
+    @Test
+    public void testParallelDiff_nullKeysAndValues() {
+        final Map<String, Integer> before = new HashMap<>();
+        before.put(null, 1);
+        before.put("a", null);
+        before.put("b", null);
+        before.put("c", 3);
+        final Map<String, Integer> after = new HashMap<>();
+        after.put(null, 2);
+        after.put("a", null);
+        after.put("c", null);
+        after.put("d", null);
+
+        final MapDiff<String, Integer> diff = parallelDiff(before, after);
+        final Map<String, Integer> removed = new HashMap<>();
+        removed.put("b", null);
+        final Map<String, Integer> added = new HashMap<>();
+        added.put("d", null);
+        final Map<String, Map.Entry<Integer, Integer>> changed = new HashMap<>();
+        changed.put(null, entryOf(1, 2));
+        changed.put("c", entryOf(3, null));
+        assertThat(diff.removed()).isEqualTo(removed).isEqualTo(diff(before, after).removed());
+        assertThat(diff.added()).isEqualTo(added).isEqualTo(diff(before, after).added());
+        assertThat(diff.changed()).isEqualTo(changed).isEqualTo(diff(before, after).changed());
+    }
+
+    @Test
+    public void testSameMap() {
+        assertThat(diff(before, before).isEmpty()).isTrue();
+        assertThat(diff(before, new HashMap<>(before)).isEmpty()).isTrue();
+        assertThat(parallelDiff(before, new HashMap<>(before)).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testDiff_isLive() {
+        final Map<String, Integer> mutable = new HashMap<>(before);
+        final MapDiff<String, Integer> diff = diff(before, mutable);
+        assertThat(diff.isEmpty()).isTrue();
+        mutable.put("e", 5);
+        assertThat(diff.added()).isEqualTo(mapOf("e", 5));
+    }
+
+    @Test
+    public void testPersistentDiff_largeWithSharedStructure() {
+        final Map<Integer, Integer> source = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            source.put(i, i);
+        }
+        final PersistentMap<Integer, Integer> base = PersistentMap.copyOf(source);
+        final PersistentMap<Integer, Integer> updated = base.plus(-1, -1).plus(5, 50).minus(7);
+        final Map<Integer, Integer> updatedCopy = new HashMap<>(updated);
+
+        final MapDiff<Integer, Integer> structural = diff(base, updated);
+        assertThat(structural.added()).isEqualTo(mapOf(-1, -1));
+        assertThat(structural.removed()).isEqualTo(mapOf(7, 7));
+        assertThat(structural.changed()).isEqualTo(mapOf(5, entryOf(5, 50)));
+
+        final MapDiff<Integer, Integer> generic = parallelDiff(source, updatedCopy);
+        assertThat(generic.added()).isEqualTo(structural.added());
+        assertThat(generic.removed()).isEqualTo(structural.removed());
+        assertThat(generic.changed()).isEqualTo(structural.changed());
+    }
+
+    @Test
+    public void testPersistentDiff_matchesViews() {
+        final Random random = new Random(42);
+        PersistentMap<Integer, Integer> base = PersistentMap.empty();
+        for (int i = 0; i < 2_000; i++) {
+            base = base.plus(random.nextInt(5_000), random.nextInt(3));
+        }
+        PersistentMap<Integer, Integer> updated = base;
+        for (int i = 0; i < 500; i++) {
+            updated = random.nextBoolean() ? updated.plus(random.nextInt(5_000), random.nextInt(3)) : updated.minus(random.nextInt(5_000));
+        }
+        final MapDiff<Integer, Integer> structural = diff(base, updated);
+        final MapDiff<Integer, Integer> views = diff(new HashMap<>(base), new HashMap<>(updated));
+        assertThat(structural.added()).isEqualTo(new HashMap<>(views.added()));
+        assertThat(structural.removed()).isEqualTo(new HashMap<>(views.removed()));
+        assertThat(structural.changed()).isEqualTo(new HashMap<>(views.changed()));
+    }
+}
@@ -0,0 +1,120 @@
+package com.nitorcreations.collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.nitorcreations.collections.NMaps.mapOf;
+import static com.nitorcreations.collections.NMaps.mapSnapshot;
+import static com.nitorcreations.collections.NMaps.writeSnapshot;
+import static com.nitorcreations.test.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class MapSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndMap() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("map.snapshot");
+        writeSnapshot(mapOf("a", 1L, "bee", 2L, "cheetah", 3L), path, Codec.UTF8, Codec.LONG);
+
+        final Map<String, Long> map = mapSnapshot(path, Codec.UTF8, Codec.LONG);
+        assertThat(map).hasSize(3)
+                .containsEntry("a", 1L)
+                .containsEntry("bee", 2L)
+                .containsEntry("cheetah", 3L)
+                .isEqualTo(mapOf("a", 1L, "bee", 2L, "cheetah", 3L));
+        assertThat(map.get("b")).isNull();
+        assertThat(map.get(null)).isNull();
+        assertThat(map.containsKey(1)).isFalse();
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("empty.snapshot");
+        writeSnapshot(new HashMap<String, Integer>(), path, Codec.UTF8, Codec.INTEGER);
+        assertThat(mapSnapshot(path, Codec.UTF8, Codec.INTEGER)).isEmpty();
+    }
+
+    @Test
+    public void testLarge_recordsPaddedToChunks() throws IOException {
+        final Map<Integer, String> source = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            source.put(i, "value-" + i);
+        }
+        final Path path = folder.getRoot().toPath().resolve("large.snapshot");
+        MapSnapshot.write(source, path, Codec.INTEGER, Codec.UTF8, 12);
+
+        final Map<Integer, String> map = mapSnapshot(path, Codec.INTEGER, Codec.UTF8);
+        assertThat(map).hasSize(10_000).isEqualTo(source);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(map.get(i)).isEqualTo("value-" + i);
+        }
+        assertThat(map.get(10_000)).isNull();
+    }
+
+    @Test
+    public void testOverwrite() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("map.snapshot");
+        writeSnapshot(mapOf("a", 1), path, Codec.UTF8, Codec.INTEGER);
+        writeSnapshot(mapOf("b", 2), path, Codec.UTF8, Codec.INTEGER);
+        assertThat(mapSnapshot(path, Codec.UTF8, Codec.INTEGER)).isEqualTo(mapOf("b", 2));
+    }
+
+    @Test
+    public void testEntryLargerThanChunk_removesTemporaryFile() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("map.snapshot");
+        try {
+            MapSnapshot.write(mapOf("a", new String(new char[100])), path, Codec.UTF8, Codec.UTF8, 6);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertThat(folder.getRoot().list()).isEmpty();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testNotASnapshot() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("other");
+        Files.write(path, "not a snapshot".getBytes("UTF-8"));
+        mapSnapshot(path, Codec.UTF8, Codec.UTF8);
+    }
+
+    @Test
+    public void testCorruptHeader() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("map.snapshot");
+        writeSnapshot(mapOf("a", 1), path, Codec.UTF8, Codec.INTEGER);
+        final byte[] valid = Files.readAllBytes(path);
+        final int[][] corruptions = {{24, 64}, {24, -1}, {24, 0}, {16, 3}, {16, -8}, {8, -1}, {8, 1 << 20}};
+        for (int[] corruption : corruptions) {
+            final ByteBuffer header = ByteBuffer.wrap(valid.clone());
+            if (corruption[0] == 24) {
+                header.putInt(corruption[0], corruption[1]);
+            } else {
+                header.putLong(corruption[0], corruption[1]);
+            }
+            Files.write(path, header.array());
+            try {
+                mapSnapshot(path, Codec.UTF8, Codec.INTEGER);
+                fail("Expected IOException for header field at " + corruption[0] + " = " + corruption[1]);
+            } catch (IOException e) {
+                assertThat(e.getMessage()).startsWith("Not a map snapshot");
+            }
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("map.snapshot");
+        writeSnapshot(mapOf("a", 1), path, Codec.UTF8, Codec.INTEGER);
+        mapSnapshot(path, Codec.UTF8, Codec.INTEGER).put("b", 2);
+    }
+}
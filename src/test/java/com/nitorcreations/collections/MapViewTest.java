@@ -0,0 +1,83 @@
+package com.nitorcreations.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.nitorcreations.collections.NMaps.filterKeys;
+import static com.nitorcreations.collections.NMaps.filterValues;
+import static com.nitorcreations.collections.NMaps.mapOf;
+import static com.nitorcreations.collections.NMaps.transformValues;
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class MapViewTest {
+
+    @Test
+    public void testTransformValues_computedOnAccess() {
+        final Map<Integer, Integer> source = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            source.put(i, i);
+        }
+        final AtomicInteger calls = new AtomicInteger();
+        final MapView<Integer, String> view = transformValues(source, (key, value) -> {
+            calls.incrementAndGet();
+            return key + ":" + value * 2;
+        });
+
+        assertThat(view).hasSize(100_000);
+        assertThat(view.get(21)).isEqualTo("21:42");
+        assertThat(view.get(-1)).isNull();
+        assertThat(view.containsKey(5)).isTrue();
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTransformValues_isLive() {
+        final Map<String, Integer> source = new HashMap<>(mapOf("a", 1));
+        final MapView<String, Integer> view = transformValues(source, (key, value) -> value * 10);
+        source.put("b", 2);
+        assertThat(view).isEqualTo(mapOf("a", 10, "b", 20));
+    }
+
+    @Test
+    public void testMaterialize_isIndependent() {
+        final Map<String, Integer> source = new HashMap<>(mapOf("a", 1, "b", 2));
+        final Map<String, Integer> copy = transformValues(source, (key, value) -> value * 10).materialize();
+        source.put("c", 3);
+        assertThat(copy).isEqualTo(mapOf("a", 10, "b", 20));
+        copy.put("d", 40);
+        assertThat(copy).hasSize(3);
+    }
+
+    @Test
+    public void testFilterKeys() {
+        final MapView<String, Integer> view = filterKeys(mapOf("a", 1, "bee", 2, "cat", 3), key -> key.length() == 3);
+        assertThat(view).hasSize(2)
+                .containsEntry("bee", 2)
+                .containsEntry("cat", 3)
+                .doesNotContainKey("a");
+        assertThat(view.get("a")).isNull();
+        assertThat(view.materialize()).isEqualTo(mapOf("bee", 2, "cat", 3));
+    }
+
+    @Test
+    public void testFilterValues() {
+        final MapView<String, Integer> view = filterValues(mapOf("a", 1, "b", 2, "c", 3), value -> value % 2 == 1);
+        assertThat(view).isEqualTo(mapOf("a", 1, "c", 3));
+        assertThat(view.get("b")).isNull();
+        assertThat(filterValues(mapOf("a", 1), value -> false)).isEmpty();
+    }
+
+    @Test
+    public void testComposedViews() {
+        final MapView<String, Integer> view = filterValues(transformValues(mapOf("a", 1, "b", 2), (key, value) -> value * 10), value -> value > 10);
+        assertThat(view).isEqualTo(mapOf("b", 20));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() {
+        filterKeys(new HashMap<>(mapOf("a", 1)), key -> true).remove("a");
+    }
+}
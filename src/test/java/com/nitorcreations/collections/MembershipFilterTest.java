@@ -0,0 +1,115 @@
+package com.nitorcreations.collections;
+
+import com.nitorcreations.streams.NCollectors;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static com.nitorcreations.predicates.NCollectionPredicates.mightContain;
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class MembershipFilterTest {
+
+    private static final int SIZE = 100_000;
+
+    private static List<String> keys(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> "key-" + i).collect(Collectors.toList());
+    }
+
+    private static double falsePositiveRate(MembershipFilter<String> filter) {
+        return keys(SIZE, 3 * SIZE).stream().filter(mightContain(filter)).count() / (2.0 * SIZE);
+    }
+
+    @Test
+    public void testBloomFilter() {
+        final BloomFilter<String> filter = NSets.bloomFilter(keys(0, SIZE), SIZE, 0.01);
+        assertThat(keys(0, SIZE).stream().allMatch(filter::mightContain)).isTrue();
+        assertThat(falsePositiveRate(filter)).isBetween(0.005, 0.015);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.008, 0.012);
+        assertThat(filter.hashCount()).isEqualTo(7);
+        assertThat(filter.bitCount()).isBetween(9L * SIZE, 10L * SIZE);
+        assertThat((double) filter.approximateElementCount()).isBetween(0.98 * SIZE, 1.02 * SIZE);
+    }
+
+    @Test
+    public void testBloomFilter_parallelCollect() {
+        final BloomFilter<Long> filter = LongStream.range(0, SIZE).boxed().parallel().collect(NCollectors.toBloomFilter(SIZE, 0.001));
+        assertThat(LongStream.range(0, SIZE).allMatch(i -> filter.mightContain(i))).isTrue();
+        assertThat(LongStream.range(SIZE, 2 * SIZE).filter(i -> filter.mightContain(i)).count()).isLessThan(SIZE / 500);
+    }
+
+    @Test
+    public void testBloomFilter_concurrentPuts() {
+        final BloomFilter<Long> filter = new BloomFilter<>(SIZE, 0.01);
+        final BloomFilter<Long> sequential = new BloomFilter<>(SIZE, 0.01);
+        LongStream.range(0, SIZE).boxed().parallel().forEach(filter::put);
+        LongStream.range(0, SIZE).boxed().forEach(sequential::put);
+        assertThat(LongStream.range(0, SIZE).allMatch(i -> filter.mightContain(i))).isTrue();
+        assertThat(filter.approximateElementCount()).isEqualTo(sequential.approximateElementCount());
+    }
+
+    @Test
+    public void testBloomFilter_merge() {
+        final BloomFilter<Long> filter = new BloomFilter<>(SIZE, 0.01);
+        final BloomFilter<Long> other = new BloomFilter<>(SIZE, 0.01);
+        final BloomFilter<Long> all = new BloomFilter<>(SIZE, 0.01);
+        LongStream.range(0, SIZE / 2).boxed().forEach(filter::put);
+        LongStream.range(SIZE / 2, SIZE).boxed().forEach(other::put);
+        LongStream.range(0, SIZE).boxed().forEach(all::put);
+        filter.merge(other);
+        assertThat(LongStream.range(0, SIZE).allMatch(i -> filter.mightContain(i))).isTrue();
+        assertThat(filter.approximateElementCount()).isEqualTo(all.approximateElementCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBloomFilter_mergeDifferentSizes() {
+        new BloomFilter<String>(10, 0.01).merge(new BloomFilter<>(1000, 0.01));
+    }
+
+    @Test
+    public void testCuckooFilter() {
+        final CuckooFilter<String> filter = NSets.cuckooFilter(keys(0, SIZE), SIZE);
+        assertThat(filter.size()).isEqualTo(SIZE);
+        assertThat(keys(0, SIZE).stream().allMatch(filter::mightContain)).isTrue();
+        assertThat(falsePositiveRate(filter)).isLessThan(0.0003);
+        keys(0, SIZE / 2).forEach(key -> assertThat(filter.remove(key)).isTrue());
+        assertThat(filter.size()).isEqualTo(SIZE / 2);
+        assertThat(keys(SIZE / 2, SIZE).stream().allMatch(filter::mightContain)).isTrue();
+        assertThat(keys(0, SIZE / 2).stream().filter(filter::mightContain).count()).isLessThan(10);
+    }
+
+    @Test
+    public void testCuckooFilter_duplicatesAreCounted() {
+        final CuckooFilter<Integer> filter = new CuckooFilter<>(10);
+        filter.put(1);
+        filter.put(1);
+        filter.remove(1);
+        assertThat(filter.mightContain(1)).isTrue();
+        filter.remove(1);
+        assertThat(filter.mightContain(1)).isFalse();
+        assertThat(filter.remove(1)).isFalse();
+    }
+
+    @Test
+    public void testCuckooFilter_fullThrows() {
+        final CuckooFilter<Integer> filter = new CuckooFilter<>(100);
+        try {
+            IntStream.range(0, 10_000).forEach(filter::put);
+        } catch (IllegalStateException expected) {
+            assertThat(filter.size()).isGreaterThan(filter.capacity() - 20);
+            assertThat(IntStream.range(0, (int) filter.size()).allMatch(filter::mightContain)).isTrue();
+            return;
+        }
+        throw new AssertionError("Expected the filter to get full");
+    }
+
+    @Test
+    public void testCuckooFilter_parallelCollect() {
+        final CuckooFilter<Long> filter = LongStream.range(0, SIZE).boxed().parallel().collect(NCollectors.toCuckooFilter(SIZE));
+        assertThat(filter.size()).isEqualTo(SIZE);
+        assertThat(LongStream.range(0, SIZE).allMatch(i -> filter.mightContain(i))).isTrue();
+    }
+}
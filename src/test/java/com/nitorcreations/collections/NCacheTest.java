@@ -0,0 +1,193 @@
+package com.nitorcreations.collections;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class NCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Integer, String> loader = i -> {
+        loads.incrementAndGet();
+        return "value" + i;
+    };
+
+    @Test
+    public void testGet_loadsOnce() {
+        final NCache<Integer, String> cache = NMaps.caching(loader, 10);
+        assertThat(cache.get(1)).isEqualTo("value1");
+        assertThat(cache.get(1)).isEqualTo("value1");
+        assertThat(cache.apply(1)).isEqualTo("value1");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.hitCount()).isEqualTo(2);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.hitRate()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    public void testGetIfPresent() {
+        final NCache<Integer, String> cache = NMaps.caching(loader, 10);
+        assertThat(cache.getIfPresent(1)).isNull();
+        cache.get(1);
+        assertThat(cache.getIfPresent(1)).isEqualTo("value1");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testMapping_usesCache() {
+        final NCache<Integer, String> cache = NMaps.caching(loader, 10);
+        NMaps.mapping(NSets.asSet(1, 2, 3), cache);
+        assertThat(NMaps.mapping(NSets.asSet(1, 2, 3), cache)).hasSize(3).containsEntry(2, "value2");
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testInvalidate() {
+        final NCache<Integer, String> cache = NMaps.caching(loader, 10);
+        cache.get(1);
+        cache.get(2);
+        cache.invalidate(1);
+        assertThat(cache.getIfPresent(1)).isNull();
+        assertThat(cache.size()).isEqualTo(1);
+        cache.invalidateAll();
+        assertThat(cache.size()).isEqualTo(0);
+        cache.get(1);
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testSizeBound() {
+        final NCache<Integer, String> cache = NMaps.caching(loader, 100);
+        for (int i = 0; i < 10000; i++) {
+            cache.get(i);
+        }
+        assertThat(cache.size()).isEqualTo(100);
+        assertThat(cache.evictionCount()).isEqualTo(9900);
+    }
+
+    @Test
+    public void testFrequentKeysSurviveScan() {
+        final NCache<Integer, String> cache = NMaps.caching(loader, 100);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get(i);
+            }
+        }
+        for (int i = 1000; i < 2000; i++) {
+            cache.get(i);
+        }
+        int retained = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.getIfPresent(i) != null) {
+                retained++;
+            }
+        }
+        assertThat(retained).isEqualTo(50);
+    }
+
+    @Test
+    public void testExpireAfterWrite() {
+        final AtomicLong time = new AtomicLong();
+        final NCache<Integer, String> cache = new NCache<>(loader, 10, Duration.ofSeconds(10).toNanos(), time::get);
+        cache.get(1);
+        time.addAndGet(Duration.ofSeconds(9).toNanos());
+        cache.get(1);
+        assertThat(loads.get()).isEqualTo(1);
+        time.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(cache.getIfPresent(1)).isNull();
+        cache.get(1);
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConcurrentGets_loadOncePerKey() throws InterruptedException {
+        final NCache<Integer, String> cache = NMaps.caching(loader, 1000);
+        final Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    cache.get(i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(loads.get()).isEqualTo(500);
+        assertThat(cache.size()).isEqualTo(500);
+    }
+
+    @Test(timeout = 10_000)
+    public void testLoader_getsOtherKeys() {
+        final AtomicReference<NCache<Integer, Integer>> self = new AtomicReference<>();
+        self.set(NMaps.caching(i -> i == 0 ? 0 : self.get().get(i - 1) + i, 1000));
+        assertThat(self.get().get(500)).isEqualTo(500 * 501 / 2);
+        assertThat(self.get().size()).isEqualTo(501);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLoader_getsSameKey() {
+        final AtomicReference<NCache<Integer, Integer>> self = new AtomicReference<>();
+        self.set(NMaps.caching(i -> self.get().get(i), 10));
+        self.get().get(1);
+    }
+
+    @Test(timeout = 10_000)
+    public void testConcurrentGets_shareLoaderFailure() throws InterruptedException {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final NCache<Integer, String> cache = NMaps.caching(i -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("load failed");
+        }, 10);
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        final Runnable get = () -> {
+            try {
+                cache.get(1);
+            } catch (IllegalStateException e) {
+                failures.add(e);
+            }
+        };
+        final Thread first = new Thread(get);
+        first.start();
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        final Thread second = new Thread(get);
+        second.start();
+        while (second.getState() != Thread.State.WAITING) {
+            Thread.yield();
+        }
+        release.countDown();
+        first.join();
+        second.join();
+        assertThat(failures).hasSize(2);
+        assertThat(failures.get(0)).isSameAs(failures.get(1)).hasMessage("load failed");
+        assertThat(cache.size()).isEqualTo(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        NMaps.caching(loader, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidExpiry() {
+        NMaps.caching(loader, 10, Duration.ZERO);
+    }
+}
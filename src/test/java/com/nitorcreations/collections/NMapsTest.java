@@ -1,16 +1,44 @@
 package com.nitorcreations.collections;
 
+import com.nitorcreations.collections.primitive.IntObjectMap;
+import com.nitorcreations.collections.primitive.LongObjectMap;
 import org.junit.Test;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static com.nitorcreations.streams.NMappers.entryOf;
 import static com.nitorcreations.collections.NMaps.*;
 import static com.nitorcreations.collections.NSets.asSet;
 import static com.nitorcreations.test.TestUtils.invokePrivateConstructor;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.fail;
 import static com.nitorcreations.test.Assertions.assertThat;
 
 public class NMapsTest {
@@ -64,6 +92,267 @@ public class NMapsTest {
         mapping(asSet(1, null), identity());
     }
 
+    @Test
+    public void testMapping_enumKeys() {
+        final Map<TimeUnit, Long> map = mapping(asSet(SECONDS, MINUTES), unit -> unit.toSeconds(1));
+        assertThat(map).isInstanceOf(EnumMap.class)
+                .hasSize(2)
+                .containsEntry(SECONDS, 1L)
+                .containsEntry(MINUTES, 60L);
+    }
+
+    @Test
+    public void testEnumMapping() {
+        final Map<TimeUnit, Long> map = enumMapping(TimeUnit.class, unit -> unit.toNanos(1));
+        assertThat(map).isInstanceOf(EnumMap.class)
+                .hasSize(TimeUnit.values().length)
+                .containsEntry(NANOSECONDS, 1L)
+                .containsEntry(SECONDS, 1_000_000_000L);
+    }
+
+    //
+    // BATCHED MAPPING
+    //
+    @Test
+    public void testMappingBatched() {
+        final List<Collection<Integer>> batches = new ArrayList<>();
+        final Map<Integer, Integer> map = mappingBatched(asSet(1, 2, 3, 4, 5, 6, 7), batch -> {
+            batches.add(batch);
+            return batch.stream().collect(toMap(identity(), i -> i * 10));
+        }, 3);
+        assertThat(map).hasSize(7)
+                .containsEntry(1, 10)
+                .containsEntry(7, 70);
+        assertThat(batches).hasSize(3);
+        assertThat(batches.get(0)).hasSize(3);
+        assertThat(batches.get(2)).hasSize(1);
+    }
+
+    @Test
+    public void testMappingBatched_empty() {
+        final AtomicInteger calls = new AtomicInteger();
+        assertThat(mappingBatched(asSet(), batch -> {
+            calls.incrementAndGet();
+            return new HashMap<>();
+        }, 3)).isEmpty();
+        assertThat(calls.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void testMappingBatched_concurrent() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Set<Integer> keys = IntStream.range(0, 1000).boxed().collect(toSet());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Map<Integer, String> map = mappingBatched(keys, batch -> {
+                calls.incrementAndGet();
+                return batch.stream().collect(toMap(identity(), String::valueOf));
+            }, 64, executor);
+            assertThat(map).hasSize(1000).containsEntry(999, "999");
+            assertThat(calls.get()).isEqualTo(16);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testMappingBatched_concurrentWithException() {
+        mappingBatched(asSet(1, 2, 0), batch -> batch.stream().collect(toMap(identity(), i -> 10 / i)), 1, Runnable::run);
+    }
+
+    @Test(timeout = 10_000)
+    public void testMappingBatched_concurrentFailsFast() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            mappingBatched(asSet(1, 2), batch -> {
+                if (batch.contains(1)) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new HashMap<>();
+                }
+                throw new IllegalStateException("failed");
+            }, 1, executor);
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("failed");
+            assertThat(release.getCount()).isEqualTo(1);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testMappingBatched_concurrentRethrowsErrors() {
+        mappingBatched(asSet(1), batch -> {
+            throw new AssertionError("failed");
+        }, 1, Runnable::run);
+    }
+
+    @Test
+    public void testMappingBatched_ignoresKeysNotRequested() {
+        final Function<Collection<Integer>, Map<Integer, Integer>> loader = batch -> mapOf(1, 10, 99, 990);
+        assertThat(mappingBatched(asSet(1, 2), loader, 1)).isEqualTo(mapOf(1, 10));
+        assertThat(mappingBatched(asSet(1, 2), loader, 1, Runnable::run)).isEqualTo(mapOf(1, 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMappingBatched_invalidBatchSize() {
+        mappingBatched(asSet(1, 2), batch -> new HashMap<>(), 0);
+    }
+
+    //
+    // ASYNC MAPPING
+    //
+    @Test
+    public void testMappingAsync_limitsCallsInFlight() {
+        final List<CompletableFuture<Integer>> inFlight = new ArrayList<>();
+        final CompletableFuture<Map<Integer, Integer>> result = mappingAsync(asSet(1, 2, 3, 4, 5), i -> {
+            final CompletableFuture<Integer> future = new CompletableFuture<>();
+            inFlight.add(future);
+            return future;
+        }, 2);
+        assertThat(inFlight).hasSize(2);
+        inFlight.get(0).complete(10);
+        assertThat(inFlight).hasSize(3);
+        inFlight.get(1).complete(20);
+        inFlight.get(2).complete(30);
+        assertThat(inFlight).hasSize(5);
+        assertThat(result.isDone()).isFalse();
+        inFlight.get(3).complete(40);
+        inFlight.get(4).complete(50);
+        assertThat(result.join()).hasSize(5).containsValues(10, 20, 30, 40, 50);
+    }
+
+    @Test
+    public void testMappingAsync_failsFastAndCancelsPending() {
+        final List<CompletableFuture<Integer>> inFlight = new ArrayList<>();
+        final CompletableFuture<Map<Integer, Integer>> result = mappingAsync(asSet(1, 2, 3, 4, 5), i -> {
+            final CompletableFuture<Integer> future = new CompletableFuture<>();
+            inFlight.add(future);
+            return future;
+        }, 3);
+        inFlight.get(1).completeExceptionally(new ArithmeticException());
+        assertThat(result.isCompletedExceptionally()).isTrue();
+        assertThat(inFlight).hasSize(3);
+        assertThat(inFlight.get(0).isCancelled()).isTrue();
+        assertThat(inFlight.get(2).isCancelled()).isTrue();
+    }
+
+    @Test
+    public void testMappingAsync_completedFutures() {
+        final Set<Integer> keys = IntStream.range(0, 100000).boxed().collect(toSet());
+        final Map<Integer, Integer> map = mappingAsync(keys, CompletableFuture::completedFuture, 4).join();
+        assertThat(map).hasSize(100000).containsEntry(99999, 99999);
+    }
+
+    @Test
+    public void testMappingAsync_empty() {
+        assertThat(mappingAsync(asSet(), CompletableFuture::completedFuture, 4).join()).isEmpty();
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testMappingAsyncBlocking_withException() throws Throwable {
+        try {
+            mappingAsyncBlocking(asSet(1, 2, 0), i -> 10 / i, 2).get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Test
+    public void testMappingAsyncBlocking() {
+        final Map<String, Integer> map = mappingAsyncBlocking(asSet("a", "bee", "cheetah"), String::length, 2).join();
+        assertThat(map).hasSize(3)
+                .containsEntry("a", 1)
+                .containsEntry("bee", 3)
+                .containsEntry("cheetah", 7);
+    }
+
+    //
+    // LAZY MAPPING
+    //
+    @Test
+    public void testLazyMapping() {
+        final Map<String, Integer> map = lazyMapping(asSet("a", "bee", "cheetah"), String::length);
+        assertThat(map).hasSize(3)
+                .containsEntry("a", 1)
+                .containsEntry("bee", 3)
+                .containsEntry("cheetah", 7);
+    }
+
+    @Test
+    public void testLazyMapping_computesOnFirstAccessOnly() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Map<Integer, Integer> map = lazyMapping(asSet(1, 2, 3), i -> {
+            calls.incrementAndGet();
+            return i * 10;
+        });
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.containsKey(2)).isTrue();
+        assertThat(map.containsKey(4)).isFalse();
+        assertThat(map.get(4)).isNull();
+        assertThat(calls.get()).isEqualTo(0);
+
+        assertThat(map.get(2)).isEqualTo(20);
+        assertThat(map.get(2)).isEqualTo(20);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLazyMapping_concurrentAccess_computesOnce() throws InterruptedException {
+        final AtomicInteger calls = new AtomicInteger();
+        final Map<Integer, Integer> map = lazyMapping(asSet(1), i -> {
+            calls.incrementAndGet();
+            return i;
+        });
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> map.get(1));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testLazyMapping_withException() {
+        lazyMapping(asSet(1, 2, 0), i -> 10 / i).get(0);
+    }
+
+    @Test(timeout = 10_000)
+    public void testLazyMapping_recursiveValueFunction() {
+        final Set<Integer> keys = IntStream.rangeClosed(0, 90).boxed().collect(toSet());
+        final AtomicReference<Map<Integer, Long>> fib = new AtomicReference<>();
+        fib.set(lazyMapping(keys, n -> n < 2 ? (long) n : fib.get().get(n - 1) + fib.get().get(n - 2)));
+        assertThat(fib.get().get(90)).isEqualTo(2880067194370816120L);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testLazyMapping_valueFunctionReadsOwnKey() {
+        final AtomicReference<Map<Integer, Integer>> self = new AtomicReference<>();
+        self.set(lazyMapping(asSet(1), i -> self.get().get(i)));
+        self.get().get(1);
+    }
+
+    @Test
+    public void testLazyMapping_nullKey() {
+        final Map<String, String> map = lazyMapping(new HashSet<>(asList("a", null)), String::valueOf);
+        assertThat(map.get(null)).isEqualTo("null");
+        assertThat(map).containsEntry("a", "a").containsEntry(null, "null");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testLazyMapping_readOnly() {
+        lazyMapping(asSet(1, 2), identity()).put(3, 3);
+    }
+
     //
     // TEST COMBINE
     //
@@ -93,6 +382,56 @@ public class NMapsTest {
         assertThat(map).hasSize(1).containsEntry(1, 2);
     }
 
+    //
+    // TEST PERSISTENT COMBINE
+    //
+    @Test
+    public void persistentCombineMaps() {
+        final PersistentMap<Integer, Integer> combined = persistentCombine(mapOf(1, 2), mapOf(3, 4));
+        assertThat(combined).hasSize(2)
+                .containsEntry(1, 2)
+                .containsEntry(3, 4);
+    }
+
+    @Test
+    public void persistentCombineMapsDuplicateKeys() {
+        try {
+            persistentCombine(mapOf(1, 2), PersistentMap.copyOf(mapOf(1, 3)));
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("Duplicate key 1");
+        }
+    }
+
+    @Test
+    public void persistentCombine_keepsBaseUntouched() {
+        final PersistentMap<Integer, Integer> base = PersistentMap.copyOf(mapOf(1, 1, 2, 2, 3, 3));
+        final PersistentMap<Integer, Integer> combined = persistentCombine((a, b) -> a + b, base, mapOf(3, 30, 4, 40));
+        assertThat(combined).hasSize(4)
+                .containsEntry(3, 33)
+                .containsEntry(4, 40);
+        assertThat(base).hasSize(3).containsEntry(3, 3);
+    }
+
+    @Test
+    public void persistentCombine_mergesInOrderOfMaps() {
+        final PersistentMap<String, String> base = PersistentMap.copyOf(mapOf("a", "base", "b", "base"));
+        final PersistentMap<String, String> combined = persistentCombine((a, b) -> a + "+" + b,
+                mapOf("a", "first"), base, mapOf("a", "last"));
+        assertThat(combined).hasSize(2)
+                .containsEntry("a", "first+base+last")
+                .containsEntry("b", "base");
+    }
+
+    @Test
+    public void persistentCombineAndSkip_overlayBeforeBase_selectsOverlay() {
+        final PersistentMap<Integer, Integer> base = PersistentMap.copyOf(mapOf(1, 1, 2, 2));
+        final PersistentMap<Integer, Integer> map = persistentCombineAndSkip(mapOf(1, 10), base);
+        assertThat(map).hasSize(2)
+                .containsEntry(1, 10)
+                .containsEntry(2, 2);
+    }
+
     //
     // MAP OF LISTS
     //
@@ -126,6 +465,82 @@ public class NMapsTest {
         mapOfLists(asList(1, 2, 3), null);
     }
 
+    @Test
+    public void testMapViewOfLists() {
+        final Map<Integer, String> map = mapViewOfLists(asList(1, 2, 3), asList("a", "b", "c"));
+        assertThat(map).hasSize(3)
+                .containsEntry(1, "a")
+                .containsEntry(2, "b")
+                .containsEntry(3, "c")
+                .doesNotContainKey(4)
+                .isEqualTo(mapOfLists(asList(1, 2, 3), asList("a", "b", "c")));
+        assertThat(map.get(4)).isNull();
+    }
+
+    @Test
+    public void testMapViewOfLists_large() {
+        final List<String> keys = IntStream.range(0, 10_000).mapToObj(i -> "key" + i).collect(toList());
+        final List<Integer> values = IntStream.range(0, 10_000).boxed().collect(toList());
+        final Map<String, Integer> map = mapViewOfLists(new LinkedList<>(keys), values);
+        assertThat(map).hasSize(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(map.get("key" + i)).isEqualTo(i);
+        }
+        assertThat(map.keySet()).containsExactlyElementsOf(keys);
+        assertThat(map.values()).containsExactlyElementsOf(values);
+    }
+
+    @Test
+    public void testMapViewOfLists_nullKeyAndEmpty() {
+        assertThat(mapViewOfLists(asList(null, 1), asList("a", "b"))).containsEntry(null, "a").containsEntry(1, "b");
+        assertThat(mapViewOfLists(emptyList(), emptyList())).isEmpty();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMapViewOfLists_duplicateKeys() {
+        mapViewOfLists(asList(1, 2, 1), asList(1, 2, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMapViewOfLists_differentSize() {
+        mapViewOfLists(asList(1, 2, 3), asList(1, 2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testMapViewOfLists_readOnly() {
+        mapViewOfLists(asList(1, 2, 3), asList(1, 2, 3)).put(4, 4);
+    }
+
+    @Test
+    public void testMapOfIntKeys() {
+        final IntObjectMap<String> map = mapOfIntKeys(new int[]{1, 2, 3}, asList("a", "b", "c"));
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.get(1)).isEqualTo("a");
+        assertThat(map.get(3)).isEqualTo("c");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMapOfIntKeys_duplicateKeys() {
+        mapOfIntKeys(new int[]{1, 1}, asList("a", "b"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMapOfIntKeys_differentSize() {
+        mapOfIntKeys(new int[]{1, 2}, asList("a"));
+    }
+
+    @Test
+    public void testMapOfLongKeys() {
+        final LongObjectMap<String> map = mapOfLongKeys(new long[]{1L << 40, 2}, asList("a", "b"));
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.get(1L << 40)).isEqualTo("a");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMapOfLongKeys_duplicateKeys() {
+        mapOfLongKeys(new long[]{1, 1}, asList("a", "b"));
+    }
+
     //
     // HELPER MAP CREATION
     //
@@ -247,4 +662,42 @@ public class NMapsTest {
     public void testMapOf_2_withDuplicates() {
         mapOf(1, 2, 1, 3);
     }
-}
\ No newline at end of file
+
+    @Test(expected = IllegalStateException.class)
+    public void testMapOf_10_withDuplicatesLast() {
+        mapOf(1, 10, 2, 20, 3, 30, 4, 40, 5, 50, 6, 60, 7, 70, 8, 80, 9, 90, 1, 100);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testMapOf_nullValue() {
+        mapOf(1, 10, 2, null);
+    }
+
+    @Test
+    public void testMapOf_nullKey() {
+        assertThat(mapOf(null, 10, 2, 20))
+                .hasSize(2)
+                .containsEntry(null, 10)
+                .containsEntry(2, 20);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testMapOf_immutable() {
+        mapOf(1, 10, 2, 20).put(3, 30);
+    }
+
+    @Test
+    public void testMapOf_equalsHashMap() {
+        final Map<Integer, Integer> expected = new HashMap<>();
+        expected.put(1, 10);
+        expected.put(2, 20);
+        expected.put(3, 30);
+        final Map<Integer, Integer> map = mapOf(3, 30, 1, 10, 2, 20);
+        assertThat(map).isEqualTo(expected);
+        assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(map.get(4)).isNull();
+        assertThat(map.getOrDefault(4, 40)).isEqualTo(40);
+        assertThat(map.containsValue(20)).isTrue();
+        assertThat(map.containsValue(40)).isFalse();
+    }
+}
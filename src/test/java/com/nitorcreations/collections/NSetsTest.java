@@ -3,11 +3,21 @@ package com.nitorcreations.collections;
 import org.junit.Test;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static com.nitorcreations.test.TestUtils.invokePrivateConstructor;
 import static com.nitorcreations.collections.NSets.asSet;
 import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.fail;
 import static com.nitorcreations.test.Assertions.assertThat;
 
 public class NSetsTest {
@@ -40,4 +50,93 @@ public class NSetsTest {
         final Set<String> strings = asSet(asList("foo", "bar", "baz").iterator());
         assertThat(strings).contains("foo", "bar", "baz");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAsSet_iteratorWithExpectedSize() {
+        final Set<Integer> set = asSet(IntStream.range(0, 1000).map(i -> i % 500).boxed().iterator(), 500);
+        assertThat(set).isInstanceOf(HashSet.class).hasSize(500).contains(0, 499);
+        assertThat(asSet(asList(SECONDS, DAYS).iterator(), 2)).isInstanceOf(EnumSet.class);
+        assertThat(asSet(new ArrayList<String>().iterator(), 10)).isInstanceOf(HashSet.class).isEmpty();
+    }
+
+    @Test
+    public void testAsSet_collections() {
+        final Set<TimeUnit> units = EnumSet.of(SECONDS, DAYS);
+        final Set<TimeUnit> copy = asSet((Iterable<TimeUnit>) units);
+        assertThat(copy).isInstanceOf(EnumSet.class).isEqualTo(units).isNotSameAs(units);
+        assertThat(asSet((Iterable<TimeUnit>) new HashSet<>(units))).isInstanceOf(EnumSet.class).isEqualTo(units);
+        final List<Integer> list = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        assertThat(asSet(list)).hasSize(100).isInstanceOf(HashSet.class);
+    }
+
+    @Test
+    public void testAsConcurrentSet() {
+        final List<Integer> list = IntStream.range(0, 100_000).map(i -> i % 50_000).boxed().collect(Collectors.toList());
+        final Set<Integer> set = NSets.asConcurrentSet(list);
+        assertThat(set).hasSize(50_000).isEqualTo(new HashSet<>(list));
+        assertThat(NSets.asConcurrentSet(() -> list.iterator())).isEqualTo(set);
+        set.add(-1);
+        assertThat(set).contains(-1);
+    }
+
+    @Test
+    public void testAsSet_enums() {
+        final Set<TimeUnit> units = asSet(SECONDS, DAYS, SECONDS);
+        assertThat(units).isInstanceOf(EnumSet.class).containsOnly(SECONDS, DAYS);
+    }
+
+    @Test
+    public void testAsSet_enumsAndOthers() {
+        final Set<Object> values = asSet(asList(SECONDS, null, "foo"));
+        assertThat(values).isInstanceOf(HashSet.class).containsOnly(SECONDS, null, "foo");
+    }
+
+    @Test
+    public void testAsSet_smallSetsAreImmutable() {
+        assertThat(asSet()).isEmpty();
+        assertThat(asSet("foo")).containsOnly("foo");
+        final Set<String> small = asSet("foo", "bar", "foo", null);
+        assertThat(small).hasSize(3).containsExactly("foo", "bar", null);
+        assertThat(small).isEqualTo(new HashSet<>(asList("bar", "foo", null)));
+        assertThat(small.hashCode()).isEqualTo(new HashSet<>(asList("bar", "foo", null)).hashCode());
+        assertThat(small.contains("baz")).isFalse();
+        assertUnmodifiable(small);
+        assertUnmodifiable(asSet("foo"));
+    }
+
+    @Test
+    public void testAsSet_largerSetsAreHashed() {
+        final Integer[] values = new Integer[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 50 == 0 ? null : i % 60;
+        }
+        final Set<Integer> set = asSet(values);
+        final Set<Integer> expected = new HashSet<>(asList(values));
+        assertThat(set).hasSize(expected.size()).isEqualTo(expected).contains(null, 59).doesNotContain(60, -1);
+        assertThat(set.hashCode()).isEqualTo(expected.hashCode());
+        assertUnmodifiable(set);
+    }
+
+    @Test
+    public void testMutableSetOf() {
+        final Set<String> strings = NSets.mutableSetOf("foo", "bar", "foo");
+        assertThat(strings).isInstanceOf(HashSet.class).containsOnly("foo", "bar");
+        strings.add("baz");
+        assertThat(strings).hasSize(3);
+    }
+
+    private static <V> void assertUnmodifiable(Set<V> set) {
+        try {
+            set.add(null);
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // immutable
+        }
+        try {
+            set.clear();
+            fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // immutable
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.nitorcreations.collections;
+
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.nitorcreations.test.Assertions.assertThat;
+import static com.nitorcreations.test.Assertions.entry;
+
+public class OrderedMapTest {
+
+    @Test
+    public void testInsertionOrder() {
+        final OrderedMap<String, Integer> map = new OrderedMap<>();
+        map.put("c", 1);
+        map.put("a", 2);
+        map.put("b", 3);
+        map.put("a", 4);
+        assertThat(map.keySet()).containsExactly("c", "a", "b");
+        assertThat(map.values()).containsExactly(1, 4, 3);
+        assertThat(map.get("a")).isEqualTo(4);
+        assertThat(map.get("d")).isNull();
+    }
+
+    @Test
+    public void testRemoveAndReinsert() {
+        final OrderedMap<String, Integer> map = new OrderedMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+        assertThat(map.remove("b")).isEqualTo(2);
+        assertThat(map.remove("b")).isNull();
+        map.put("b", 4);
+        assertThat(map).hasSize(3);
+        assertThat(map.keySet()).containsExactly("a", "c", "b");
+    }
+
+    @Test
+    public void testNullKeyAndValue() {
+        final OrderedMap<String, Integer> map = new OrderedMap<>();
+        map.put(null, 1);
+        map.put("a", null);
+        assertThat(map).containsEntry(null, 1).containsEntry("a", null).hasSize(2);
+        assertThat(map.putIfAbsent("a", 2)).isNull();
+        assertThat(map.get("a")).isEqualTo(2);
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        final OrderedMap<Integer, Integer> map = new OrderedMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+        map.keySet().removeIf(i -> i % 2 == 0);
+        assertThat(map.keySet()).containsExactly(1, 3, 5, 7, 9);
+    }
+
+    @Test
+    public void testReplaceAllAndSetValue() {
+        final OrderedMap<String, Integer> map = new OrderedMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.replaceAll((key, value) -> value * 10);
+        assertThat(map).containsExactly(entry("a", 10), entry("b", 20));
+
+        final Map.Entry<String, Integer> first = map.entrySet().iterator().next();
+        assertThat(first.setValue(11)).isEqualTo(10);
+        assertThat(first.getValue()).isEqualTo(11);
+        assertThat(first).isEqualTo(new AbstractMap.SimpleImmutableEntry<>("a", 11));
+        assertThat(first.hashCode()).isEqualTo(new AbstractMap.SimpleImmutableEntry<>("a", 11).hashCode());
+        for (int i = 0; i < 10; i++) {
+            map.put("c" + i, i);
+        }
+        map.remove("b");
+        first.setValue(12);
+        assertThat(map.get("a")).isEqualTo(12);
+        map.entrySet().forEach(entry -> entry.setValue(0));
+        assertThat(map.values()).containsOnly(0);
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void testConcurrentModification() {
+        final OrderedMap<Integer, Integer> map = new OrderedMap<>();
+        map.put(1, 1);
+        map.put(2, 2);
+        final Iterator<Integer> keys = map.keySet().iterator();
+        keys.next();
+        map.put(3, 3);
+        keys.next();
+    }
+
+    @Test
+    public void testMatchesLinkedHashMap() {
+        final OrderedMap<Integer, Integer> map = new OrderedMap<>(0);
+        final Map<Integer, Integer> expected = new LinkedHashMap<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            final int key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                assertThat(map.put(key, i)).isEqualTo(expected.put(key, i));
+            }
+        }
+        assertThat(map).hasSize(expected.size()).isEqualTo(expected);
+        assertThat(map.entrySet()).containsExactlyElementsOf(expected.entrySet());
+        map.clear();
+        assertThat(map).isEmpty();
+        map.put(1, 1);
+        assertThat(map).containsOnlyKeys(1);
+    }
+}
@@ -0,0 +1,118 @@
+package com.nitorcreations.collections;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class PersistentMapTest {
+
+    @Test
+    public void testEmpty() {
+        assertThat(PersistentMap.empty()).isEmpty();
+        assertThat(PersistentMap.<String, Integer>empty().get("a")).isNull();
+    }
+
+    @Test
+    public void testPlusAndMinus_keepOriginal() {
+        final PersistentMap<String, Integer> one = PersistentMap.<String, Integer>empty().plus("a", 1);
+        final PersistentMap<String, Integer> two = one.plus("b", 2);
+        final PersistentMap<String, Integer> removed = two.minus("a");
+
+        assertThat(one).hasSize(1).containsEntry("a", 1);
+        assertThat(two).hasSize(2).containsEntry("a", 1).containsEntry("b", 2);
+        assertThat(removed).hasSize(1).containsEntry("b", 2);
+    }
+
+    @Test
+    public void testPlus_sameValue_returnsSameMap() {
+        final Integer value = 1000;
+        final PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().plus("a", value);
+        assertThat(map.plus("a", value)).isSameAs(map);
+        assertThat(map.minus("b")).isSameAs(map);
+    }
+
+    @Test
+    public void testPlus_merging() {
+        final PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty()
+                .plus("a", 1)
+                .plus("a", 2, (a, b) -> a + b);
+        assertThat(map).hasSize(1).containsEntry("a", 3);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testPlus_nullValue() {
+        PersistentMap.empty().plus("a", null);
+    }
+
+    @Test
+    public void testNullKey() {
+        final PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().plus(null, 1).plus("a", 2);
+        assertThat(map).hasSize(2).containsEntry(null, 1);
+        assertThat(map.minus(null)).hasSize(1).doesNotContainKey(null);
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        PersistentMap<Colliding, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 10; i++) {
+            map = map.plus(new Colliding(i), i);
+        }
+        assertThat(map).hasSize(10).containsEntry(new Colliding(5), 5);
+        for (int i = 0; i < 9; i++) {
+            map = map.minus(new Colliding(i));
+        }
+        assertThat(map).hasSize(1).containsEntry(new Colliding(9), 9);
+        assertThat(map.minus(new Colliding(9))).isEmpty();
+    }
+
+    @Test
+    public void testRandomOperations_matchHashMap() {
+        final Random random = new Random(42);
+        final Map<Integer, Integer> expected = new HashMap<>();
+        PersistentMap<Integer, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 20000; i++) {
+            final int key = random.nextInt(5000) - 2500;
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                expected.put(key, i);
+                map = map.plus(key, i);
+            }
+        }
+        assertThat(map).hasSize(expected.size()).isEqualTo(expected);
+        assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+        final Map<Integer, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertThat(iterated).isEqualTo(expected);
+    }
+
+    @Test
+    public void testCopyOf() {
+        final PersistentMap<Integer, String> map = PersistentMap.copyOf(NMaps.mapOf(1, "a", 2, "b"));
+        assertThat(map).hasSize(2).containsEntry(1, "a").containsEntry(2, "b");
+        assertThat(PersistentMap.copyOf(map)).isSameAs(map);
+    }
+
+    private static final class Colliding {
+        private final int id;
+
+        Colliding(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Colliding && ((Colliding) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.nitorcreations.collections;
+
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.nitorcreations.collections.NSets.asSet;
+import static com.nitorcreations.collections.NSets.difference;
+import static com.nitorcreations.collections.NSets.intersection;
+import static com.nitorcreations.collections.NSets.symmetricDifference;
+import static com.nitorcreations.collections.NSets.union;
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class SetViewTest {
+
+    private static Set<Integer> range(int from, int to, int step) {
+        return IntStream.range(0, (to - from + step - 1) / step).map(i -> from + i * step).boxed().collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static NavigableSet<Integer> sortedRange(int from, int to, int step, Comparator<Integer> comparator) {
+        final NavigableSet<Integer> set = new TreeSet<>(comparator);
+        set.addAll(range(from, to, step));
+        return set;
+    }
+
+    @Test
+    public void testUnion() {
+        final SetView<Integer> view = union(asSet(1, 2, 3), asSet(3, 4));
+        assertThat(view).containsOnly(1, 2, 3, 4);
+        assertThat(view).hasSize(4);
+        assertThat(view.contains(4)).isTrue();
+        assertThat(view.contains(5)).isFalse();
+        assertThat(view.materialize()).isEqualTo(asSet(1, 2, 3, 4));
+    }
+
+    @Test
+    public void testIntersection() {
+        final SetView<Integer> view = intersection(asSet(1, 2, 3, 4), asSet(3, 4, 5));
+        assertThat(view).containsOnly(3, 4);
+        assertThat(view).hasSize(2);
+        assertThat(view.contains(2)).isFalse();
+        assertThat(view.materialize()).isEqualTo(asSet(3, 4));
+        assertThat(intersection(asSet(1), asSet(2))).isEmpty();
+    }
+
+    @Test
+    public void testDifference() {
+        final SetView<Integer> view = difference(asSet(1, 2, 3, 4), asSet(3, 4, 5));
+        assertThat(view).containsOnly(1, 2);
+        assertThat(view.contains(5)).isFalse();
+        assertThat(view.materialize()).isEqualTo(asSet(1, 2));
+    }
+
+    @Test
+    public void testSymmetricDifference() {
+        final SetView<Integer> view = symmetricDifference(asSet(1, 2, 3, 4), asSet(3, 4, 5));
+        assertThat(view).containsOnly(1, 2, 5);
+        assertThat(view).hasSize(3);
+        assertThat(view.contains(3)).isFalse();
+        assertThat(view.materialize()).isEqualTo(asSet(1, 2, 5));
+    }
+
+    @Test
+    public void testViewsAreLive() {
+        final Set<String> first = new HashSet<>(asSet("a", "b"));
+        final Set<String> second = new HashSet<>(asSet("b"));
+        final SetView<String> view = intersection(first, second);
+        final Set<String> copy = view.materialize();
+        second.add("a");
+        assertThat(view).containsOnly("a", "b");
+        assertThat(copy).containsOnly("b");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testViewsAreReadOnly() {
+        union(asSet(1), asSet(2)).add(3);
+    }
+
+    @Test
+    public void testIntersection_sorted() {
+        final Comparator<Integer> reversed = Comparator.reverseOrder();
+        final NavigableSet<Integer> sparse = sortedRange(0, 100_000, 1000, reversed);
+        final NavigableSet<Integer> dense = sortedRange(0, 100_000, 3, reversed);
+        final Set<Integer> expected = range(0, 100_000, 3000);
+
+        final SetView<Integer> view = intersection(dense, sparse);
+        assertThat(view).containsExactlyElementsOf(sortedRange(0, 100_000, 3000, reversed));
+        assertThat(view.materialize()).isEqualTo(expected).isInstanceOf(NavigableSet.class);
+        assertThat(intersection(sparse, new HashSet<>(dense)).materialize()).isEqualTo(expected).isInstanceOf(HashSet.class);
+    }
+
+    @Test
+    public void testSortedArrays_gallop() {
+        final Object[] array = {1, 3, 5, 7, 9, 11, 13};
+        for (int key = 0; key <= 14; key++) {
+            assertThat(SortedArrays.gallop(array, 0, array.length, key, null)).isEqualTo(key / 2);
+            assertThat(SortedArrays.gallop(array, 2, array.length, key, null)).isEqualTo(Math.max(2, key / 2));
+        }
+    }
+
+    @Test
+    public void testParallelMaterialize() {
+        final Set<Integer> multiplesOf2 = range(0, 200_000, 2);
+        final Set<Integer> multiplesOf3 = range(0, 200_000, 3);
+
+        assertThat(intersection(multiplesOf2, multiplesOf3).parallelMaterialize()).isEqualTo(range(0, 200_000, 6));
+        assertThat(difference(multiplesOf2, multiplesOf3).parallelMaterialize())
+                .isEqualTo(difference(multiplesOf2, multiplesOf3).materialize()).hasSize(66_666);
+        assertThat(union(multiplesOf2, multiplesOf3).parallelMaterialize()).hasSize(133_333);
+        assertThat(symmetricDifference(multiplesOf2, multiplesOf3).parallelMaterialize()).hasSize(99_999);
+        assertThat(intersection(asSet(1, 2), asSet(2)).parallelMaterialize()).containsOnly(2);
+    }
+}
@@ -0,0 +1,175 @@
+package com.nitorcreations.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.nitorcreations.collections.NMaps.mapOfLists;
+import static java.util.Arrays.asList;
+import static com.nitorcreations.test.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class SnapshotMapTest {
+
+    private final Map<String, Integer> defaults = mapOfLists(asList("a", "b"), asList(1, 2));
+    private final Map<String, Integer> overrides = mapOfLists(asList("b", "c"), asList(20, 30));
+
+    @Test
+    public void testSnapshotMap_combinesLayers() {
+        final SnapshotMap<String, Integer> map = NMaps.snapshotMap((v1, v2) -> v2, defaults, overrides);
+        assertThat(map.map()).hasSize(3).containsEntry("b", 20);
+        assertThat(map.get("a")).isEqualTo(1);
+        assertThat(map.version()).isEqualTo(0);
+    }
+
+    @Test
+    public void testUpdates_publishNewVersions() {
+        final SnapshotMap<String, Integer> map = NMaps.snapshotMap(Integer::sum, defaults);
+        final SnapshotMap.Snapshot<String, Integer> first = map.snapshot();
+        map.merge(overrides);
+        assertThat(map.map()).containsEntry("b", 22).containsEntry("c", 30);
+        map.put("a", 10);
+        map.remove("c");
+        assertThat(map.version()).isEqualTo(3);
+        assertThat(map.map()).isEqualTo(mapOfLists(asList("a", "b"), asList(10, 22)));
+        assertThat(first.version()).isEqualTo(0);
+        assertThat(first.map()).isEqualTo(defaults);
+    }
+
+    @Test
+    public void testUpdate_unchangedDoesNotPublish() {
+        final SnapshotMap<String, Integer> map = NMaps.snapshotMap(Integer::sum, defaults);
+        map.remove("x");
+        map.put("a", 1);
+        assertThat(map.version()).isEqualTo(0);
+    }
+
+    @Test
+    public void testUpdate_batch() {
+        final SnapshotMap<String, Integer> map = NMaps.snapshotMap(Integer::sum, defaults);
+        map.update(entries -> entries.minus("a").plus("d", 4).plus("e", 5));
+        assertThat(map.version()).isEqualTo(1);
+        assertThat(map.map()).containsOnlyKeys("b", "d", "e");
+        map.replace(overrides);
+        assertThat(map.map()).isEqualTo(overrides);
+    }
+
+    @Test
+    public void testListeners() {
+        final SnapshotMap<String, Integer> map = NMaps.snapshotMap(Integer::sum, defaults);
+        final List<String> changes = new ArrayList<>();
+        final SnapshotMap.Listener<String, Integer> listener = (previous, current) ->
+                changes.add(previous.version() + "->" + current.version() + ":" + NMaps.diff(previous.map(), current.map()).added().keySet());
+        map.addListener(listener);
+        map.put("c", 3);
+        map.put("a", 1);
+        assertThat(map.removeListener(listener)).isTrue();
+        map.put("d", 4);
+        assertThat(changes).containsExactly("0->1:[c]");
+    }
+
+    @Test
+    public void testListeners_failureDoesNotSkipOthers() {
+        final SnapshotMap<String, Integer> map = NMaps.snapshotMap(Integer::sum, defaults);
+        final List<Long> versions = new ArrayList<>();
+        map.addListener((previous, current) -> {
+            throw new IllegalStateException("listener failed");
+        });
+        map.addListener((previous, current) -> versions.add(current.version()));
+        try {
+            map.put("c", 3);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertThat(e).hasMessage("listener failed");
+        }
+        assertThat(versions).containsExactly(1L);
+        assertThat(map.get("c")).isEqualTo(3);
+    }
+
+    @Test
+    public void testListeners_mayWriteInVersionOrder() {
+        final SnapshotMap<String, Integer> map = NMaps.snapshotMap(Integer::sum, defaults);
+        final List<Long> versions = new ArrayList<>();
+        map.addListener((previous, current) -> {
+            if (current.map().containsKey("c") && !current.map().containsKey("d")) {
+                map.put("d", 4);
+            }
+        });
+        map.addListener((previous, current) -> versions.add(current.version()));
+        assertThat(map.put("c", 3).version()).isEqualTo(1);
+        assertThat(map.map()).containsKeys("c", "d");
+        assertThat(versions).containsExactly(1L, 2L);
+    }
+
+    @Test(timeout = 10_000)
+    public void testListeners_slowListenerDoesNotBlockWriters() throws Exception {
+        final SnapshotMap<String, Integer> map = NMaps.snapshotMap(Integer::sum, defaults);
+        final CountDownLatch notified = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        map.addListener((previous, current) -> {
+            notified.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        final Thread slow = new Thread(() -> map.put("c", 3));
+        slow.start();
+        assertThat(notified.await(5, TimeUnit.SECONDS)).isTrue();
+        map.put("d", 4);
+        assertThat(map.version()).isEqualTo(2);
+        release.countDown();
+        slow.join();
+    }
+
+    @Test(timeout = 10_000)
+    public void testDerived_racingThreadsComputeOnce() throws Exception {
+        final SnapshotMap<String, Integer> map = NMaps.snapshotMap(Integer::sum, defaults);
+        final AtomicInteger computations = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final Supplier<Integer> total = map.derived(entries -> {
+            computations.incrementAndGet();
+            return entries.size();
+        });
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                total.get();
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(computations.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDerived_computedOncePerVersion() {
+        final SnapshotMap<String, Integer> map = NMaps.snapshotMap(Integer::sum, defaults);
+        final AtomicInteger computations = new AtomicInteger();
+        final Supplier<Integer> total = map.derived(entries -> {
+            computations.incrementAndGet();
+            return entries.values().stream().mapToInt(Integer::intValue).sum();
+        });
+        assertThat(total.get()).isEqualTo(3);
+        assertThat(total.get()).isEqualTo(3);
+        map.put("c", 3);
+        assertThat(total.get()).isEqualTo(6);
+        assertThat(computations.get()).isEqualTo(2);
+    }
+}
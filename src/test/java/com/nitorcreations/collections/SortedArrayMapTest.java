@@ -0,0 +1,162 @@
+package com.nitorcreations.collections;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static com.nitorcreations.collections.NMaps.sortedMapOfLists;
+import static com.nitorcreations.streams.NMappers.entryOf;
+import static com.nitorcreations.test.Assertions.assertThat;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+
+public class SortedArrayMapTest {
+    private final NavigableMap<Integer, String> map = sortedMapOfLists(asList(10, 20, 30, 40), asList("a", "b", "c", "d"));
+
+    @Test
+    public void testGet() {
+        assertThat(map).hasSize(4).containsEntry(10, "a").containsEntry(40, "d");
+        assertThat(map.get(25)).isNull();
+        assertThat(map.containsKey(30)).isTrue();
+        assertThat(map.keySet()).containsExactly(10, 20, 30, 40);
+        assertThat(map.values()).containsExactly("a", "b", "c", "d");
+    }
+
+    @Test
+    public void testNavigation() {
+        assertThat(map.floorKey(25)).isEqualTo(20);
+        assertThat(map.floorKey(20)).isEqualTo(20);
+        assertThat(map.floorKey(5)).isNull();
+        assertThat(map.lowerKey(20)).isEqualTo(10);
+        assertThat(map.ceilingKey(25)).isEqualTo(30);
+        assertThat(map.ceilingKey(45)).isNull();
+        assertThat(map.higherKey(30)).isEqualTo(40);
+        assertThat(map.higherEntry(5)).isEqualTo(entryOf(10, "a"));
+        assertThat(map.firstKey()).isEqualTo(10);
+        assertThat(map.lastEntry()).isEqualTo(entryOf(40, "d"));
+    }
+
+    @Test
+    public void testRanges() {
+        assertThat(map.subMap(15, 35).keySet()).containsExactly(20, 30);
+        assertThat(map.subMap(20, false, 40, true).keySet()).containsExactly(30, 40);
+        assertThat(map.headMap(30).keySet()).containsExactly(10, 20);
+        assertThat(map.headMap(30, true).keySet()).containsExactly(10, 20, 30);
+        assertThat(map.tailMap(20, false).keySet()).containsExactly(30, 40);
+        assertThat(map.subMap(15, 35).headMap(30).keySet()).containsExactly(20);
+        assertThat(map.subMap(15, 35).get(10)).isNull();
+        assertThat(map.subMap(21, 29)).isEmpty();
+        assertThat(map.navigableKeySet().subSet(10, 30)).containsExactly(10, 20);
+    }
+
+    @Test
+    public void testDescending() {
+        assertThat(map.descendingMap().keySet()).containsExactly(40, 30, 20, 10);
+        assertThat(map.descendingMap().floorKey(25)).isEqualTo(30);
+        assertThat(map.descendingKeySet().headSet(20)).containsExactly(40, 30);
+    }
+
+    @Test
+    public void testMatchesTreeMap() {
+        final List<Integer> keys = IntStream.range(0, 1000).map(i -> i * 3).boxed().collect(toList());
+        final List<Integer> values = IntStream.range(0, 1000).boxed().collect(toList());
+        final NavigableMap<Integer, Integer> sorted = sortedMapOfLists(keys, values);
+        final TreeMap<Integer, Integer> tree = new TreeMap<>(NMaps.mapOfLists(keys, values));
+        assertThat(sorted).isEqualTo(tree);
+        for (int i = -1; i < 3001; i++) {
+            assertThat(sorted.floorEntry(i)).isEqualTo(tree.floorEntry(i));
+            assertThat(sorted.higherKey(i)).isEqualTo(tree.higherKey(i));
+        }
+        assertThat(sorted.subMap(100, true, 2000, false)).isEqualTo(tree.subMap(100, true, 2000, false));
+    }
+
+    @Test
+    public void testSubMapBoundsMatchTreeMap() {
+        final NavigableMap<Integer, String> tree = new TreeMap<>(map);
+        final List<Function<NavigableMap<Integer, String>, NavigableMap<Integer, String>>> views = asList(
+                m -> m.subMap(15, true, 30, false),
+                m -> m.subMap(20, false, 30, true),
+                m -> m.headMap(30, false),
+                m -> m.tailMap(20, false),
+                m -> m.descendingMap().subMap(35, true, 15, false));
+        for (Function<NavigableMap<Integer, String>, NavigableMap<Integer, String>> view : views) {
+            for (int from = 10; from <= 40; from += 5) {
+                for (int to = from; to <= 40; to += 5) {
+                    for (boolean fromInclusive : new boolean[]{true, false}) {
+                        for (boolean toInclusive : new boolean[]{true, false}) {
+                            final int low = from;
+                            final int high = to;
+                            final Function<NavigableMap<Integer, String>, Object> call = m -> {
+                                final NavigableMap<Integer, String> v = view.apply(m);
+                                final boolean descending = v.comparator() != null;
+                                return v.subMap(descending ? high : low, fromInclusive, descending ? low : high, toInclusive).keySet().toString()
+                                        + v.headMap(high, toInclusive).keySet() + v.tailMap(low, fromInclusive).keySet();
+                            };
+                            assertThat(outcome(call, map)).isEqualTo(outcome(call, tree));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static Object outcome(Function<NavigableMap<Integer, String>, Object> call, NavigableMap<Integer, String> map) {
+        try {
+            return call.apply(map);
+        } catch (IllegalArgumentException e) {
+            return IllegalArgumentException.class;
+        }
+    }
+
+    @Test
+    public void testComparator() {
+        final NavigableMap<String, Integer> byLength = sortedMapOfLists(asList("a", "bb", "ccc"), asList(1, 2, 3), Comparator.comparing(String::length));
+        assertThat(byLength.get("xx")).isEqualTo(2);
+        assertThat(byLength.ceilingKey("xxxx")).isNull();
+    }
+
+    @Test
+    public void testEmpty() {
+        final NavigableMap<Integer, String> empty = sortedMapOfLists(Collections.<Integer>emptyList(), Collections.<String>emptyList());
+        assertThat(empty).isEmpty();
+        assertThat(empty.floorKey(1)).isNull();
+        assertThat(empty.firstEntry()).isNull();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testFirstKey_empty() {
+        map.subMap(21, 29).firstKey();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsorted() {
+        sortedMapOfLists(asList(1, 3, 2), asList("a", "b", "c"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDuplicateKeys() {
+        sortedMapOfLists(asList(1, 2, 2), asList("a", "b", "c"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentSize() {
+        sortedMapOfLists(asList(1, 2), asList("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSubMap_invalidRange() {
+        map.subMap(30, 10);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        map.pollFirstEntry();
+    }
+}
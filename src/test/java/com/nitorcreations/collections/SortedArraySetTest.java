@@ -0,0 +1,147 @@
+package com.nitorcreations.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+import static com.nitorcreations.collections.NSets.intersection;
+import static com.nitorcreations.collections.NSets.sortedArraySet;
+import static com.nitorcreations.test.Assertions.assertThat;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+
+public class SortedArraySetTest {
+    private final NavigableSet<Integer> set = sortedArraySet(asList(30, 10, 40, 20, 10));
+
+    @Test
+    public void testSortsAndRemovesDuplicates() {
+        assertThat(set).hasSize(4).containsExactly(10, 20, 30, 40);
+        assertThat(set.contains(20)).isTrue();
+        assertThat(set.contains(25)).isFalse();
+        assertThat(set.toArray()).containsExactly(10, 20, 30, 40);
+        assertThat(set).isEqualTo(new HashSet<>(asList(10, 20, 30, 40)));
+        assertThat(sortedArraySet(asList(1, 2, 3), Comparator.reverseOrder())).containsExactly(3, 2, 1);
+    }
+
+    @Test
+    public void testNavigation() {
+        assertThat(set.first()).isEqualTo(10);
+        assertThat(set.last()).isEqualTo(40);
+        assertThat(set.lower(20)).isEqualTo(10);
+        assertThat(set.floor(25)).isEqualTo(20);
+        assertThat(set.ceiling(25)).isEqualTo(30);
+        assertThat(set.higher(40)).isNull();
+        assertThat(set.descendingSet()).containsExactly(40, 30, 20, 10);
+        assertThat(set.descendingSet().ceiling(25)).isEqualTo(20);
+    }
+
+    @Test
+    public void testSubSets() {
+        assertThat(set.subSet(15, 35)).containsExactly(20, 30);
+        assertThat(set.subSet(20, false, 40, true)).containsExactly(30, 40);
+        assertThat(set.headSet(30)).containsExactly(10, 20);
+        assertThat(set.tailSet(30)).containsExactly(30, 40);
+        assertThat(set.subSet(15, 35).contains(10)).isFalse();
+        assertThat(set.subSet(15, 35).subSet(25, 35)).containsExactly(30);
+        assertThat(set.subSet(21, 29)).isEmpty();
+    }
+
+    @Test
+    public void testSubSetBoundsMatchTreeSet() {
+        final NavigableSet<Integer> values = sortedArraySet(IntStream.rangeClosed(0, 10).boxed().collect(toList()));
+        final NavigableSet<Integer> tree = new TreeSet<>(values);
+        assertThat(outcome(values.subSet(2, true, 4, true), view -> view.subSet(0, true, 10, true)))
+                .isEqualTo(IllegalArgumentException.class);
+        final List<UnaryOperator<NavigableSet<Integer>>> views = asList(
+                set -> set.subSet(2, false, 8, true),
+                set -> set.tailSet(3, false),
+                set -> set.descendingSet().headSet(6, true));
+        for (UnaryOperator<NavigableSet<Integer>> view : views) {
+            final NavigableSet<Integer> actual = view.apply(values);
+            final NavigableSet<Integer> expected = view.apply(tree);
+            final boolean descending = expected.comparator() != null;
+            for (int low = 0; low <= 10; low++) {
+                for (int high = low; high <= 10; high++) {
+                    final int first = descending ? high : low;
+                    final int last = descending ? low : high;
+                    for (boolean inclusive : new boolean[]{true, false}) {
+                        final List<UnaryOperator<NavigableSet<Integer>>> calls = asList(
+                                set -> set.subSet(first, inclusive, last, !inclusive),
+                                set -> set.headSet(last, inclusive),
+                                set -> set.tailSet(first, inclusive));
+                        for (UnaryOperator<NavigableSet<Integer>> call : calls) {
+                            assertThat(outcome(actual, call)).isEqualTo(outcome(expected, call));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static Object outcome(NavigableSet<Integer> set, UnaryOperator<NavigableSet<Integer>> call) {
+        try {
+            return new ArrayList<>(call.apply(set));
+        } catch (IllegalArgumentException e) {
+            return IllegalArgumentException.class;
+        }
+    }
+
+    @Test
+    public void testDescendingIterator() {
+        final List<Integer> descending = new ArrayList<>();
+        set.subSet(15, true, 50, false).descendingIterator().forEachRemaining(descending::add);
+        assertThat(descending).containsExactly(40, 30, 20);
+    }
+
+    @Test
+    public void testCopiesSortedSets() {
+        final TreeSet<Integer> tree = new TreeSet<>(asList(3, 1, 2));
+        assertThat(sortedArraySet(tree)).containsExactly(1, 2, 3);
+        final TreeSet<Integer> reversed = new TreeSet<>(Comparator.reverseOrder());
+        reversed.addAll(tree);
+        assertThat(sortedArraySet(reversed)).containsExactly(1, 2, 3);
+        assertThat(sortedArraySet(reversed, Comparator.reverseOrder())).containsExactly(3, 2, 1);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testFirst_empty() {
+        set.subSet(21, 29).first();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSubSet_reversedRange() {
+        set.subSet(30, 20);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        set.add(50);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullValues() {
+        sortedArraySet(asList(1, null));
+    }
+
+    @Test
+    public void testIntersection_gallops() {
+        final NavigableSet<Integer> dense = sortedArraySet(IntStream.range(0, 100_000).boxed().collect(toList()));
+        final NavigableSet<Integer> sparse = sortedArraySet(IntStream.range(0, 100).map(i -> i * 997).boxed().collect(toList()));
+        final Set<Integer> expected = new HashSet<>(sparse);
+        expected.removeIf(i -> i >= 100_000);
+
+        final Set<Integer> common = intersection(dense, sparse).materialize();
+        assertThat(common).isInstanceOf(SortedArraySet.class).isEqualTo(expected);
+        assertThat(intersection(dense.subSet(5000, 10_000), sparse).materialize()).containsExactly(5982, 6979, 7976, 8973, 9970);
+        assertThat(intersection(new TreeSet<>(dense), sparse).materialize()).isInstanceOf(SortedArraySet.class).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,178 @@
+package com.nitorcreations.collections.primitive;
+
+import com.nitorcreations.collections.NSets;
+import com.nitorcreations.streams.NCollectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.nitorcreations.test.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class IntBitmapTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /** Sparse, dense and consecutive chunks, and negative elements */
+    private static IntStream sample(long seed) {
+        final Random random = new Random(seed);
+        return IntStream.concat(IntStream.concat(
+                random.ints(3000, 0, 1 << 20),
+                random.ints(40000, 1 << 20, (1 << 20) + 65536)),
+                IntStream.concat(IntStream.range(5 << 16, (5 << 16) + 20000 + random.nextInt(1000)), random.ints(100, Integer.MIN_VALUE, 0)));
+    }
+
+    private static Set<Integer> toSet(IntStream elements) {
+        return elements.boxed().collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testAddContainsAndRemove() {
+        final IntBitmap bitmap = IntBitmap.of(3, 1, 70000, -1, 3);
+        assertThat(bitmap.cardinality()).isEqualTo(4);
+        assertThat(bitmap.contains(70000)).isTrue();
+        assertThat(bitmap.contains(2)).isFalse();
+        assertThat(bitmap.toArray()).containsExactly(1, 3, 70000, -1);
+        bitmap.remove(70000);
+        bitmap.remove(5);
+        assertThat(bitmap.toString()).isEqualTo("[1, 3, -1]");
+    }
+
+    @Test
+    public void testContainers_matchHashSet() {
+        final Set<Integer> expected = toSet(sample(1));
+        final IntBitmap bitmap = new IntBitmap();
+        sample(1).forEach(bitmap::add);
+        assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+        assertThat(toSet(bitmap.stream())).isEqualTo(expected);
+        bitmap.runOptimize();
+        assertThat(toSet(bitmap.stream())).isEqualTo(expected);
+        assertThat(bitmap.serializedBytes()).isLessThan(expected.size());
+        final Random random = new Random(2);
+        for (int i = 0; i < 20000; i++) {
+            final int element = random.nextBoolean() ? random.nextInt(6 << 16) : random.nextInt();
+            if (random.nextBoolean()) {
+                bitmap.remove(element);
+                expected.remove(element);
+            } else {
+                bitmap.add(element);
+                expected.add(element);
+            }
+            assertThat(bitmap.contains(element)).isEqualTo(expected.contains(element));
+        }
+        assertThat(toSet(bitmap.stream())).isEqualTo(expected);
+        assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+    }
+
+    @Test
+    public void testSetOperations_matchHashSet() {
+        final IntBitmap left = NSets.asIntBitmap(sample(3));
+        final IntBitmap right = NSets.asIntBitmap(sample(4).filter(i -> i % 3 != 0));
+        final IntBitmap unoptimized = new IntBitmap();
+        sample(4).filter(i -> i % 3 != 0).forEach(unoptimized::add);
+        assertThat(unoptimized).isEqualTo(right);
+        final Set<Integer> a = toSet(sample(3));
+        final Set<Integer> b = toSet(sample(4).filter(i -> i % 3 != 0));
+
+        final Set<Integer> and = new HashSet<>(a);
+        and.retainAll(b);
+        assertThat(toSet(left.and(right).stream())).isEqualTo(and);
+        assertThat(toSet(left.and(unoptimized).stream())).isEqualTo(and);
+        assertThat(left.andCardinality(right)).isEqualTo(and.size());
+        assertThat(unoptimized.andCardinality(left)).isEqualTo(and.size());
+
+        final Set<Integer> or = new HashSet<>(a);
+        or.addAll(b);
+        assertThat(toSet(left.or(right).stream())).isEqualTo(or);
+        assertThat(left.or(unoptimized).cardinality()).isEqualTo(or.size());
+
+        final Set<Integer> andNot = new HashSet<>(a);
+        andNot.removeAll(b);
+        assertThat(toSet(left.andNot(right).stream())).isEqualTo(andNot);
+        assertThat(toSet(unoptimized.andNot(left).stream())).isEqualTo(difference(b, a::contains));
+        assertThat(left.andNot(left).isEmpty()).isTrue();
+    }
+
+    private static Set<Integer> difference(Set<Integer> set, IntPredicate removed) {
+        final Set<Integer> result = new HashSet<>(set);
+        result.removeIf(removed::test);
+        return result;
+    }
+
+    @Test
+    public void testOperations_doNotModifyOperands() {
+        final IntBitmap left = NSets.asIntBitmap(1, 2, 3);
+        final IntBitmap right = NSets.asIntBitmap(3, 4);
+        final IntBitmap union = left.or(right);
+        union.add(5);
+        left.andNot(right).add(6);
+        assertThat(left).isEqualTo(IntBitmap.of(1, 2, 3));
+        assertThat(right).isEqualTo(IntBitmap.of(3, 4));
+        left.addAll(right);
+        assertThat(left.toArray()).containsExactly(1, 2, 3, 4);
+        assertThat(left.hashCode()).isEqualTo(IntBitmap.of(4, 3, 2, 1).hashCode());
+    }
+
+    @Test
+    public void testSerialization() {
+        final IntBitmap bitmap = NSets.asIntBitmap(sample(5));
+        final ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedBytes() + 3);
+        buffer.put((byte) 1);
+        bitmap.writeTo(buffer);
+        assertThat(buffer.position()).isEqualTo(bitmap.serializedBytes() + 1);
+        buffer.position(1);
+        final IntBitmap read = IntBitmap.readFrom(buffer);
+        assertThat(buffer.position()).isEqualTo(bitmap.serializedBytes() + 1);
+        assertThat(read).isEqualTo(bitmap);
+        assertThat(read.cardinality()).isEqualTo(bitmap.cardinality());
+    }
+
+    @Test
+    public void testWriteAndReadFile() throws IOException {
+        final Path path = folder.getRoot().toPath().resolve("ids.bitmap");
+        final int[] elements = sample(6).toArray();
+        final IntBitmap bitmap = NSets.asIntBitmap(IntStream.of(elements).parallel());
+        assertThat(toSet(bitmap.stream())).isEqualTo(toSet(IntStream.of(elements)));
+        NSets.writeIntBitmap(bitmap, path);
+        assertThat(NSets.readIntBitmap(path)).isEqualTo(bitmap);
+        NSets.writeIntBitmap(new IntBitmap(), path);
+        assertThat(NSets.readIntBitmap(path).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testWriteFile_failureRemovesTemporaryFile() throws IOException {
+        final Path path = folder.newFolder("ids.bitmap").toPath();
+        Files.createFile(path.resolve("occupied"));
+        try {
+            NSets.writeIntBitmap(NSets.asIntBitmap(IntStream.range(0, 10)), path);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertThat(folder.getRoot().list()).containsOnly("ids.bitmap");
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadFile_notABitmap() throws IOException {
+        final Path path = folder.newFile().toPath();
+        NSets.readIntBitmap(path);
+    }
+
+    @Test
+    public void testToIntBitmap() {
+        final int[] elements = sample(7).toArray();
+        final IntBitmap bitmap = IntStream.of(elements).boxed().parallel().collect(NCollectors.toIntBitmap());
+        assertThat(toSet(bitmap.stream())).isEqualTo(toSet(IntStream.of(elements)));
+    }
+}
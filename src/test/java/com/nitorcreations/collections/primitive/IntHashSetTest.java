@@ -0,0 +1,71 @@
+package com.nitorcreations.collections.primitive;
+
+import com.nitorcreations.collections.NSets;
+import com.nitorcreations.streams.NCollectors;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class IntHashSetTest {
+
+    @Test
+    public void testAddAndContains() {
+        final IntHashSet set = new IntHashSet();
+        assertThat(set.add(1 << 30)).isTrue();
+        assertThat(set.add(0)).isTrue();
+        assertThat(set.add(0)).isFalse();
+        assertThat(set.contains(1 << 30)).isTrue();
+        assertThat(set.contains(1)).isFalse();
+        assertThat(set.toArray()).containsOnly(0, 1 << 30);
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(set.toString()).isEqualTo("[0, 1073741824]");
+    }
+
+    @Test
+    public void testRandomOperations_matchHashSet() {
+        final Random random = new Random(11);
+        final Set<Integer> expected = new HashSet<>();
+        final IntHashSet set = new IntHashSet();
+        for (int i = 0; i < 100000; i++) {
+            final int element = (random.nextInt(2000) - 1000) * 0x10001;
+            if (random.nextBoolean()) {
+                assertThat(set.remove(element)).isEqualTo(expected.remove(element));
+            } else {
+                assertThat(set.add(element)).isEqualTo(expected.add(element));
+            }
+        }
+        assertThat(set.stream().boxed().collect(Collectors.toSet())).isEqualTo(expected);
+        assertThat(set.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    public void testBulkOperations() {
+        final IntHashSet set = NSets.asIntSet(0, 1, 2, 3, 4, 5);
+        assertThat(set.addAll(5, 6)).isTrue();
+        assertThat(set.addAll(5, 6)).isFalse();
+        assertThat(set.containsAll(0, 6)).isTrue();
+        assertThat(set.containsAll(0, 7)).isFalse();
+        assertThat(set.retainAll(0, 1, 2, 3, 4, 5, 6, 7)).isFalse();
+        assertThat(set.size()).isEqualTo(7);
+        assertThat(set.retainAll(0, 2, 4, 8)).isTrue();
+        assertThat(set).isEqualTo(NSets.asIntSet(4, 2, 0));
+        assertThat(set.hashCode()).isEqualTo(NSets.asIntSet(IntStream.of(2, 4, 0)).hashCode());
+        set.add(9);
+        assertThat(set.contains(9)).isTrue();
+    }
+
+    @Test
+    public void testToLongSet() {
+        final IntHashSet set = IntStream.range(0, 10000).parallel().boxed().collect(NCollectors.toIntSet());
+        assertThat(set.size()).isEqualTo(10000);
+        assertThat(set.containsAll(0, 9999)).isTrue();
+        assertThat(Stream.of("a", "bb", "cc").collect(NCollectors.toIntSet(String::length))).isEqualTo(NSets.asIntSet(1, 2));
+    }
+}
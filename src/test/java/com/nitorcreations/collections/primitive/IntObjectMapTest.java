@@ -0,0 +1,81 @@
+package com.nitorcreations.collections.primitive;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class IntObjectMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        final IntObjectMap<String> map = new IntObjectMap<>();
+        assertThat(map.put(1, "a")).isNull();
+        assertThat(map.put(1, "b")).isEqualTo("a");
+        assertThat(map.get(1)).isEqualTo("b");
+        assertThat(map.get(2)).isNull();
+        assertThat(map.getOrDefault(2, "c")).isEqualTo("c");
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testZeroKey() {
+        final IntObjectMap<String> map = new IntObjectMap<>();
+        assertThat(map.containsKey(0)).isFalse();
+        map.put(0, "zero");
+        assertThat(map.containsKey(0)).isTrue();
+        assertThat(map.get(0)).isEqualTo("zero");
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.keys()).containsExactly(0);
+        assertThat(map.remove(0)).isEqualTo("zero");
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testRandomOperations_matchHashMap() {
+        final Random random = new Random(7);
+        final Map<Integer, Integer> expected = new HashMap<>();
+        final IntObjectMap<Integer> map = new IntObjectMap<>(4);
+        for (int i = 0; i < 100000; i++) {
+            final int key = random.nextInt(2000) - 1000;
+            if (random.nextBoolean()) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                assertThat(map.put(key, i)).isEqualTo(expected.put(key, i));
+            }
+        }
+        assertThat(map.size()).isEqualTo(expected.size());
+        final Map<Integer, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertThat(iterated).isEqualTo(expected);
+        assertThat(map.keys()).hasSize(expected.size());
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        final IntObjectMap<String> a = new IntObjectMap<>();
+        final IntObjectMap<String> b = new IntObjectMap<>(1000);
+        a.put(1, "a");
+        a.put(0, "b");
+        b.put(0, "b");
+        b.put(1, "a");
+        assertThat(a).isEqualTo(b);
+        assertThat(a.hashCode()).isEqualTo(b.hashCode());
+        b.put(2, "c");
+        assertThat(a).isNotEqualTo(b);
+        assertThat(a.toString()).isEqualTo("{0=b, 1=a}");
+    }
+
+    @Test
+    public void testClear() {
+        final IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(0, "a");
+        map.put(1, "b");
+        map.clear();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.containsKey(1)).isFalse();
+    }
+}
@@ -0,0 +1,71 @@
+package com.nitorcreations.collections.primitive;
+
+import com.nitorcreations.collections.NSets;
+import com.nitorcreations.streams.NCollectors;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class LongHashSetTest {
+
+    @Test
+    public void testAddAndContains() {
+        final LongHashSet set = new LongHashSet();
+        assertThat(set.add(1L << 40)).isTrue();
+        assertThat(set.add(0)).isTrue();
+        assertThat(set.add(0)).isFalse();
+        assertThat(set.contains(1L << 40)).isTrue();
+        assertThat(set.contains(1)).isFalse();
+        assertThat(set.toArray()).containsOnly(0L, 1L << 40);
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(set.toString()).isEqualTo("[0, 1099511627776]");
+    }
+
+    @Test
+    public void testRandomOperations_matchHashSet() {
+        final Random random = new Random(11);
+        final Set<Long> expected = new HashSet<>();
+        final LongHashSet set = new LongHashSet();
+        for (int i = 0; i < 100000; i++) {
+            final long element = (random.nextInt(2000) - 1000) * 0x100000001L;
+            if (random.nextBoolean()) {
+                assertThat(set.remove(element)).isEqualTo(expected.remove(element));
+            } else {
+                assertThat(set.add(element)).isEqualTo(expected.add(element));
+            }
+        }
+        assertThat(set.stream().boxed().collect(Collectors.toSet())).isEqualTo(expected);
+        assertThat(set.size()).isEqualTo(expected.size());
+    }
+
+    @Test
+    public void testBulkOperations() {
+        final LongHashSet set = NSets.asLongSet(0, 1, 2, 3, 4, 5);
+        assertThat(set.addAll(5, 6)).isTrue();
+        assertThat(set.addAll(5, 6)).isFalse();
+        assertThat(set.containsAll(0, 6)).isTrue();
+        assertThat(set.containsAll(0, 7)).isFalse();
+        assertThat(set.retainAll(0, 1, 2, 3, 4, 5, 6, 7)).isFalse();
+        assertThat(set.size()).isEqualTo(7);
+        assertThat(set.retainAll(0, 2, 4, 8)).isTrue();
+        assertThat(set).isEqualTo(NSets.asLongSet(4, 2, 0));
+        assertThat(set.hashCode()).isEqualTo(NSets.asLongSet(LongStream.of(2, 4, 0)).hashCode());
+        set.add(9);
+        assertThat(set.contains(9)).isTrue();
+    }
+
+    @Test
+    public void testToLongSet() {
+        final LongHashSet set = LongStream.range(0, 10000).parallel().boxed().collect(NCollectors.toLongSet());
+        assertThat(set.size()).isEqualTo(10000);
+        assertThat(set.containsAll(0, 9999)).isTrue();
+        assertThat(Stream.of("a", "bb", "cc").collect(NCollectors.toLongSet(String::length))).isEqualTo(NSets.asLongSet(1, 2));
+    }
+}
@@ -0,0 +1,41 @@
+package com.nitorcreations.collections.primitive;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class LongObjectMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        final LongObjectMap<String> map = new LongObjectMap<>();
+        assertThat(map.put(1L << 40, "a")).isNull();
+        assertThat(map.put(0, "zero")).isNull();
+        assertThat(map.get(1L << 40)).isEqualTo("a");
+        assertThat(map.get(1)).isNull();
+        assertThat(map.keys()).containsOnly(0L, 1L << 40);
+    }
+
+    @Test
+    public void testRandomOperations_matchHashMap() {
+        final Random random = new Random(11);
+        final Map<Long, Integer> expected = new HashMap<>();
+        final LongObjectMap<Integer> map = new LongObjectMap<>();
+        for (int i = 0; i < 100000; i++) {
+            final long key = (random.nextInt(2000) - 1000) * 0x100000001L;
+            if (random.nextBoolean()) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                assertThat(map.put(key, i)).isEqualTo(expected.put(key, i));
+            }
+        }
+        final Map<Long, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertThat(iterated).isEqualTo(expected);
+        assertThat(map.size()).isEqualTo(expected.size());
+    }
+}
@@ -0,0 +1,57 @@
+package com.nitorcreations.collections.primitive;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class ObjectIntMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        final ObjectIntMap<String> map = new ObjectIntMap<>();
+        assertThat(map.put("a", 1)).isEqualTo(0);
+        assertThat(map.put("a", 2)).isEqualTo(1);
+        assertThat(map.get("a")).isEqualTo(2);
+        assertThat(map.get("b")).isEqualTo(0);
+        assertThat(map.getOrDefault("b", -1)).isEqualTo(-1);
+        assertThat(map.containsKey("b")).isFalse();
+    }
+
+    @Test
+    public void testAddTo() {
+        final ObjectIntMap<String> map = new ObjectIntMap<>();
+        assertThat(map.addTo("a", 3)).isEqualTo(3);
+        assertThat(map.addTo("a", 2)).isEqualTo(5);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullKey() {
+        new ObjectIntMap<String>().put(null, 1);
+    }
+
+    @Test
+    public void testRandomOperations_matchHashMap() {
+        final Random random = new Random(13);
+        final Map<String, Integer> expected = new HashMap<>();
+        final ObjectIntMap<String> map = new ObjectIntMap<>();
+        for (int i = 0; i < 100000; i++) {
+            final String key = "key" + random.nextInt(2000);
+            if (random.nextBoolean()) {
+                final Integer removed = expected.remove(key);
+                assertThat(map.remove(key)).isEqualTo(removed == null ? 0 : removed);
+            } else {
+                expected.merge(key, i, Integer::sum);
+                map.addTo(key, i);
+            }
+        }
+        final Map<String, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertThat(iterated).isEqualTo(expected);
+        assertThat(map.size()).isEqualTo(expected.size());
+    }
+}
@@ -0,0 +1,32 @@
+package com.nitorcreations.collections.primitive;
+
+import org.junit.Test;
+
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class ObjectLongMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        final ObjectLongMap<String> map = new ObjectLongMap<>();
+        assertThat(map.put("a", 1L << 40)).isEqualTo(0L);
+        assertThat(map.get("a")).isEqualTo(1L << 40);
+        assertThat(map.addTo("a", 1)).isEqualTo((1L << 40) + 1);
+        assertThat(map.remove("a")).isEqualTo((1L << 40) + 1);
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testGrowAndEquals() {
+        final ObjectLongMap<Integer> a = new ObjectLongMap<>(1);
+        final ObjectLongMap<Integer> b = new ObjectLongMap<>();
+        for (int i = 0; i < 1000; i++) {
+            a.put(i, i * 2L);
+            b.put(999 - i, (999 - i) * 2L);
+        }
+        assertThat(a.size()).isEqualTo(1000);
+        assertThat(a.get(500)).isEqualTo(1000L);
+        assertThat(a).isEqualTo(b);
+        assertThat(a.hashCode()).isEqualTo(b.hashCode());
+    }
+}
@@ -0,0 +1,74 @@
+package com.nitorcreations.collections.primitive;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+
+import static com.nitorcreations.collections.NSets.sortedLongArraySet;
+import static com.nitorcreations.test.Assertions.assertThat;
+
+public class SortedLongArraySetTest {
+    private final SortedLongArraySet set = sortedLongArraySet(30, 10, 40, 20, 10, -5);
+
+    @Test
+    public void testSortsAndRemovesDuplicates() {
+        assertThat(set.size()).isEqualTo(5);
+        assertThat(set.toArray()).containsExactly(-5, 10, 20, 30, 40);
+        assertThat(set.contains(20)).isTrue();
+        assertThat(set.contains(25)).isFalse();
+        assertThat(set.containsAll(-5, 40)).isTrue();
+        assertThat(set.containsAll(-5, 41)).isFalse();
+        assertThat(set.first()).isEqualTo(-5);
+        assertThat(set.last()).isEqualTo(40);
+        assertThat(set.toString()).isEqualTo("[-5, 10, 20, 30, 40]");
+    }
+
+    @Test
+    public void testOfDoesNotShareArray() {
+        final long[] values = {3, 1, 2};
+        final SortedLongArraySet copy = SortedLongArraySet.of(values);
+        assertThat(values).containsExactly(3, 1, 2);
+        assertThat(copy).isEqualTo(sortedLongArraySet(LongStream.of(2, 1, 3, 3)));
+        assertThat(copy.hashCode()).isEqualTo(sortedLongArraySet(1, 2, 3).hashCode());
+    }
+
+    @Test
+    public void testSubSet() {
+        final SortedLongArraySet range = set.subSet(10, 30);
+        assertThat(range.toArray()).containsExactly(10, 20);
+        assertThat(range.contains(30)).isFalse();
+        assertThat(range.stream().sum()).isEqualTo(30);
+        assertThat(range.subSet(15, 100).toArray()).containsExactly(20);
+        assertThat(set.subSet(21, 29).isEmpty()).isTrue();
+        assertThat(set.subSet(Long.MIN_VALUE, Long.MAX_VALUE)).isSameAs(set);
+        final PrimitiveIterator.OfLong iterator = range.iterator();
+        assertThat(iterator.nextLong()).isEqualTo(10);
+        assertThat(iterator.nextLong()).isEqualTo(20);
+        assertThat(iterator.hasNext()).isFalse();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testFirst_empty() {
+        sortedLongArraySet().first();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSubSet_reversedRange() {
+        set.subSet(30, 20);
+    }
+
+    @Test
+    public void testIntersection() {
+        final SortedLongArraySet dense = sortedLongArraySet(LongStream.range(0, 1_000_000));
+        final SortedLongArraySet sparse = sortedLongArraySet(LongStream.range(0, 1000).map(i -> i * 1009));
+        final SortedLongArraySet expected = sortedLongArraySet(LongStream.range(0, 992).map(i -> i * 1009));
+
+        assertThat(dense.intersection(sparse)).isEqualTo(expected);
+        assertThat(sparse.intersection(dense)).isEqualTo(expected);
+        assertThat(dense.intersectionSize(sparse)).isEqualTo(992);
+        assertThat(dense.subSet(1000, 3000).intersection(sparse).toArray()).containsExactly(1009, 2018);
+        assertThat(sparse.intersection(sortedLongArraySet(-1, 1, 1008)).isEmpty()).isTrue();
+    }
+}
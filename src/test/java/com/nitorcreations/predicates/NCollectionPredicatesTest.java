@@ -1,5 +1,6 @@
 package com.nitorcreations.predicates;
 
+import com.nitorcreations.collections.NSets;
 import org.junit.Test;
 
 import java.lang.reflect.InvocationTargetException;
@@ -82,4 +83,11 @@ public class NCollectionPredicatesTest {
                 .matchesAll(emptyList(), singletonList(123L), singletonList(321L))
                 .matchesNone(null, asList(2L, 3L, 123L, 321L));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMightContain() {
+        assertThat(mightContain(NSets.bloomFilter(asList("a", "b"), 100, 0.0001)))
+                .matchesAll("a", "b")
+                .matchesNone("c", "d");
+    }
+}
@@ -17,19 +17,39 @@
 
 package com.nitorcreations.streams;
 
+import com.nitorcreations.collections.OrderedMap;
+import com.nitorcreations.collections.primitive.IntObjectMap;
+import com.nitorcreations.collections.primitive.LongObjectMap;
+import com.nitorcreations.collections.primitive.ObjectIntMap;
+import com.nitorcreations.collections.primitive.ObjectLongMap;
 import org.junit.Test;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.nitorcreations.streams.Fixture.entriesWithDuplicates;
 import static com.nitorcreations.streams.Fixture.entries;
 import static com.nitorcreations.streams.Fixture.listWithDuplicates;
 import static com.nitorcreations.streams.NCollectors.countingOccurrences;
+import static com.nitorcreations.streams.NCollectors.countingOccurrencesAsLongMap;
 import static com.nitorcreations.streams.NCollectors.entriesToMap;
+import static com.nitorcreations.streams.NCollectors.entriesToOrderedMap;
+import static com.nitorcreations.streams.NCollectors.toIntObjectMap;
+import static com.nitorcreations.streams.NCollectors.toLongObjectMap;
+import static com.nitorcreations.streams.NCollectors.toObjectIntMap;
+import static com.nitorcreations.streams.NCollectors.toObjectLongMap;
+import static com.nitorcreations.streams.NMappers.entryOf;
 import static com.nitorcreations.test.TestUtils.invokePrivateConstructor;
 import static com.nitorcreations.test.Assertions.assertThat;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.function.Function.identity;
 import static org.assertj.core.util.Lists.emptyList;
 
 public class NCollectorsTest {
@@ -54,6 +74,21 @@ public class NCollectorsTest {
                 .containsEntry("Qux", 1L);
     }
 
+    @Test
+    public void countingOccurrencesOfEnums_usesEnumMap() {
+        final Map<TimeUnit, Long> occurrences = Stream.of(SECONDS, DAYS, SECONDS).collect(countingOccurrences());
+        assertThat(occurrences)
+                .isInstanceOf(EnumMap.class)
+                .hasSize(2)
+                .containsEntry(SECONDS, 2L)
+                .containsEntry(DAYS, 1L);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void countingOccurrencesOfNull() {
+        Stream.of(SECONDS, null).collect(countingOccurrences());
+    }
+
     @Test
     public void countingOccurencesEmptyList() {
         final List<String> strings = emptyList();
@@ -61,6 +96,52 @@ public class NCollectorsTest {
         assertThat(occurrences).isEmpty();
     }
 
+    @Test
+    public void countingOccurrencesAsLongMapWorks() {
+        final ObjectLongMap<String> occurrences = listWithDuplicates.parallelStream().collect(countingOccurrencesAsLongMap());
+        assertThat(occurrences.size()).isEqualTo(4);
+        assertThat(occurrences.get("Foo")).isEqualTo(4L);
+        assertThat(occurrences.get("Bar")).isEqualTo(1L);
+        assertThat(occurrences.get("Baz")).isEqualTo(2L);
+        assertThat(occurrences.get("Qux")).isEqualTo(1L);
+    }
+
+    //
+    // COLLECT TO PRIMITIVE MAPS
+    //
+
+    @Test
+    public void collectingToIntObjectMap() {
+        final IntObjectMap<String> map = IntStream.range(0, 1000).boxed().parallel()
+                .collect(toIntObjectMap(i -> i, String::valueOf));
+        assertThat(map.size()).isEqualTo(1000);
+        assertThat(map.get(999)).isEqualTo("999");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void collectingToIntObjectMapWithDuplicates() {
+        listWithDuplicates.stream().collect(toIntObjectMap(String::length, identity()));
+    }
+
+    @Test
+    public void collectingToLongObjectMap() {
+        final LongObjectMap<String> map = entries.stream().collect(toLongObjectMap(e -> e.getValue(), e -> e.getKey()));
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.get(4L)).isEqualTo("Toka");
+    }
+
+    @Test
+    public void collectingToObjectIntMap() {
+        final ObjectIntMap<String> map = entries.stream().collect(toObjectIntMap(e -> e.getKey(), e -> e.getValue()));
+        assertThat(map.size()).isEqualTo(3);
+        assertThat(map.get("Kolmas")).isEqualTo(5);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void collectingToObjectLongMapWithDuplicates() {
+        entriesWithDuplicates.stream().collect(toObjectLongMap(e -> e.getKey(), e -> e.getValue()));
+    }
+
     //
     // COLLECT ENTRIES TO MAP
     //
@@ -89,4 +170,63 @@ public class NCollectorsTest {
                 .containsEntry("Toka", 4)
                 .containsEntry("Kolmas", 5);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void collectingEntriesWithEnumKeys_usesEnumMap() {
+        final Map<TimeUnit, Integer> map = Stream.of(entryOf(SECONDS, 1), entryOf(DAYS, 2), entryOf(SECONDS, 3))
+                .parallel()
+                .collect(entriesToMap((a, b) -> a + b));
+        assertThat(map)
+                .isInstanceOf(EnumMap.class)
+                .hasSize(2)
+                .containsEntry(SECONDS, 4)
+                .containsEntry(DAYS, 2);
+    }
+
+    @Test
+    public void collectingEntriesWithMixedKeys_fallsBackToHashMap() {
+        final Map<Object, Integer> map = Stream.<Map.Entry<Object, Integer>>of(entryOf(SECONDS, 1), entryOf("Eka", 2), entryOf(null, 3))
+                .collect(entriesToMap());
+        assertThat(map)
+                .isInstanceOf(HashMap.class)
+                .hasSize(3)
+                .containsEntry(SECONDS, 1)
+                .containsEntry("Eka", 2)
+                .containsEntry(null, 3);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void collectingEntriesWithDuplicateEnumKeys() {
+        Stream.of(entryOf(SECONDS, 1), entryOf(SECONDS, 2)).collect(entriesToMap());
+    }
+
+    @Test
+    public void collectingEntriesToOrderedMap() {
+        final OrderedMap<String, Integer> map = Stream.of(entryOf("Toka", 2), entryOf("Eka", 1), entryOf("Kolmas", 3))
+                .collect(entriesToOrderedMap());
+        assertThat(map.keySet()).containsExactly("Toka", "Eka", "Kolmas");
+    }
+
+    @Test
+    public void collectingEntriesToOrderedMap_parallel() {
+        final OrderedMap<Integer, Integer> map = IntStream.range(0, 10_000).boxed().parallel()
+                .map(i -> entryOf(i, i))
+                .collect(entriesToOrderedMap());
+        assertThat(map.keySet()).containsExactlyElementsOf(() -> IntStream.range(0, 10_000).iterator());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void collectingEntriesWithDuplicatesToOrderedMap() {
+        entriesWithDuplicates.stream().collect(entriesToOrderedMap());
+    }
+
+    @Test
+    public void collectingEntriesWithDuplicatesToOrderedMapWithMapping() {
+        final OrderedMap<String, Integer> map = entriesWithDuplicates.stream().collect(entriesToOrderedMap((a, b) -> a + b));
+        assertThat(map)
+                .hasSize(3)
+                .containsEntry("Eka", 6)
+                .containsEntry("Toka", 4)
+                .containsEntry("Kolmas", 5);
+    }
+}